@@ -17,10 +17,16 @@
  */
 package com.ubershy.streamsis;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +37,7 @@ import com.typesafe.config.ConfigFactory;
 import com.typesafe.config.ConfigOrigin;
 import com.typesafe.config.ConfigRenderOptions;
 import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
 
 import javafx.stage.FileChooser;
 
@@ -39,6 +46,11 @@ import javafx.stage.FileChooser;
  * <p>
  * Internally it is working with a single {@link Config} object which can be saved to file or read
  * from a file when necessary. Can provide default value for each configuration key.
+ * <p>
+ * Values are cached in a flat map after the first read, together with their parsed boolean and
+ * double forms, so frequent reads don't resolve {@link Config} paths again and again. Changes go
+ * to the cache and {@link Config} at once, are announced to {@link ConfigListener ConfigListeners}
+ * and are saved to file in background a moment after the last change.
  * 
  * @note: If adding new configuration key, default value for the key should be added to
  *        {@link #fallbackConfigResourcePath} file.
@@ -55,14 +67,41 @@ public final class CuteConfig {
 	/**
 	 * The {@link Config} object in RAM to work with. Has {@link #fallbackConf} as fallback Config.
 	 */
-	private static Config conf;
+	private static volatile Config conf;
 
 	/** The fallback {@link Config} object to use as storage of default configuration values. */
 	private static Config fallbackConf;
 
-	/** True if {@link Config} is changed and needs to be saved. */
+	/** True if {@link Config} is changed and needs to be saved. Guarded by CuteConfig.class. */
 	private static boolean needsSave;
 
+	/** The delay in milliseconds between the last change of {@link Config} and its saving. */
+	private final static long SAVEDELAY = 1000;
+
+	/**
+	 * The cached values by flat keys like "StreamSis.GlobalVolume". A value is taken from
+	 * {@link #conf} on the first read and replaced on each change.
+	 */
+	private static final ConcurrentHashMap<String, CachedValue> cache = new ConcurrentHashMap<>();
+
+	/** The listeners of changes by flat keys like "StreamSis.GlobalVolume". */
+	private static final ConcurrentHashMap<String, List<ConfigListener>> listeners =
+			new ConcurrentHashMap<>();
+
+	/** The thread saving configuration file in background. */
+	private static final ScheduledExecutorService saver = Executors
+			.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "CuteConfigSaver");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/** The scheduled saving, null if nothing is scheduled. Guarded by CuteConfig.class. */
+	private static ScheduledFuture<?> scheduledSave;
+
+	/** The lock which makes savings to happen one after another. */
+	private static final Object saveLock = new Object();
+
 	/** Path of fallback configuration file {@link #fallbackConf}. */
 	private final static String fallbackConfigResourcePath = "config/StreamSisFallback.conf";
 
@@ -143,31 +182,72 @@ public final class CuteConfig {
 	private static void setStringToConfig(String key, String subKey, String newValue,
 			boolean hideValue) {
 		String fullPath = MAINKEY + "." + key + "." + subKey;
-		if (getString(key, subKey).equals(newValue)) {
-			String messageToLog = hideValue
-					? String.format("Setting secret configuration value. Key: %s.%s", key, subKey)
-					: String.format("Configuration value unchanged. Key: %s.%s Value: %s", key,
-							subKey, newValue);
-			logger.info(messageToLog);
-			return;
-		}
-		String processedNewValue = ConfigUtil.quoteString(newValue);
-		// Lets make new Config object with just a single variable.
-		// Also lets preserve the comments from the original Config.
-		ConfigOrigin or = conf.getValue(fullPath).origin();
-		StringBuilder toParse = new StringBuilder();
-		for (String comment : or.comments()) {
-			toParse.append("#").append(comment).append("\n");
+		synchronized (CuteConfig.class) {
+			if (getString(key, subKey).equals(newValue)) {
+				String messageToLog = hideValue
+						? String.format("Setting secret configuration value. Key: %s.%s", key,
+								subKey)
+						: String.format("Configuration value unchanged. Key: %s.%s Value: %s",
+								key, subKey, newValue);
+				logger.info(messageToLog);
+				return;
+			}
+			String processedNewValue = ConfigUtil.quoteString(newValue);
+			// Lets make new Config object with just a single variable.
+			// Also lets preserve the comments from the original Config.
+			ConfigOrigin or = conf.getValue(fullPath).origin();
+			StringBuilder toParse = new StringBuilder();
+			for (String comment : or.comments()) {
+				toParse.append("#").append(comment).append("\n");
+			}
+			toParse.append(fullPath).append("=").append(processedNewValue);
+			ConfigValue newConfigValue = ConfigFactory.parseString(toParse.toString())
+					.getValue(fullPath);
+			// Now we have our value with old comments. Let's replace the old value with it.
+			// Unlike merging Configs, replacing doesn't make the chain of fallbacks longer.
+			conf = conf.withValue(fullPath, newConfigValue);
+			cache.put(key + "." + subKey, new CachedValue(newValue));
+			scheduleSave();
 		}
-		toParse.append(fullPath).append("=").append(processedNewValue);
-		Config newLittleConfig = ConfigFactory.parseString(toParse.toString());
-		// Now we have our little Config with the single variable and old comments.
-		// Let's merge it with the old Config.
-		conf = newLittleConfig.withFallback(conf);
 		if (!hideValue) {
 			logger.info(String.format("Configuration update in RAM. Key: %s.%s Value: %s", key, subKey, newValue));
 		}
+		notifyListeners(key, subKey, newValue);
+	}
+
+	/**
+	 * Schedules saving of configuration to file after {@link #SAVEDELAY}. The previously
+	 * scheduled saving is cancelled, so a series of quick changes is saved only once. <br>
+	 * Must be called while holding CuteConfig.class lock.
+	 */
+	private static void scheduleSave() {
 		needsSave = true;
+		if (scheduledSave != null) {
+			scheduledSave.cancel(false);
+		}
+		scheduledSave = saver.schedule(CuteConfig::saveConfig, SAVEDELAY, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Gets the cached value of variable, caching it if it's not cached yet.
+	 *
+	 * @param key
+	 *            The name of settings section.
+	 * @param subKey
+	 *            The name of needed variable.
+	 * @return The cached value.
+	 */
+	private static CachedValue getCachedValue(String key, String subKey) {
+		String flatKey = key + "." + subKey;
+		CachedValue value = cache.get(flatKey);
+		if (value == null) {
+			value = new CachedValue(getStringFromConfig(conf, key, subKey));
+			// The value might be changed meanwhile. Let's not replace the newer one.
+			CachedValue previous = cache.putIfAbsent(flatKey, value);
+			if (previous != null)
+				value = previous;
+		}
+		return value;
 	}
 
 	/**
@@ -180,7 +260,7 @@ public final class CuteConfig {
 	 * @return The string value of variable.
 	 */
 	public static String getString(String key, String subKey) {
-		return getStringFromConfig(conf, key, subKey);
+		return getCachedValue(key, subKey).string;
 	}
 
 	/**
@@ -223,7 +303,7 @@ public final class CuteConfig {
 	 * @return The boolean value of variable.
 	 */
 	public static boolean getBoolean(String key, String subKey) {
-		return getBooleanFromConfig(conf, key, subKey);
+		return getCachedValue(key, subKey).getBoolean(key, subKey);
 	}
 	
 	/**
@@ -266,7 +346,7 @@ public final class CuteConfig {
 	 * @return The double value of variable.
 	 */
 	public static double getDouble(String key, String subKey) {
-		return getDoubleFromConfig(conf, key, subKey);
+		return getCachedValue(key, subKey).getDouble(key, subKey);
 	}
 
 	/**
@@ -283,20 +363,81 @@ public final class CuteConfig {
 	}
 
 	/**
-	 * Saves current configuration {@link #conf} to file at {@link #configPath} path.
+	 * Saves current configuration {@link #conf} to file at {@link #configPath} path right now, if
+	 * it has unsaved changes. <br>
+	 * Changes are saved automatically in background, so it's needed only before exit.
 	 */
 	public static void saveConfig() {
-		if (!needsSave) {
-			needsSave = false;
-			return;
+		synchronized (saveLock) {
+			Config toSave;
+			synchronized (CuteConfig.class) {
+				if (!needsSave) {
+					return;
+				}
+				needsSave = false;
+				if (scheduledSave != null) {
+					scheduledSave.cancel(false);
+					scheduledSave = null;
+				}
+				toSave = conf;
+			}
+			byte[] content = toSave.root().withOnlyKey(MAINKEY).render(opts)
+					.getBytes(StandardCharsets.UTF_8);
+			try {
+				Util.writeFileAtomically(configPath, out -> out.write(content));
+				logger.info("Updated configuration file: " + configPath);
+			} catch (IOException e) {
+				logger.error("Can't rewrite configuration file for some reason: " + configPath, e);
+				// Let's try again on the next saving.
+				synchronized (CuteConfig.class) {
+					needsSave = true;
+				}
+			}
 		}
-		Util.createFileAndDirectoriesAtPath(configPath);
-		File file = new File(configPath);
-		try (BufferedWriter br = new BufferedWriter(new FileWriter(file))) {
-			br.write(conf.root().withOnlyKey(MAINKEY).render(opts));
-			logger.info("Updated configuration file: " + configPath);
-		} catch (IOException e) {
-			logger.error("Can't rewrite configuration file for some reason: " + configPath, e);
+	}
+
+	/**
+	 * Adds the listener which is notified when the variable's value changes.
+	 *
+	 * @param key
+	 *            The name of settings section.
+	 * @param subKey
+	 *            The name of needed variable.
+	 * @param listener
+	 *            The listener.
+	 */
+	public static void addListener(String key, String subKey, ConfigListener listener) {
+		listeners.computeIfAbsent(key + "." + subKey, k -> new CopyOnWriteArrayList<>())
+				.add(listener);
+	}
+
+	/**
+	 * Removes the listener previously added with
+	 * {@link #addListener(String, String, ConfigListener)}.
+	 *
+	 * @param key
+	 *            The name of settings section.
+	 * @param subKey
+	 *            The name of needed variable.
+	 * @param listener
+	 *            The listener.
+	 */
+	public static void removeListener(String key, String subKey, ConfigListener listener) {
+		List<ConfigListener> variableListeners = listeners.get(key + "." + subKey);
+		if (variableListeners != null)
+			variableListeners.remove(listener);
+	}
+
+	private static void notifyListeners(String key, String subKey, String newValue) {
+		List<ConfigListener> variableListeners = listeners.get(key + "." + subKey);
+		if (variableListeners == null)
+			return;
+		for (ConfigListener listener : variableListeners) {
+			try {
+				listener.changed(newValue);
+			} catch (RuntimeException e) {
+				logger.error("Configuration listener failed. Key: " + key + "." + subKey, e);
+			}
 		}
 	}
 
@@ -357,4 +498,75 @@ public final class CuteConfig {
 		setStringToConfig(key, subKey, newValue, true);
 	}
 	
+	/**
+	 * Listens to changes of a configuration variable.
+	 */
+	@FunctionalInterface
+	public interface ConfigListener {
+
+		/**
+		 * Is called after the variable's value has changed, in the thread which has changed it.
+		 *
+		 * @param newValue
+		 *            The new value of variable as String.
+		 */
+		void changed(String newValue);
+	}
+
+	/**
+	 * The cached value of configuration variable. <br>
+	 * The boolean and double forms are parsed on first use. Parsing is idempotent, so it's not a
+	 * problem if two threads parse at the same time.
+	 */
+	private static final class CachedValue {
+
+		private final String string;
+
+		private volatile Boolean booleanValue;
+
+		private volatile Double doubleValue;
+
+		private CachedValue(String string) {
+			this.string = string;
+		}
+
+		private boolean getBoolean(String key, String subKey) {
+			Boolean result = booleanValue;
+			if (result == null) {
+				// The same words as Config accepts.
+				switch (string.trim().toLowerCase()) {
+				case "true":
+				case "yes":
+				case "on":
+					result = true;
+					break;
+				case "false":
+				case "no":
+				case "off":
+					result = false;
+					break;
+				default:
+					throw new RuntimeException(
+							"Parameter in configuration is not a boolean: " + key + "." + subKey);
+				}
+				booleanValue = result;
+			}
+			return result;
+		}
+
+		private double getDouble(String key, String subKey) {
+			Double result = doubleValue;
+			if (result == null) {
+				try {
+					result = Double.parseDouble(string.trim());
+				} catch (NumberFormatException e) {
+					throw new RuntimeException(
+							"Parameter in configuration is not a number: " + key + "." + subKey);
+				}
+				doubleValue = result;
+			}
+			return result;
+		}
+	}
+
 }
@@ -0,0 +1,207 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ubershy.streamsis.networking.StreamingProgramManager;
+import com.ubershy.streamsis.project.CuteProject;
+import com.ubershy.streamsis.project.ProjectBundle;
+import com.ubershy.streamsis.project.ProjectFormat;
+import com.ubershy.streamsis.project.ProjectManager;
+import com.ubershy.streamsis.project.ProjectSerializator;
+
+/**
+ * HeadlessStreamSis.
+ * <p>
+ * The alternative main class which runs a Project without launching JavaFX toolkit at all. <br>
+ * Unlike {@link StreamSis} quiet mode, it doesn't create JavaFX Application Thread and doesn't
+ * load any GUI stuff, so it works on machines without display, where quiet mode can't even
+ * start. Useful on servers. <br>
+ * Both modes log {@link LowLevel#getStartupStatistics() startup statistics}, so their startup
+ * time and memory usage can be compared on machines where both of them work.
+ * <p>
+ * Note: CuteElements which use JavaFX media (like SoundAction) still need JavaFX toolkit and
+ * will not work in this mode.
+ */
+public final class HeadlessStreamSis {
+
+	static final Logger logger = LoggerFactory.getLogger(HeadlessStreamSis.class);
+
+	/** Released when StreamSis is asked to exit. */
+	private static final CountDownLatch exitLatch = new CountDownLatch(1);
+
+	private HeadlessStreamSis() {
+	}
+
+	/**
+	 * The main method.
+	 * <p>
+	 * Loads the Project and immediately starts it. Works until the process is asked to exit, for
+	 * example with Ctrl+C.
+	 * <p>
+	 * Available arguments:<br>
+	 * <ul>
+	 * <li>Path of project to load. <br>
+	 * Overrides "LastProjectLocation" setting.</li>
+	 * </ul>
+	 * Or, to convert a Project file to another {@link ProjectFormat} and exit:<br>
+	 * <ul>
+	 * <li>"--convert json|smile sourcePath destinationPath".</li>
+	 * </ul>
+	 * Or, to pack a Project file with all its assets to a {@link ProjectBundle} and exit:<br>
+	 * <ul>
+	 * <li>"--bundle sourcePath destinationPath.streamsisbundle".</li>
+	 * </ul>
+	 *
+	 * @param args
+	 *            The arguments.
+	 */
+	public static void main(String[] args) {
+		logger.info("StreamSis has started in headless mode =)");
+
+		Thread.setDefaultUncaughtExceptionHandler((thread, throwable) -> {
+			logger.error("Unexpected error occured in " + thread.getName() + " thread.", throwable);
+			System.exit(1);
+		});
+
+		if (args.length != 0 && args[0].equals("--convert")) {
+			convertProjectFile(args);
+			return;
+		}
+		if (args.length != 0 && args[0].equals("--bundle")) {
+			packProjectBundle(args);
+			return;
+		}
+
+		String projectToLoadPath = CuteConfig.getString(CuteConfig.CUTE, "LastProjectLocation");
+		if (args.length > 1) {
+			logger.error("Unknown command-line parameters provided, exiting...");
+			System.exit(1);
+		}
+		if (args.length == 1) {
+			projectToLoadPath = args[0];
+		}
+		boolean valid = Util.checkSingleFileExistanceAndExtension(projectToLoadPath,
+				new String[] { "*.streamsis", "*.streamsisbundle" });
+		if (!valid) {
+			logger.error("Invalid project file path: '" + projectToLoadPath + "', exiting...");
+			System.exit(1);
+		}
+
+		// Initialize network connection to Streaming Program.
+		StreamingProgramManager.start();
+
+		CuteProject project = null;
+		try {
+			project = ProjectManager.loadProjectAndSet(projectToLoadPath);
+		} catch (IOException e) {
+			logger.error(Util.whyProjectCantBeLoaded(e));
+			System.exit(1);
+		}
+		try {
+			project.startProject();
+		} catch (Exception e) {
+			logger.error("Error during Project running", e);
+			System.exit(1);
+		}
+		logger.info("Project is started in headless mode. " + LowLevel.getStartupStatistics());
+
+		final CuteProject startedProject = project;
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			logger.info("Safely exiting StreamSis...");
+			startedProject.stopProject();
+			StreamingProgramManager.stopForever();
+			CuteConfig.saveConfig();
+			exitLatch.countDown();
+		}, "HeadlessShutdown"));
+
+		// Actors work in daemon threads, so the main thread must stay alive.
+		try {
+			exitLatch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Converts the Project file according to "--convert" arguments and exits.
+	 *
+	 * @param args
+	 *            The arguments: "--convert", format name, source path, destination path.
+	 */
+	private static void convertProjectFile(String[] args) {
+		if (args.length != 4) {
+			logger.error("Usage: --convert json|smile sourcePath destinationPath");
+			System.exit(1);
+		}
+		ProjectFormat format = null;
+		try {
+			format = ProjectFormat.valueOf(args[1].toUpperCase());
+		} catch (IllegalArgumentException e) {
+			logger.error("Unknown Project format: '" + args[1] + "', exiting...");
+			System.exit(1);
+		}
+		if (!Util.checkSingleFileExistanceAndExtension(args[2], new String[] { "*.streamsis" })) {
+			logger.error("Invalid project file path: '" + args[2] + "', exiting...");
+			System.exit(1);
+		}
+		try {
+			ProjectSerializator.convertProjectFile(args[2], args[3], format);
+		} catch (IOException e) {
+			logger.error("Can't convert Project file", e);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Packs the Project file to {@link ProjectBundle} according to "--bundle" arguments and exits.
+	 *
+	 * @param args
+	 *            The arguments: "--bundle", source path, destination path.
+	 */
+	private static void packProjectBundle(String[] args) {
+		if (args.length != 3) {
+			logger.error("Usage: --bundle sourcePath destinationPath.streamsisbundle");
+			System.exit(1);
+		}
+		if (!Util.checkSingleFileExistanceAndExtension(args[1],
+				new String[] { "*.streamsis", "*.streamsisbundle" })) {
+			logger.error("Invalid project file path: '" + args[1] + "', exiting...");
+			System.exit(1);
+		}
+		if (!ProjectBundle.isBundlePath(args[2])) {
+			logger.error("Project bundle path must end with '" + ProjectBundle.EXTENSION
+					+ "', exiting...");
+			System.exit(1);
+		}
+		try {
+			CuteProject project = ProjectBundle.isBundlePath(args[1]) ? ProjectBundle.load(args[1])
+					: ProjectSerializator.deSerializeFromFile(args[1]);
+			ProjectBundle.pack(project, args[2]);
+		} catch (IOException e) {
+			logger.error("Can't pack Project bundle", e);
+			System.exit(1);
+		}
+	}
+
+}
@@ -20,6 +20,11 @@ package com.ubershy.streamsis;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -125,6 +130,46 @@ public final class LowLevel {
 		return LowLevel.applicationVersion;
 	}
 
+	/**
+	 * Gets the resident set size (RSS) of StreamSis process, i.e. the amount of physical memory
+	 * the process occupies.
+	 *
+	 * @return the RSS in kilobytes, or -1 if it can't be found out on the current OS
+	 */
+	public static long getResidentMemoryInKilobytes() {
+		if (getOS() != OS.LINUX) {
+			return -1;
+		}
+		try {
+			List<String> lines = Files.readAllLines(Paths.get("/proc/self/status"),
+					StandardCharsets.US_ASCII);
+			for (String line : lines) {
+				if (line.startsWith("VmRSS:")) {
+					// The line looks like "VmRSS:	  123456 kB".
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			// Let's just report that RSS is unknown.
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets short human-readable description of how long the application is running and how much
+	 * memory it uses. Helps to compare the cost of startup in different modes.
+	 *
+	 * @return the description, like "uptime: 812 ms, RSS: 95 MB, heap used: 21 MB"
+	 */
+	public static String getStartupStatistics() {
+		long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+		long rss = getResidentMemoryInKilobytes();
+		Runtime runtime = Runtime.getRuntime();
+		long heapUsed = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+		return "uptime: " + uptime + " ms, RSS: " + ((rss == -1) ? "unknown" : rss / 1024 + " MB")
+				+ ", heap used: " + heapUsed + " MB";
+	}
+
 	/**
 	 * Gets the current OS.
 	 *
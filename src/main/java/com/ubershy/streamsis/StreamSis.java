@@ -25,9 +25,11 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.ubershy.streamsis.elements.ElementStatePulse;
 import com.ubershy.streamsis.gui.GUIManager;
 import com.ubershy.streamsis.networking.StreamingProgramManager;
 import com.ubershy.streamsis.playground.Playground;
+import com.ubershy.streamsis.project.ProjectAutosaver;
 import com.ubershy.streamsis.project.ProjectManager;
 
 import javafx.application.Application;
@@ -60,6 +62,8 @@ public class StreamSis extends Application {
 	 * Defines if StreamSis must load a project from specified path. <br>
 	 * Overrides "LastProjectLocation" setting.</li>
 	 * </ul>
+	 * Note: quiet mode still starts JavaFX toolkit. To run without it, use
+	 * {@link HeadlessStreamSis}.
 	 *
 	 * @param args
 	 *            The arguments.
@@ -114,7 +118,7 @@ public class StreamSis extends Application {
 			projectToLoadPath = arguments.get(0);
 			arguments.remove(0);
 			boolean valid = Util.checkSingleFileExistanceAndExtension(projectToLoadPath,
-					new String[] { "*.streamsis" });
+					new String[] { "*.streamsis", "*.streamsisbundle" });
 			if (!valid) {
 				logger.error("Invalid project file path command-line parameter, exiting...");
 				System.exit(1);
@@ -137,6 +141,7 @@ public class StreamSis extends Application {
 			}
 			try {
 				ProjectManager.getProject().startProject();
+				logger.info("Project is started in quiet mode. " + LowLevel.getStartupStatistics());
 			} catch (Exception e) {
 				logger.error("Error during Project running", e);
 				System.exit(1);
@@ -144,6 +149,8 @@ public class StreamSis extends Application {
 		} else { // GUI mode.
 			primaryStage.setTitle("StreamSis");
 			primaryStage.setOnCloseRequest(event -> stop());
+			// Let GUI see what CuteElements are doing.
+			ElementStatePulse.start();
 			GUIManager.setPrimaryStageAndCreateOtherWindows(primaryStage);
 			// Change exception handler to special GUI-specific handler.
 			Thread.setDefaultUncaughtExceptionHandler(eHandler);
@@ -156,6 +163,7 @@ public class StreamSis extends Application {
 					GUIManager.loadProject(projectToLoadPath, projectAutoStart);
 				}
 				HotkeyManager.startListeningToHotkeys();
+				ProjectAutosaver.start();
 	        } catch (Exception e) {
 	        	eHandler.uncaughtException(Thread.currentThread(), e);
 	        }
@@ -167,6 +175,8 @@ public class StreamSis extends Application {
 		logger.info("Safely exiting StreamSis...");
 		if (GUIManager.getPrimaryStage() != null)
 			GUIManager.saveCoordinatesOfAllWindows();
+		ProjectAutosaver.stop();
+		CuteConfig.saveConfig();
 		StreamingProgramManager.stopForever();
 		System.exit(0);
     }
@@ -32,6 +32,11 @@ public final class SuperSoundManager {
 	
 	/** All currently controlled sounds. */
 	private static final LinkedList<MediaPlayer> allControlledSounds = new LinkedList<>();
+
+	static {
+		CuteConfig.addListener(CuteConfig.CUTE, "GlobalVolume",
+				newValue -> setVolumeForAllSounds(Double.parseDouble(newValue)));
+	}
 	
 	/**
 	 * Adds the sound to {@link SuperSoundManager}'s list of sounds controlled by
@@ -40,7 +45,7 @@ public final class SuperSoundManager {
 	 * @param player
 	 *            The {@link MediaPlayer} instance.
 	 */
-	public static void addSound(MediaPlayer player) {
+	public static synchronized void addSound(MediaPlayer player) {
 		if (allControlledSounds.contains(player)) {
 			throw new IllegalArgumentException("Such sound is already added to SuperSoundManager");
 		}
@@ -53,7 +58,7 @@ public final class SuperSoundManager {
 	 * @param player
 	 *            The {@link MediaPlayer} instance.
 	 */
-	public static void removeSound(MediaPlayer player) {
+	public static synchronized void removeSound(MediaPlayer player) {
 		allControlledSounds.remove(player);
 	}
 	
@@ -64,7 +69,7 @@ public final class SuperSoundManager {
 	 *            The new volume to set immediately for all controlled sounds.
 	 */
 	public static void setVolumeForAllSounds(double volume) {
-		MediaPlayer[] snapshotOfAllSounds = allControlledSounds.toArray(new MediaPlayer[0]);
+		MediaPlayer[] snapshotOfAllSounds = takeSnapshotOfAllSounds();
 		for (MediaPlayer sound : snapshotOfAllSounds) {
 			if (sound.getStatus() != Status.DISPOSED)
 				sound.setVolume(volume);
@@ -78,7 +83,7 @@ public final class SuperSoundManager {
 	 *         moment.
 	 */
 	public static boolean stopAllSounds() {
-		MediaPlayer[] snapshotOfAllSounds = allControlledSounds.toArray(new MediaPlayer[0]);
+		MediaPlayer[] snapshotOfAllSounds = takeSnapshotOfAllSounds();
 		boolean atLeastOneStopped = false;
 		for (MediaPlayer sound : snapshotOfAllSounds) {
 			Status status = sound.getStatus();
@@ -90,4 +95,14 @@ public final class SuperSoundManager {
 		return atLeastOneStopped;
 	}
 
+	/**
+	 * Takes the snapshot of all controlled sounds. <br>
+	 * Sounds can be added from several threads at once during parallel Project initialization.
+	 *
+	 * @return The array of all controlled sounds.
+	 */
+	private static synchronized MediaPlayer[] takeSnapshotOfAllSounds() {
+		return allControlledSounds.toArray(new MediaPlayer[0]);
+	}
+
 }
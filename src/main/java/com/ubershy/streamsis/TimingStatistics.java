@@ -0,0 +1,141 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis;
+
+import java.util.Arrays;
+
+/**
+ * TimingStatistics accumulates measured durations (or any other non-negative numbers) and can
+ * tell their count, average, worst value and percentiles. <br>
+ * Percentiles are calculated over the last {@link #SAMPLESTOKEEP} values, so they reflect recent
+ * behavior. Everything else is calculated over all recorded values since the last
+ * {@link #reset()}.
+ * <p>
+ * The class doesn't care about units. It's up to the caller to always use the same ones.
+ * <br>
+ * It's thread-safe.
+ */
+public final class TimingStatistics {
+
+	/** How many last values to keep for calculating percentiles. */
+	public static final int SAMPLESTOKEEP = 512;
+
+	/** The ring buffer with the last recorded values. */
+	private final long[] samples = new long[SAMPLESTOKEEP];
+
+	/** The index in {@link #samples} where the next value will be written. */
+	private int nextSampleIndex = 0;
+
+	/** The number of all recorded values. */
+	private long count = 0;
+
+	/** The sum of all recorded values. */
+	private long total = 0;
+
+	/** The biggest recorded value. */
+	private long worst = 0;
+
+	/**
+	 * Records the value.
+	 *
+	 * @param value
+	 *            The value to record. Negative values are recorded as zero.
+	 */
+	public synchronized void record(long value) {
+		if (value < 0)
+			value = 0;
+		samples[nextSampleIndex] = value;
+		nextSampleIndex = (nextSampleIndex + 1) % SAMPLESTOKEEP;
+		count++;
+		total += value;
+		if (value > worst)
+			worst = value;
+	}
+
+	/**
+	 * Gets the number of recorded values.
+	 *
+	 * @return The number of recorded values.
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the average of all recorded values.
+	 *
+	 * @return The average value, 0 if nothing was recorded.
+	 */
+	public synchronized double getAverage() {
+		if (count == 0)
+			return 0;
+		return (double) total / count;
+	}
+
+	/**
+	 * Gets the biggest recorded value.
+	 *
+	 * @return The worst value, 0 if nothing was recorded.
+	 */
+	public synchronized long getWorst() {
+		return worst;
+	}
+
+	/**
+	 * Gets the percentile of the last recorded values.
+	 *
+	 * @param percentile
+	 *            The percentile to calculate, from 0 to 100. For example, 99.
+	 * @return The value below which the specified percentage of the last recorded values fall, 0
+	 *         if nothing was recorded.
+	 * @throws IllegalArgumentException
+	 *             If percentile is not in range from 0 to 100.
+	 */
+	public synchronized long getPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be in range from 0 to 100");
+		}
+		int size = (int) Math.min(count, SAMPLESTOKEEP);
+		if (size == 0)
+			return 0;
+		long[] sorted = Arrays.copyOf(samples, size);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+		return sorted[Math.max(0, Math.min(index, size - 1))];
+	}
+
+	/**
+	 * Forgets all recorded values.
+	 */
+	public synchronized void reset() {
+		nextSampleIndex = 0;
+		count = 0;
+		total = 0;
+		worst = 0;
+	}
+
+	/*
+	 * Returns short human-readable summary of the statistics.
+	 */
+	@Override
+	public synchronized String toString() {
+		return String.format("avg %.1f, p99 %d, worst %d (%d samples)", getAverage(),
+				getPercentile(99), worst, count);
+	}
+
+}
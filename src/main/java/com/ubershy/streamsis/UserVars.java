@@ -17,8 +17,14 @@
  */
 package com.ubershy.streamsis;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.ubershy.streamsis.elements.actions.VariableSetterAction;
 import com.ubershy.streamsis.elements.actions.VariableSwitchAction;
@@ -46,6 +52,9 @@ import javafx.collections.FXCollections;
  * <b>happy</b>. <br>
  * However, If user has lost his match and "WinOrLose" variable is set to <b>"Lose"</b>,
  * {@link VariableSwitchAction} can change Streaming Program layout to something <b>sad</b>.<br>
+ * <p>
+ * Anyone interested in changes of a specific variable can add a listener with
+ * {@link #addListener(String, Runnable)} instead of polling the variable.
  */
 public final class UserVars {
 
@@ -56,6 +65,11 @@ public final class UserVars {
 	private static ReadOnlyMapWrapper<String, String> variables = new ReadOnlyMapWrapper<>(
 			FXCollections
 					.observableMap(new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER)));
+
+	/**
+	 * The listeners to run when variables change. The keys are lower-cased names of variables.
+	 */
+	private static ConcurrentHashMap<String, List<Runnable>> listeners = new ConcurrentHashMap<>();
 	
 	/**
 	 * Gets the value of the variable stored in {@link UserVars}.
@@ -93,14 +107,21 @@ public final class UserVars {
 		if (value == null) {
 			throw new IllegalArgumentException("Provided value is null");
 		}
-		variables.put(key, value);
+		String oldValue = variables.put(key, value);
+		if (!value.equals(oldValue)) {
+			notifyListeners(key);
+		}
 	}
 
 	/**
 	 * Clears all variables with values out.
 	 */
 	public static void clear() {
+		Set<String> removedKeys = new HashSet<>(variables.keySet());
 		variables.clear();
+		for (String key : removedKeys) {
+			notifyListeners(key);
+		}
 	}
 	
 	/**
@@ -114,7 +135,9 @@ public final class UserVars {
 		if (key == null || key.isEmpty()) {
 			throw new IllegalArgumentException("Provided key is null or empty");
 		}
-		variables.remove(key);
+		if (variables.remove(key) != null) {
+			notifyListeners(key);
+		}
 	}
 
 	/**
@@ -124,8 +147,71 @@ public final class UserVars {
 	 *            The map which contents to set to {@link #variables}.
 	 */
 	public static void setAll(Map<String, String> map) {
+		Set<String> affectedKeys = new HashSet<>(variables.keySet());
+		affectedKeys.addAll(map.keySet());
 		variables.clear();
 		variables.putAll(map);
+		for (String key : affectedKeys) {
+			notifyListeners(key);
+		}
+	}
+
+	/**
+	 * Adds the listener which will run each time the specified variable is changed, created or
+	 * removed. <br>
+	 * The listener runs on the thread which changed the variable, so it should be quick.
+	 *
+	 * @param key
+	 *            The name of variable to listen. The comparison is case-insensitive. <br>
+	 *            Can't be null or empty.
+	 * @param listener
+	 *            The listener to run. Can't be null.
+	 * @throws IllegalArgumentException
+	 */
+	public static void addListener(String key, Runnable listener) {
+		if (key == null || key.isEmpty()) {
+			throw new IllegalArgumentException("Provided key is null or empty");
+		}
+		if (listener == null) {
+			throw new IllegalArgumentException("Provided listener is null");
+		}
+		listeners.computeIfAbsent(key.toLowerCase(Locale.ROOT),
+				k -> new CopyOnWriteArrayList<Runnable>()).add(listener);
+	}
+
+	/**
+	 * Removes the listener previously added with {@link #addListener(String, Runnable)}.
+	 *
+	 * @param key
+	 *            The name of variable the listener listens to. <br>
+	 *            Can't be null or empty.
+	 * @param listener
+	 *            The listener to remove.
+	 * @throws IllegalArgumentException
+	 */
+	public static void removeListener(String key, Runnable listener) {
+		if (key == null || key.isEmpty()) {
+			throw new IllegalArgumentException("Provided key is null or empty");
+		}
+		List<Runnable> keyListeners = listeners.get(key.toLowerCase(Locale.ROOT));
+		if (keyListeners != null) {
+			keyListeners.remove(listener);
+		}
+	}
+
+	/**
+	 * Runs the listeners of the specified variable.
+	 *
+	 * @param key
+	 *            The name of variable which was changed.
+	 */
+	private static void notifyListeners(String key) {
+		List<Runnable> keyListeners = listeners.get(key.toLowerCase(Locale.ROOT));
+		if (keyListeners != null) {
+			for (Runnable listener : keyListeners) {
+				listener.run();
+			}
+		}
 	}
 	
 	/**
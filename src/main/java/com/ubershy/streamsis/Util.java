@@ -17,23 +17,35 @@
  */
 package com.ubershy.streamsis;
 
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.FileSystemException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+
+import org.sikuli.script.Image;
+import org.sikuli.script.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ubershy.streamsis.project.CuteProject;
+import com.ubershy.streamsis.project.ProjectBundle;
 
 import javafx.scene.input.KeyCombination;
 import javafx.scene.input.KeyCombination.ModifierValue;
@@ -46,6 +58,95 @@ public final class Util {
 	/** The Constant logger. */
 	static final Logger logger = LoggerFactory.getLogger(Util.class);
 
+	/**
+	 * The lock to hold while loading images with SikuliX library, e.g. while creating Patterns. <br>
+	 * SikuliX keeps loaded images in static caches which are not thread-safe, and CuteElements
+	 * can be initialized in parallel.
+	 */
+	public static final Object sikulixImageCacheLock = new Object();
+
+	/**
+	 * The number of loaded Patterns using each image in SikuliX cache by path of image file.
+	 * <br>
+	 * Guarded by {@link #sikulixImageCacheLock}.
+	 */
+	private static final Map<String, Integer> sikulixImageUsers = new HashMap<String, Integer>();
+
+	/** The size of buffer in bytes for reading and writing files. */
+	public static final int FILEBUFFERSIZE = 64 * 1024;
+
+	/**
+	 * Loads the image file from disk as a fresh SikuliX {@link Pattern}. If the current
+	 * {@link ProjectBundle} contains the image, it's taken from there instead. <br>
+	 * If nobody uses the previously cached version of this image, it's thrown away, so the
+	 * changes of the file are taken into account. Otherwise the cached image is shared. <br>
+	 * Each call must be paired with {@link #unloadSikulixImage(String)} when the Pattern is not
+	 * needed anymore.
+	 *
+	 * @param imagePath
+	 *            The path of image file.
+	 * @param similarity
+	 *            The minimum similarity of the Pattern.
+	 * @return The Pattern.
+	 */
+	public static Pattern loadSikulixPattern(String imagePath, float similarity) {
+		synchronized (sikulixImageCacheLock) {
+			Integer users = sikulixImageUsers.get(imagePath);
+			if (users == null) {
+				Image.unCacheBundledImage(imagePath);
+			}
+			// The image from Project bundle is already decoded.
+			BufferedImage raster = ProjectBundle.getRasterImage(imagePath);
+			Pattern pattern = (raster == null) ? new Pattern(imagePath)
+					: new Pattern(new Image(raster, imagePath));
+			pattern = pattern.similar(similarity);
+			// Let's make sure the image is loaded while holding the lock.
+			pattern.getImage();
+			sikulixImageUsers.put(imagePath, (users == null) ? 1 : users + 1);
+			return pattern;
+		}
+	}
+
+	/**
+	 * Tells that the Pattern loaded by {@link #loadSikulixPattern(String, float)} is not needed
+	 * anymore. When nobody else uses the image, it's removed from SikuliX cache, so the memory
+	 * can be freed. <br>
+	 * SikuliX frees the image of the cached object itself, so removing the image which is still
+	 * in use would break the Patterns of other CuteElements.
+	 *
+	 * @param imagePath
+	 *            The path of image file.
+	 */
+	public static void unloadSikulixImage(String imagePath) {
+		synchronized (sikulixImageCacheLock) {
+			Integer users = sikulixImageUsers.get(imagePath);
+			if (users == null)
+				return;
+			if (users > 1) {
+				sikulixImageUsers.put(imagePath, users - 1);
+				return;
+			}
+			sikulixImageUsers.remove(imagePath);
+			Image.unCacheBundledImage(imagePath);
+		}
+	}
+
+	/**
+	 * Estimates how many bytes the decoded image of the Pattern occupies in memory. <br>
+	 * Assumes 4 bytes per pixel.
+	 *
+	 * @param pattern
+	 *            The Pattern.
+	 * @return The estimated number of bytes.
+	 */
+	public static long estimateSikulixPatternBytes(Pattern pattern) {
+		Dimension size;
+		synchronized (sikulixImageCacheLock) {
+			size = pattern.getImage().getSize();
+		}
+		return 4L * size.width * size.height;
+	}
+
 	/**
 	 * Instantiates a new util.
 	 */
@@ -217,7 +318,8 @@ public final class Util {
 	 *
 	 * @param path
 	 *            the path of file
-	 * @return true, if file exists and is not a directory
+	 * @return true, if file exists and is not a directory, or if the current {@link ProjectBundle}
+	 *         contains it
 	 * @throws IllegalArgumentException
 	 *             if file path is empty
 	 * @throws NullPointerException
@@ -231,6 +333,8 @@ public final class Util {
 		} else {
 			throw new NullPointerException("File path can't be null");
 		}
+		if (ProjectBundle.containsAsset(path))
+			return true;
 		File file = new File(path);
 		boolean result = true;
 		if (file.exists()) {
@@ -418,6 +522,64 @@ public final class Util {
 		return array;
 	}
 
+	/**
+	 * Writes the file so it's never left half-written, even if StreamSis crashes or the power goes
+	 * off in the middle. <br>
+	 * The content is written to a temporary file in the same directory, flushed to disk, and then
+	 * the temporary file atomically replaces the target file. If something goes wrong, the target
+	 * file stays untouched.
+	 *
+	 * @param filePath
+	 *            The path of the file to write.
+	 * @param contentWriter
+	 *            Writes the content to the buffered stream. Must not close the stream.
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static void writeFileAtomically(String filePath, ContentWriter contentWriter)
+			throws IOException {
+		Path target = Paths.get(filePath).toAbsolutePath();
+		Path directory = target.getParent();
+		Files.createDirectories(directory);
+		Path temp = Files.createTempFile(directory, target.getFileName().toString() + ".", ".tmp");
+		try {
+			try (FileOutputStream fileStream = new FileOutputStream(temp.toFile());
+					OutputStream out = new BufferedOutputStream(fileStream, FILEBUFFERSIZE)) {
+				contentWriter.write(out);
+				out.flush();
+				fileStream.getFD().sync();
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				logger.debug("Atomic move is not supported, replacing file non-atomically: "
+						+ filePath);
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Writes content of a file to the stream. See
+	 * {@link Util#writeFileAtomically(String, ContentWriter)}.
+	 */
+	@FunctionalInterface
+	public interface ContentWriter {
+
+		/**
+		 * Writes the content to the stream.
+		 *
+		 * @param out
+		 *            The stream.
+		 * @throws IOException
+		 *             Signals that an I/O exception has occurred.
+		 */
+		void write(OutputStream out) throws IOException;
+	}
+
 	/**
 	 * Creates a file with directories at the given path if it's not exists already. <br>
 	 * If something goes wrong, returns false.
@@ -0,0 +1,55 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.elements;
+
+import com.ubershy.streamsis.elements.actions.SoundAction;
+import com.ubershy.streamsis.elements.checkers.regional.RegionChecker;
+import com.ubershy.streamsis.project.SisSceneAssetManager;
+
+/**
+ * AssetHolder is a {@link CuteElement} which keeps heavy assets in memory while working, like
+ * decoded images of {@link RegionChecker} or sounds of {@link SoundAction}.
+ * <p>
+ * Assets are loaded during {@link CuteElement#init()}. {@link SisSceneAssetManager} can unload
+ * them when they are not needed by the current {@link SisScene} and load them again before they
+ * are needed. If the AssetHolder is asked to work while its assets are unloaded, it loads them
+ * by itself.
+ * <p>
+ * Methods of AssetHolder can be called from any thread.
+ */
+public interface AssetHolder extends CuteElement {
+
+	/**
+	 * Loads the assets if they are not loaded yet. <br>
+	 * Does nothing if the CuteElement is broken.
+	 */
+	public void loadAssets();
+
+	/**
+	 * Unloads the assets, so they can be garbage collected.
+	 */
+	public void unloadAssets();
+
+	/**
+	 * Gets the approximate number of bytes the loaded assets occupy in memory.
+	 *
+	 * @return the number of bytes, or 0 if the assets are not loaded
+	 */
+	public long getResidentAssetBytes();
+
+}
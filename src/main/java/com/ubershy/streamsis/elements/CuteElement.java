@@ -89,6 +89,18 @@ public interface CuteElement extends RecursiveParent<CuteElement> {
 	 */
 	public void init();
 
+	/**
+	 * Resets the state which {@link CuteElement} accumulates while working, like the remembered
+	 * result of the previous check, so the next run starts the same way as after {@link #init()}.
+	 * <p>
+	 * Unlike {@link #init()}, it doesn't validate anything and doesn't load resources, so it's
+	 * cheap. It's called by {@link #init()} of CuteElements which have such state, and instead of
+	 * {@link #init()} when initialization is skipped because nothing has changed. <br>
+	 * Doesn't reset children.
+	 */
+	public default void resetRuntimeState() {
+	}
+
 	/**
 	 * Gets this {@link CuteElement}'s {@link AddableChildrenTypeInfo}.
 	 *
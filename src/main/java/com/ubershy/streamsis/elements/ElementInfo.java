@@ -17,6 +17,10 @@
  */
 package com.ubershy.streamsis.elements;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +59,11 @@ import javafx.beans.property.StringProperty;
  * }
  * </pre>
  * 
+ * The state and the last result of CuteElement change very often from worker threads. They are
+ * stored in atomic variables, so changing them doesn't allocate anything and doesn't touch JavaFX.
+ * The corresponding JavaFX properties are updated later on JavaFX Application Thread by
+ * {@link ElementStatePulse}.
+ * <p>
  * TODO: this class is a mess. Refactor it.
  */
 public class ElementInfo {
@@ -156,6 +165,27 @@ public class ElementInfo {
 
 	static final Logger logger = LoggerFactory.getLogger(ElementInfo.class);
 
+	/** All possible {@link ElementState ElementStates}. Cached, because values() makes a copy. */
+	private static final ElementState[] elementStates = ElementState.values();
+
+	/** The kind of packed runtime result meaning the result is unknown. */
+	private static final long UNKNOWNRESULTKIND = 0;
+
+	/** The kind of packed runtime result meaning the result is boolean. */
+	private static final long BOOLEANRESULTKIND = 1;
+
+	/** The kind of packed runtime result meaning the result is numeric. */
+	private static final long NUMERICRESULTKIND = 2;
+
+	/** The packed runtime result representing unknown result. */
+	private static final long PACKEDUNKNOWNRESULT = packResult(UNKNOWNRESULTKIND, 0);
+
+	/** The constant representing true result. */
+	private static final Result<Boolean> trueResult = new Result<Boolean>(true);
+
+	/** The constant representing false result. */
+	private static final Result<Boolean> falseResult = new Result<Boolean>(false);
+
 	/**
 	 * Tells if the {@link CuteElement} is turned on or off by user. <br>
 	 * If it's not enabled, the CuteElement will not execute when asked.
@@ -193,6 +223,44 @@ public class ElementInfo {
 	@JsonIgnore
 	private StringProperty whyUnhealthyProperty = new SimpleStringProperty("");
 	
+	/**
+	 * The runtime state of {@link CuteElement}, the ordinal of {@link ElementState}. <br>
+	 * Copied to {@link #elementStateProperty} by {@link ElementStatePulse}.
+	 */
+	@JsonIgnore
+	private final AtomicInteger runtimeState = new AtomicInteger(ElementState.READY.ordinal());
+
+	/**
+	 * The runtime last result of {@link CuteElement}, packed by {@link #packResult(long, int)}.
+	 * <br>
+	 * Copied to {@link #lastResultProperty} by {@link ElementStatePulse}.
+	 */
+	@JsonIgnore
+	private final AtomicLong runtimeResult = new AtomicLong(PACKEDUNKNOWNRESULT);
+
+	/**
+	 * The number of times {@link CuteElement} started working. Lets {@link ElementStatePulse}
+	 * notice the work even if the CuteElement finished it between two pulses.
+	 */
+	@JsonIgnore
+	private final AtomicInteger workCounter = new AtomicInteger();
+
+	/** Tells if the runtime state was changed and the properties are not yet updated. */
+	@JsonIgnore
+	private final AtomicBoolean runtimeStateChanged = new AtomicBoolean(false);
+
+	/** The next changed ElementInfo in {@link ElementStatePulse}'s stack. */
+	@JsonIgnore
+	volatile ElementInfo nextChanged;
+
+	/** The value of {@link #workCounter} at the last update of properties. */
+	@JsonIgnore
+	private int syncedWorkCounter = 0;
+
+	/** The value of {@link #runtimeResult} at the last update of properties. */
+	@JsonIgnore
+	private long syncedResult = PACKEDUNKNOWNRESULT;
+
 	/** Tells if the {@link CuteElement} can be edited by the user. */
 	@JsonIgnore
 	private BooleanProperty editable = new SimpleBooleanProperty(true);
@@ -375,7 +443,7 @@ public class ElementInfo {
 	 * Sets the CuteElement's state as {@link ElementState#READY}.
 	 */
 	public void setAsReadyAndHealthy() {
-		elementStateProperty.set(ElementState.READY);
+		setRuntimeState(ElementState.READY);
 		elementHealthProperty.set(ElementHealth.HEALTHY);
 		whyUnhealthyProperty.set("");
 	}
@@ -384,7 +452,7 @@ public class ElementInfo {
 	 * Sets the CuteElement's state as {@link ElementState#READY}.
 	 */
 	public void setAsReady() {
-		elementStateProperty.set(ElementState.READY);
+		setRuntimeState(ElementState.READY);
 	}
 
 	/**
@@ -419,7 +487,7 @@ public class ElementInfo {
 	 * Sets the numeric result for {@link CuteElement}, also sets {@link ElementState} as Finished.
 	 */
 	public void setNumericResult(int count) {
-		lastResultProperty.set(new Result<Integer>(count));
+		runtimeResult.set(packResult(NUMERICRESULTKIND, count));
 		setAsFinished();
 	}
 
@@ -427,7 +495,7 @@ public class ElementInfo {
 	 * Sets the boolean result for {@link CuteElement}, also sets {@link ElementState} as Finished.
 	 */
 	public void setBooleanResult(boolean bool) {
-		lastResultProperty.set(new Result<Boolean>(bool));
+		runtimeResult.set(packResult(BOOLEANRESULTKIND, bool ? 1 : 0));
 		setAsFinished();
 	}
 
@@ -436,7 +504,8 @@ public class ElementInfo {
 	 * calculated.
 	 */
 	public void setUnknownResult() {
-		lastResultProperty.set(unknownResult);
+		runtimeResult.set(PACKEDUNKNOWNRESULT);
+		markRuntimeStateAsChanged();
 	}
 	
 	/**
@@ -453,15 +522,105 @@ public class ElementInfo {
 	 * Sets the CuteElement's state as {@link ElementState#WORKING}.
 	 */
 	public void setAsWorking() {
-		elementStateProperty.set(ElementState.WORKING);
-		setUnknownResult();
+		workCounter.incrementAndGet();
+		runtimeResult.set(PACKEDUNKNOWNRESULT);
+		setRuntimeState(ElementState.WORKING);
 	}
 
 	/**
 	 * Sets the CuteElement's state as {@link ElementState#FINISHED}.
 	 */
 	private void setAsFinished() {
-		elementStateProperty.set(ElementState.FINISHED);
+		setRuntimeState(ElementState.FINISHED);
+	}
+
+	/**
+	 * Sets the runtime state of {@link CuteElement} and marks it as changed.
+	 *
+	 * @param state
+	 *            The new state.
+	 */
+	private void setRuntimeState(ElementState state) {
+		runtimeState.set(state.ordinal());
+		markRuntimeStateAsChanged();
+	}
+
+	/**
+	 * Tells {@link ElementStatePulse} that the properties need to be updated, unless it already
+	 * knows.
+	 */
+	private void markRuntimeStateAsChanged() {
+		if (runtimeStateChanged.compareAndSet(false, true)) {
+			ElementStatePulse.push(this);
+		}
+	}
+
+	/**
+	 * Updates {@link #elementStateProperty} and {@link #lastResultProperty} with the current
+	 * runtime state. Called by {@link ElementStatePulse} on JavaFX Application Thread.
+	 */
+	void syncPropertiesWithRuntimeState() {
+		// Reset the flag before reading, so changes made during this update are not lost.
+		runtimeStateChanged.set(false);
+		ElementState state = elementStates[runtimeState.get()];
+		int counter = workCounter.get();
+		if (counter != syncedWorkCounter) {
+			syncedWorkCounter = counter;
+			if (state != ElementState.WORKING) {
+				// The element worked and finished between two pulses. Let the listeners know it
+				// worked anyway.
+				elementStateProperty.set(ElementState.WORKING);
+			}
+		}
+		elementStateProperty.set(state);
+		long packedResult = runtimeResult.get();
+		if (packedResult != syncedResult) {
+			syncedResult = packedResult;
+			lastResultProperty.set(unpackResult(packedResult));
+		}
+	}
+
+	/**
+	 * Gets the current {@link ElementState} of the {@link CuteElement}. <br>
+	 * Unlike {@link #elementStateProperty()}, it's always up to date and can be called from any
+	 * thread.
+	 *
+	 * @return the current state
+	 */
+	@JsonIgnore
+	public ElementState getElementState() {
+		return elementStates[runtimeState.get()];
+	}
+
+	/**
+	 * Packs the kind and the value of result in a single long value.
+	 *
+	 * @param kind
+	 *            The kind of result.
+	 * @param value
+	 *            The value of result.
+	 * @return The packed result.
+	 */
+	private static long packResult(long kind, int value) {
+		return (kind << 32) | (value & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Converts the packed result to {@link Result}.
+	 *
+	 * @param packedResult
+	 *            The result packed by {@link #packResult(long, int)}.
+	 * @return The Result.
+	 */
+	private Result<?> unpackResult(long packedResult) {
+		long kind = packedResult >>> 32;
+		int value = (int) packedResult;
+		if (kind == BOOLEANRESULTKIND) {
+			return (value != 0) ? trueResult : falseResult;
+		} else if (kind == NUMERICRESULTKIND) {
+			return new Result<Integer>(value);
+		}
+		return unknownResult;
 	}
 
 	/**
@@ -507,7 +666,8 @@ public class ElementInfo {
 	}
 
 	/**
-	 * The current {@link ElementState} of the {@link CuteElement}.
+	 * The current {@link ElementState} of the {@link CuteElement}. <br>
+	 * Updated by {@link ElementStatePulse} on JavaFX Application Thread, so it's meant for GUI.
 	 *
 	 * @return the object property
 	 */
@@ -516,7 +676,8 @@ public class ElementInfo {
 	}
 
 	/**
-	 * The last {@link Result} of {@link CuteElement}'s work.
+	 * The last {@link Result} of {@link CuteElement}'s work. <br>
+	 * Updated by {@link ElementStatePulse} on JavaFX Application Thread, so it's meant for GUI.
 	 *
 	 * @return the object property
 	 */
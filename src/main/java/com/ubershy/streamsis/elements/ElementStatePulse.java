@@ -0,0 +1,105 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.elements;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+
+/**
+ * ElementStatePulse regularly copies runtime state of {@link CuteElement CuteElements} to the
+ * JavaFX properties of their {@link ElementInfo ElementInfos}.
+ * <p>
+ * CuteElements change their state and result very often from worker threads. Writing JavaFX
+ * properties each time would fire thousands of listeners per second. So ElementInfo stores the
+ * state in atomic variables and just marks itself as changed. Then, {@link #PULSESPERSECOND}
+ * times per second, the pulse takes all changed ElementInfos and updates their properties on
+ * JavaFX Application Thread. Several changes between two pulses become a single update.
+ * <p>
+ * Changed ElementInfos are linked in a lock-free stack through their own field, so marking an
+ * ElementInfo as changed doesn't allocate anything.
+ * <p>
+ * The pulse runs only in GUI mode. Without GUI nobody looks at the properties, so they are not
+ * updated.
+ */
+public final class ElementStatePulse {
+
+	/** How many times per second the properties are updated. */
+	public static final int PULSESPERSECOND = 30;
+
+	/** The top of the stack with changed ElementInfos. */
+	private static final AtomicReference<ElementInfo> changedHead = new AtomicReference<>();
+
+	/** The Timeline which runs the pulse on JavaFX Application Thread. */
+	private static Timeline timeline;
+
+	private ElementStatePulse() {
+	}
+
+	/**
+	 * Starts the pulse. Must be called on JavaFX Application Thread.
+	 */
+	public static void start() {
+		if (timeline == null) {
+			timeline = new Timeline(
+					new KeyFrame(Duration.millis(1000.0 / PULSESPERSECOND), event -> pulse()));
+			timeline.setCycleCount(Timeline.INDEFINITE);
+		}
+		timeline.play();
+	}
+
+	/**
+	 * Stops the pulse. Must be called on JavaFX Application Thread.
+	 */
+	public static void stop() {
+		if (timeline != null) {
+			timeline.stop();
+		}
+	}
+
+	/**
+	 * Puts the ElementInfo to the stack with changed ElementInfos. <br>
+	 * The caller must ensure the ElementInfo is not already in the stack.
+	 *
+	 * @param elementInfo
+	 *            The changed ElementInfo.
+	 */
+	static void push(ElementInfo elementInfo) {
+		ElementInfo head;
+		do {
+			head = changedHead.get();
+			elementInfo.nextChanged = head;
+		} while (!changedHead.compareAndSet(head, elementInfo));
+	}
+
+	/**
+	 * Takes all changed ElementInfos and updates their properties.
+	 */
+	private static void pulse() {
+		ElementInfo elementInfo = changedHead.getAndSet(null);
+		while (elementInfo != null) {
+			ElementInfo next = elementInfo.nextChanged;
+			elementInfo.nextChanged = null;
+			elementInfo.syncPropertiesWithRuntimeState();
+			elementInfo = next;
+		}
+	}
+
+}
@@ -58,6 +58,10 @@ public class ConfirmedDelayedActions extends DelayedActions {
 	/** The list of Actor's External children needed just for {@link #getChildren()} method. */
 	@JsonIgnore
 	protected ObservableList<CuteElement> children = generateExternalChildrenList();
+
+	/** The {@link Checker} compiled on {@link #init()}. */
+	@JsonIgnore
+	private volatile Checker runtimeChecker;
 	
 	public ConfirmedDelayedActions() {
 	}
@@ -112,11 +116,12 @@ public class ConfirmedDelayedActions extends DelayedActions {
 	@Override
 	public void init() {
 		super.init();
+		runtimeChecker = checker.isEmpty() ? null : checker.get(0);
 	}
 
 	@Override
 	protected void onDelayedExecute() {
-		if (checker.get(0).check()) {
+		if (runtimeChecker.check()) {
 			super.onDelayedExecute();
 		}
 	}
@@ -54,6 +54,24 @@ public class DelayedActions extends AbstractCuteElement implements Action {
 	/** The execution delay. */
 	@JsonIgnore
 	protected IntegerProperty delay = new SimpleIntegerProperty(0);
+
+	/**
+	 * The {@link Action Actions} to execute with delay and the execution delay compiled on
+	 * {@link #init()}. Published as a whole by a single assignment.
+	 */
+	@JsonIgnore
+	private volatile RuntimeSnapshot runtime = new RuntimeSnapshot(new Action[0], 0);
+
+	/** The immutable runtime state of DelayedActions compiled on {@link #init()}. */
+	private static final class RuntimeSnapshot {
+		final Action[] actions;
+		final int delay;
+
+		RuntimeSnapshot(Action[] actions, int delay) {
+			this.actions = actions;
+			this.delay = delay;
+		}
+	}
 	
 	public DelayedActions() {
 	}
@@ -78,11 +96,12 @@ public class DelayedActions extends AbstractCuteElement implements Action {
 	public void execute() {
 		if (elementInfo.canWork()) {
 			elementInfo.setAsWorking();
+			int runtimeDelay = runtime.delay;
 			new Thread(new Runnable() {
 				@Override
 				public void run() {
 					try {
-						Thread.sleep(delay.get());
+						Thread.sleep(runtimeDelay);
 					} catch (InterruptedException e) {
 						elementInfo.setBooleanResult(false);
 						return;
@@ -137,6 +156,7 @@ public class DelayedActions extends AbstractCuteElement implements Action {
 		if (delay.get() < 0) {
 			elementInfo.setAsBroken("Delay can't be less than 0.");
 		}
+		runtime = new RuntimeSnapshot(actions.toArray(new Action[0]), delay.get());
 	}
 
 	/**
@@ -144,7 +164,7 @@ public class DelayedActions extends AbstractCuteElement implements Action {
 	 * It is also used by subclasses of {@link DelayedActions}.
 	 */
 	protected void onDelayedExecute() {
-		for (Action action : actions) {
+		for (Action action : runtime.actions) {
 			action.execute();
 		}
 	}
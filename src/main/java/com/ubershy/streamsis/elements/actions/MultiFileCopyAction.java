@@ -170,6 +170,12 @@ public class MultiFileCopyAction extends FileCopyAction {
 			// already broken by filePicker.initTemporaryFileList() or null extension
 			return;
 		}
+		resetRuntimeState();
+	}
+
+	@Override
+	public void resetRuntimeState() {
+		// The first file to pick must be random too.
 		if (filePicker.isPickFilesRandomly()) {
 			filePicker.computeNextFileIndex();
 		}
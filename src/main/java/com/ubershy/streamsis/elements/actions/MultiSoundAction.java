@@ -19,6 +19,7 @@ package com.ubershy.streamsis.elements.actions;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -116,7 +117,11 @@ public class MultiSoundAction extends SoundAction {
 	public void execute() {
 		if (elementInfo.canWork()) {
 			elementInfo.setAsWorking();
-			MediaPlayer currentSoundToPlay = soundToPlay;
+			MediaPlayer currentSoundToPlay = getLoadedSound();
+			if (currentSoundToPlay == null) {
+				elementInfo.setBooleanResult(false);
+				return;
+			}
 			currentSoundToPlay.setOnEndOfMedia(() -> {
 				// Using local reference, because soundToPlay field is substituted later.
 				removeFromManagerAndDisposeSound(currentSoundToPlay);
@@ -128,11 +133,15 @@ public class MultiSoundAction extends SoundAction {
 				removeFromManagerAndDisposeSound(currentSoundToPlay);
 			});
 			boolean wasAbleToPlay = play();
-			filePicker.computeNextFileIndex();
-			File nextFileToPlay = filePicker.getTemporarySourceFileList()
-					.get(filePicker.getCurrentFileIndex());
-			String nextSoundToPlay = nextFileToPlay.getPath();
-			soundToPlay = initializeSoundAndAddToManager(nextSoundToPlay);
+			synchronized (this) {
+				filePicker.computeNextFileIndex();
+				// The played sound will dispose itself, so let's just forget about it.
+				soundToPlay = null;
+				isPlaying = false;
+				restartStops.set(0);
+				residentAssetBytes = 0;
+			}
+			loadAssets();
 			elementInfo.setBooleanResult(wasAbleToPlay);
 		}
 	}
@@ -140,19 +149,31 @@ public class MultiSoundAction extends SoundAction {
 	@Override
 	public void init() {
 		super.doSuperInit();
+		disposeSound();
 		filePicker.initTemporaryFileList(elementInfo, "sounds", null);
 		if (elementInfo.isBroken()) {
 			// already broken by filePicker.initTemporaryFileList()
 			return;
 		}
-		if (soundToPlay != null) {
-			removeFromManagerAndDisposeSound(soundToPlay);
-		}
+		resetRuntimeState();
+		loadAssets();
+	}
+
+	@Override
+	public void resetRuntimeState() {
+		// The first file to pick must be random too.
 		if (filePicker.isPickFilesRandomly()) {
 			filePicker.computeNextFileIndex();
 		}
-		soundToPlay = initializeSoundAndAddToManager(filePicker.getTemporarySourceFileList()
-				.get(filePicker.getCurrentFileIndex()).getPath());
+	}
+
+	@Override
+	protected synchronized String getPathOfSoundToLoad() {
+		List<File> sourceFiles = filePicker.getTemporarySourceFileList();
+		if (sourceFiles.isEmpty()) {
+			return null;
+		}
+		return sourceFiles.get(filePicker.getCurrentFileIndex()).getPath();
 	}
 
 	/**
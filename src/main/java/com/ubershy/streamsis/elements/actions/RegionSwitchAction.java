@@ -38,7 +38,9 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ubershy.streamsis.Util;
 import com.ubershy.streamsis.elements.AbstractCuteElement;
+import com.ubershy.streamsis.elements.AssetHolder;
 import com.ubershy.streamsis.elements.CuteElement;
 import com.ubershy.streamsis.elements.CuteElementContainer;
 import com.ubershy.streamsis.elements.helpers.Coordinates;
@@ -59,7 +61,7 @@ import javafx.collections.ObservableList;
  * and runs the Actions associated with the found Target image.<br>
  * If no Target image is found within the region, Default Actions are executed.
  */
-public class RegionSwitchAction extends AbstractCuteElement implements Action {
+public class RegionSwitchAction extends AbstractCuteElement implements Action, AssetHolder {
 
 	static final Logger logger = LoggerFactory.getLogger(RegionSwitchAction.class);
 	
@@ -109,9 +111,24 @@ public class RegionSwitchAction extends AbstractCuteElement implements Action {
 	@JsonProperty("defaultActions")
 	protected ObservableList<Action> defaultActions = FXCollections.observableArrayList();
 	
-	/** The targetPatterns {@link org.sikuli.script.Pattern Patterns} to internally work with. */
+	/**
+	 * The targetPatterns {@link org.sikuli.script.Pattern Patterns} to internally work with. <br>
+	 * Null when the assets are unloaded.
+	 */
+	@JsonIgnore
+	protected volatile Pattern[] targets;
+
+	/** The paths of Target image files used during the last {@link #init()}. */
+	@JsonIgnore
+	protected volatile String[] runtimeTargetPaths;
+
+	/** The similarity used during the last {@link #init()}. */
+	@JsonIgnore
+	protected volatile float runtimeSimilarity;
+
+	/** The approximate size of {@link #targets} in memory. */
 	@JsonIgnore
-	protected Pattern[] targets;
+	protected volatile long residentAssetBytes = 0;
 	
 	/** The {@link Finder} instance to use for non-multithreaded image matching. */
 	@JsonIgnore
@@ -168,6 +185,8 @@ public class RegionSwitchAction extends AbstractCuteElement implements Action {
 	@Override
 	public void init() {
 		super.init();
+		unloadAssets();
+		runtimeTargetPaths = null;
 		coords.get().initRegion(elementInfo);
 		if (elementInfo.isBroken()) {
 			// already broken by coords.initRegion();
@@ -176,37 +195,95 @@ public class RegionSwitchAction extends AbstractCuteElement implements Action {
 		// Create map for storing image file paths. It will allow later to check duplicate values. 
 		HashMap<String, TargetImageWithActions> pathTargetImageWithActionsMap = new HashMap<>(
 				targetImageWithActionsList.size());
-		// Initialize and fill array with targets.
-		targets = new Pattern[targetImageWithActionsList.size()];
+		String[] targetPaths = new String[targetImageWithActionsList.size()];
 		int i = 0;
 		for (TargetImageWithActions ita: targetImageWithActionsList) {
-			String itaName = ita.getElementInfo().getName();
 			String imageFilePath = ita.getTargetImagePath();
-			Image.unCacheBundledImage(imageFilePath);
-			Pattern target = new Pattern(imageFilePath).similar(similarity.get());
-			targets[i] = target;
-			Image image = target.getImage();
-			// Check if image will fit in the region.
-			if (image.getSize().getWidth() > coords.get().getW()) {
-				elementInfo.setAsBroken("The contained Target image's ('" + itaName
-						+ "') width should be smaller than the width of the specified Region.");
-				return;
-			}
-			if (image.getSize().getHeight() > coords.get().getH()) {
-				elementInfo.setAsBroken("The contained Target image's ('" + itaName
-						+ "') width should be smaller than the width of the specified Region.");
-				return;
-			}
+			targetPaths[i] = imageFilePath;
 			// Check for duplicate target image file paths.
 			TargetImageWithActions previousValue = pathTargetImageWithActionsMap.put(imageFilePath,
 					ita);
 			if (previousValue != null) {
-				elementInfo.setAsBroken("The contained Target images '" + itaName + "' and '"
+				elementInfo.setAsBroken("The contained Target images '"
+						+ ita.getElementInfo().getName() + "' and '"
 						+ previousValue.getElementInfo().getName()
 						+ "' can't use the same file path '" + imageFilePath + "'.");
+				return;
 			}
 			i++;
 		}
+		synchronized (this) {
+			runtimeSimilarity = similarity.get();
+			runtimeTargetPaths = targetPaths;
+		}
+		Pattern[] loadedTargets = getLoadedTargets();
+		if (loadedTargets == null) {
+			// already broken
+			return;
+		}
+		// Check if images will fit in the region.
+		synchronized (Util.sikulixImageCacheLock) {
+			for (i = 0; i < loadedTargets.length; i++) {
+				String itaName = targetImageWithActionsList.get(i).getElementInfo().getName();
+				Image image = loadedTargets[i].getImage();
+				if (image.getSize().getWidth() > coords.get().getW()) {
+					elementInfo.setAsBroken("The contained Target image's ('" + itaName
+							+ "') width should be smaller than the width of the specified Region.");
+					return;
+				}
+				if (image.getSize().getHeight() > coords.get().getH()) {
+					elementInfo.setAsBroken("The contained Target image's ('" + itaName
+							+ "') height should be smaller than the height of the specified"
+							+ " Region.");
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the {@link #targets}, loading them if they were unloaded.
+	 *
+	 * @return the target Patterns
+	 */
+	protected Pattern[] getLoadedTargets() {
+		Pattern[] loadedTargets = targets;
+		if (loadedTargets == null) {
+			loadAssets();
+			loadedTargets = targets;
+		}
+		return loadedTargets;
+	}
+
+	@Override
+	public synchronized void loadAssets() {
+		if (targets != null || runtimeTargetPaths == null || elementInfo.isBroken())
+			return;
+		Pattern[] loadedTargets = new Pattern[runtimeTargetPaths.length];
+		long bytes = 0;
+		for (int i = 0; i < loadedTargets.length; i++) {
+			loadedTargets[i] = Util.loadSikulixPattern(runtimeTargetPaths[i], runtimeSimilarity);
+			bytes += Util.estimateSikulixPatternBytes(loadedTargets[i]);
+		}
+		residentAssetBytes = bytes;
+		targets = loadedTargets;
+	}
+
+	@Override
+	public synchronized void unloadAssets() {
+		if (targets == null)
+			return;
+		targets = null;
+		residentAssetBytes = 0;
+		for (String path : runtimeTargetPaths) {
+			Util.unloadSikulixImage(path);
+		}
+	}
+
+	@JsonIgnore
+	@Override
+	public long getResidentAssetBytes() {
+		return residentAssetBytes;
 	}
 
 	@Override
@@ -216,11 +293,12 @@ public class RegionSwitchAction extends AbstractCuteElement implements Action {
 			Region region = coords.get().getRegion();
 			Screen screen = (Screen) region.getScreen();
 			ScreenImage screenImage = screen.capture(region);
+			Pattern[] loadedTargets = getLoadedTargets();
 			int foundMatchIndex;
 			if (findingBest.get()) {
-				foundMatchIndex = findBestMatchIndexMultithreaded(screenImage, targets);
+				foundMatchIndex = findBestMatchIndexMultithreaded(screenImage, loadedTargets);
 			} else {
-				foundMatchIndex = findFirstMatchIndex(screenImage, targets);
+				foundMatchIndex = findFirstMatchIndex(screenImage, loadedTargets);
 			}
 			if (foundMatchIndex == -1) { // No targets found. Need to execute Default Actions.
 				logger.info(elementInfo.getName()
@@ -20,6 +20,7 @@ package com.ubershy.streamsis.elements.actions;
 import java.io.File;
 import java.net.URI;
 import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +32,8 @@ import com.ubershy.streamsis.CuteConfig;
 import com.ubershy.streamsis.SuperSoundManager;
 import com.ubershy.streamsis.Util;
 import com.ubershy.streamsis.elements.AbstractCuteElement;
+import com.ubershy.streamsis.elements.AssetHolder;
+import com.ubershy.streamsis.project.ProjectBundle;
 
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
@@ -49,7 +52,7 @@ import javafx.scene.media.MediaPlayer.Status;
  * Supports ".wav", ".mp3" and ".ogg" files <br>
  * Can't play "*.wav" files in compressed PCM format.
  */
-public class SoundAction extends AbstractCuteElement implements Action {
+public class SoundAction extends AbstractCuteElement implements Action, AssetHolder {
 
 	static final Logger logger = LoggerFactory.getLogger(SoundAction.class);
 	
@@ -68,8 +71,32 @@ public class SoundAction extends AbstractCuteElement implements Action {
 	@JsonProperty
 	protected StringProperty soundPath = new SimpleStringProperty("");
 	
-	/** The sound that will be played. */
-	protected MediaPlayer soundToPlay;
+	/** The sound that will be played. Null when the assets are unloaded. */
+	@JsonIgnore
+	protected volatile MediaPlayer soundToPlay;
+
+	/** The path of sound file used during the last {@link #init()}. */
+	@JsonIgnore
+	protected volatile String runtimeSoundPath;
+
+	/**
+	 * Tells if {@link #soundToPlay} is playing now. <br>
+	 * Set on {@link #play()} and cleared when the sound ends or is stopped, because the status of
+	 * MediaPlayer is updated asynchronously and can't be trusted right after playing.
+	 */
+	@JsonIgnore
+	protected volatile boolean isPlaying = false;
+
+	/**
+	 * The number of stops made by {@link #play()} itself to restart the sound. Such stops don't
+	 * mean that the sound is not playing anymore.
+	 */
+	@JsonIgnore
+	protected final AtomicInteger restartStops = new AtomicInteger();
+
+	/** The approximate size of {@link #soundToPlay} in memory. */
+	@JsonIgnore
+	protected volatile long residentAssetBytes = 0;
 
 	/** The volume of sound from 0 to 1. */
 	@JsonProperty
@@ -122,9 +149,8 @@ public class SoundAction extends AbstractCuteElement implements Action {
 	@Override
 	public void init() {
 		super.init();
-		if (soundToPlay != null) {
-			removeFromManagerAndDisposeSound(soundToPlay);
-		}
+		disposeSound();
+		runtimeSoundPath = null;
 		if (volume.get() < 0 || volume.get() > 1)
 			elementInfo.setAsBroken("Volume must be in range from 0.0 to 1.0");
 		if (soundPath.get().isEmpty()) {
@@ -136,7 +162,70 @@ public class SoundAction extends AbstractCuteElement implements Action {
 			elementInfo.setAsBroken("Can't find or read sound file " + soundPath.get());
 			return;
 		}
-		soundToPlay = initializeSoundAndAddToManager(soundPath.get());
+		runtimeSoundPath = soundPath.get();
+		loadAssets();
+	}
+
+	/**
+	 * Gets the path of sound file to load on {@link #loadAssets()}.
+	 *
+	 * @return the path of sound file, or null if there's nothing to load
+	 */
+	protected String getPathOfSoundToLoad() {
+		return runtimeSoundPath;
+	}
+
+	/**
+	 * Gets the {@link #soundToPlay}, loading it if it was unloaded.
+	 *
+	 * @return the sound, or null if it can't be loaded
+	 */
+	protected MediaPlayer getLoadedSound() {
+		MediaPlayer sound = soundToPlay;
+		if (sound == null) {
+			loadAssets();
+			sound = soundToPlay;
+		}
+		return sound;
+	}
+
+	/**
+	 * Disposes the {@link #soundToPlay} even if it's playing now.
+	 */
+	protected synchronized void disposeSound() {
+		if (soundToPlay != null) {
+			removeFromManagerAndDisposeSound(soundToPlay);
+			soundToPlay = null;
+		}
+		isPlaying = false;
+		restartStops.set(0);
+		residentAssetBytes = 0;
+	}
+
+	@Override
+	public synchronized void loadAssets() {
+		String path = getPathOfSoundToLoad();
+		if (soundToPlay != null || path == null || elementInfo.isBroken())
+			return;
+		MediaPlayer sound = initializeSoundAndAddToManager(path);
+		// JavaFX doesn't tell how much memory the MediaPlayer uses, so let's count the file size.
+		residentAssetBytes = (sound == null) ? 0
+				: new File(ProjectBundle.resolveAssetPath(path)).length();
+		soundToPlay = sound;
+	}
+
+	@Override
+	public synchronized void unloadAssets() {
+		// Let's not interrupt the sound which is playing now.
+		if (soundToPlay == null || isPlaying)
+			return;
+		disposeSound();
+	}
+
+	@JsonIgnore
+	@Override
+	public long getResidentAssetBytes() {
+		return residentAssetBytes;
 	}
 
 	/**
@@ -147,11 +236,22 @@ public class SoundAction extends AbstractCuteElement implements Action {
 	 * @return the MediaPlayer
 	 */
 	protected MediaPlayer initializeSoundAndAddToManager(String soundPath) {
-		String URISoundPath = new File(soundPath).toURI().toString();
+		// JavaFX media can't read from Project bundle, so the sound is extracted from there.
+		String URISoundPath = new File(ProjectBundle.resolveAssetPath(soundPath)).toURI()
+				.toString();
 		MediaPlayer result = null;
 		try {
-			result = new MediaPlayer(new Media(URISoundPath));
-			SuperSoundManager.addSound(result);
+			MediaPlayer player = new MediaPlayer(new Media(URISoundPath));
+			player.setOnEndOfMedia(() -> soundFinished(player));
+			player.setOnError(() -> soundFinished(player));
+			player.setOnStopped(() -> {
+				if (restartStops.getAndUpdate(count -> Math.max(0, count - 1)) == 0) {
+					// Stopped from SuperSoundManager.
+					soundFinished(player);
+				}
+			});
+			SuperSoundManager.addSound(player);
+			result = player;
 		} catch (MediaException e) {
 			elementInfo.setAsSick(
 					"Compressed WAVE sound file detected.\nSuch files can't be played:\n"
@@ -162,18 +262,34 @@ public class SoundAction extends AbstractCuteElement implements Action {
 		return result;
 	}
 
+	/**
+	 * Remembers that the sound is not playing anymore.
+	 *
+	 * @param player
+	 *            the MediaPlayer which finished playing
+	 */
+	protected void soundFinished(MediaPlayer player) {
+		// The handler of already disposed MediaPlayer might come late.
+		if (player == soundToPlay)
+			isPlaying = false;
+	}
+
 	/**
 	 * Play sound.
 	 */
 	protected boolean play() {
 		double globalVolume = CuteConfig.getDouble(CuteConfig.CUTE, "GlobalVolume");
-		if (soundToPlay != null) {
-			soundToPlay.setVolume(volume.get() * globalVolume);
-			if (soundToPlay.getStatus() == Status.PLAYING)
-				soundToPlay.stop();
-			soundToPlay.play();
-			logger.info(String.format("Playing(%.2f): %s", soundToPlay.getVolume(),
-					Paths.get(URI.create(soundToPlay.getMedia().getSource()))));
+		MediaPlayer sound = getLoadedSound();
+		if (sound != null) {
+			sound.setVolume(volume.get() * globalVolume);
+			isPlaying = true;
+			if (sound.getStatus() == Status.PLAYING) {
+				restartStops.incrementAndGet();
+				sound.stop();
+			}
+			sound.play();
+			logger.info(String.format("Playing(%.2f): %s", sound.getVolume(),
+					Paths.get(URI.create(sound.getMedia().getSource()))));
 			// Element might got sick on a previous iteration. Time to make it healthy again.
 			if (elementInfo.isSick()) {
 				elementInfo.setAsHealthy();
@@ -25,7 +25,6 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ubershy.streamsis.elements.AbstractCuteElement;
 import com.ubershy.streamsis.elements.actions.Action;
 import com.ubershy.streamsis.networking.StreamingProgramManager;
-import com.ubershy.streamsis.networking.responses.GetSceneNameResponse;
 import com.ubershy.streamsis.networking.responses.Response;
 
 import javafx.beans.property.SimpleStringProperty;
@@ -71,12 +70,9 @@ public class SwitchSPSceneAction extends AbstractCuteElement implements Action {
 		if (elementInfo.canWork()) {
 			elementInfo.setAsWorking();
 			// Lets not change scene without need.
-			GetSceneNameResponse getSceneNameResponse = StreamingProgramManager.getSceneName();
-			if (getSceneNameResponse.getErrorText() != null) { // Got an error response.
-				reactOnErrorAndGetSick(getSceneNameResponse.getErrorText());
-				return;
-			}
-			if (this.sceneName.get().equals(getSceneNameResponse.getSceneName())) {
+			// The mirrors of the Streaming Programs' states usually know the current scene, so
+			// there's no need to ask.
+			if (StreamingProgramManager.isSceneCurrentEverywhere(this.sceneName.get())) {
 				logger.info("Scene is already active in Streaming Program. Not switching.");
 				elementInfo.setBooleanResult(false);
 				return;
@@ -29,8 +29,10 @@ import com.ubershy.streamsis.elements.checkers.Checker;
 
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.TreeView;
@@ -104,6 +106,25 @@ public abstract class AbstractActor extends AbstractCuteElement implements Actor
 	@JsonIgnore
 	protected IntegerProperty sleepOnSuccessDuration = new SimpleIntegerProperty();
 
+	/**
+	 * The priority of Actor's checks. <br>
+	 * Defined by the user.
+	 * 
+	 * @see {@link ActorPriority}
+	 */
+	@JsonIgnore
+	protected ObjectProperty<ActorPriority> priority = new SimpleObjectProperty<>(
+			ActorPriority.NORMAL);
+
+	/**
+	 * The compiled form of Actor's settings and children used while the Actor is working. <br>
+	 * Compiled on {@link #init()}.
+	 * 
+	 * @see {@link ActorRuntime}
+	 */
+	@JsonIgnore
+	protected volatile ActorRuntime runtime = ActorRuntime.EMPTY;
+
 	/**
 	 * The Actor's CheckService. <br>
 	 * 
@@ -157,6 +178,12 @@ public abstract class AbstractActor extends AbstractCuteElement implements Actor
 		return elementInfo;
 	}
 
+	@JsonIgnore
+	@Override
+	public ActorRuntime getRuntime() {
+		return runtime;
+	}
+
 	@JsonIgnore
 	@Override
 	public ActorCheckerService getActorCheckerService() {
@@ -197,6 +224,24 @@ public abstract class AbstractActor extends AbstractCuteElement implements Actor
 		return sleepOnSuccessDuration;
 	}
 
+	@Override
+	@JsonProperty("priority")
+	public ActorPriority getPriority() {
+		return priority.get();
+	}
+
+	@Override
+	@JsonProperty("priority")
+	public void setPriority(ActorPriority priority) {
+		// Projects saved before priorities were introduced don't have this property.
+		this.priority.set(priority == null ? ActorPriority.NORMAL : priority);
+	}
+
+	@Override
+	public ObjectProperty<ActorPriority> priorityProperty() {
+		return priority;
+	}
+
 	@Override
 	@JsonProperty("repeatInterval")
 	public int getRepeatInterval() {
@@ -272,8 +317,9 @@ public abstract class AbstractActor extends AbstractCuteElement implements Actor
 
 	@Override
 	public void executeOnActions() {
-		for (Action a : onActions) {
-			if (!executeAction(a, true)) {
+		ActorRuntime compiled = runtime;
+		for (int i = 0; i < compiled.getOnActionsCount(); i++) {
+			if (!executeAction(compiled.getOnAction(i), true)) {
 				return; // the problem occurred, so lets not execute any other actions
 			}
 		}
@@ -281,8 +327,9 @@ public abstract class AbstractActor extends AbstractCuteElement implements Actor
 
 	@Override
 	public void executeOffActions() {
-		for (Action a : offActions) {
-			if (!executeAction(a, false)) {
+		ActorRuntime compiled = runtime;
+		for (int i = 0; i < compiled.getOffActionsCount(); i++) {
+			if (!executeAction(compiled.getOffAction(i), false)) {
 				return; // the problem occurred, so lets not execute any other actions
 			}
 		}
@@ -19,6 +19,7 @@ package com.ubershy.streamsis.elements.actors;
 
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.collections.ObservableList;
 
 import com.ubershy.streamsis.StreamSis;
@@ -236,6 +237,39 @@ public interface Actor extends CuteElement {
 	 */
 	public IntegerProperty sleepOnSuccessDurationProperty();
 
+	/**
+	 * Gets the Actor's {@link ActorPriority}. <br>
+	 * It defines how urgently Actor's checks should run when many Actors compete for CPU.
+	 *
+	 * @return the priority of Actor's checks
+	 */
+	public ActorPriority getPriority();
+
+	/**
+	 * Sets the Actor's {@link ActorPriority}. <br>
+	 * It defines how urgently Actor's checks should run when many Actors compete for CPU.
+	 *
+	 * @param priority
+	 *            the priority of Actor's checks
+	 */
+	public void setPriority(ActorPriority priority);
+
+	/**
+	 * Gets the Actor's {@link ActorPriority} property. <br>
+	 * It defines how urgently Actor's checks should run when many Actors compete for CPU.
+	 *
+	 * @return the priority property
+	 */
+	public ObjectProperty<ActorPriority> priorityProperty();
+
+	/**
+	 * Gets the Actor's {@link ActorRuntime} compiled during the last {@link #init()}. <br>
+	 * The working Actor uses only it instead of its editable settings and children.
+	 *
+	 * @return the {@link ActorRuntime}
+	 */
+	public ActorRuntime getRuntime();
+
 	/**
 	 * Sets the Actor's {@link Checker}.
 	 *
@@ -19,8 +19,6 @@ package com.ubershy.streamsis.elements.actors;
 
 import com.ubershy.streamsis.ConstsAndVars;
 
-import javafx.concurrent.WorkerStateEvent;
-
 /**
  * This service is used by {@link Actor} to execute Actions. <br>
  * The state of this service then can be observed. <br>
@@ -28,7 +26,7 @@ import javafx.concurrent.WorkerStateEvent;
  * regularly with specified time interval. <br>
  * Otherwise it executes Actions once and then stops.
  */
-public class ActorActionsRepeatingService extends javafx.concurrent.Service<Void> {
+public class ActorActionsRepeatingService extends ActorLoopService {
 
 	/** The Actor to work with. */
 	private Actor actor;
@@ -48,17 +46,10 @@ public class ActorActionsRepeatingService extends javafx.concurrent.Service<Void
 		super();
 		this.actor = actor;
 		this.doOnOrOffActions = doOnOrOffActions;
-		setOnFailed((WorkerStateEvent e) -> {
-			if (getException() != null) 
-				throw new RuntimeException(getException());
-			else
-				throw new RuntimeException(
-						"Some Action or other code caused ActorActionsRepeatingService to fail.");
-		});
 	}
 
 	@Override
-	protected javafx.concurrent.Task<Void> createTask() {
+	protected LoopTask createTask() {
 		ActionsRepeatingProgressTask ct = new ActionsRepeatingProgressTask();
 		return ct;
 	}
@@ -66,9 +57,10 @@ public class ActorActionsRepeatingService extends javafx.concurrent.Service<Void
 	/**
 	 * Task to do inside Actor Actions Repeating Service.
 	 */
-	public class ActionsRepeatingProgressTask extends javafx.concurrent.Task<Void> {
+	public class ActionsRepeatingProgressTask extends LoopTask {
 		@Override
-		public Void call() {
+		protected void call() {
+			ActorRuntime runtime = actor.getRuntime();
 			while (true) {
 				if (isCancelled()) {
 					break;
@@ -77,17 +69,17 @@ public class ActorActionsRepeatingService extends javafx.concurrent.Service<Void
 					if(ConstsAndVars.performActing) {
 						actor.executeOnActions();
 					}
-					if (!actor.getDoOnRepeat())
+					if (!runtime.getDoOnRepeat())
 						break;
 				} else {
 					if(ConstsAndVars.performActing) {
 						actor.executeOffActions();
 					}
-					if (!actor.getDoOffRepeat())
+					if (!runtime.getDoOffRepeat())
 						break;
 				}
 				try {
-					Thread.sleep(actor.getRepeatInterval());
+					Thread.sleep(runtime.getRepeatInterval());
 				} catch (InterruptedException notImportant) {
 					if (isCancelled()) {
 						break;
@@ -96,7 +88,6 @@ public class ActorActionsRepeatingService extends javafx.concurrent.Service<Void
 					}
 				}
 			}
-			return null;
 		}
 	}
 }
\ No newline at end of file
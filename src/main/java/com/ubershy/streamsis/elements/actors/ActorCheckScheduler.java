@@ -0,0 +1,276 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.elements.actors;
+
+import java.util.EnumMap;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ubershy.streamsis.TimingStatistics;
+
+/**
+ * ActorCheckScheduler decides which {@link Actor Actor's} check runs next when there are more
+ * checks due than CPU cores available.
+ * <p>
+ * Each {@link ActorCheckerService} asks for a permission to run a check by calling
+ * {@link #acquire(Actor, long)} and gives it back by calling {@link #release(CheckTicket)}. At
+ * most {@link #getMaxConcurrentChecks()} checks run at the same time. Waiting checks are
+ * granted in order of their deadlines, where deadline is the moment the check is due plus
+ * {@link ActorPriority#getDeadlineSlack()}. Ties are resolved by priority and then by arrival
+ * order. <br>
+ * So a {@link ActorPriority#HIGH} Actor overtakes the less urgent ones, but a
+ * {@link ActorPriority#LOW} Actor that waited long enough still gets its turn.
+ * <p>
+ * The scheduler also measures check latency - how late each check started compared to the moment
+ * it was due - separately for each {@link ActorPriority}.
+ */
+public final class ActorCheckScheduler {
+
+	static final Logger logger = LoggerFactory.getLogger(ActorCheckScheduler.class);
+
+	/** The lock guarding the queue and the number of running checks. */
+	private static final Object lock = new Object();
+
+	/** The checks waiting for their turn. The most urgent check is on the head. */
+	private static final PriorityQueue<CheckTicket> waitingTickets = new PriorityQueue<>();
+
+	/** The maximum number of checks allowed to run at the same time. */
+	private static int maxConcurrentChecks = Math.max(1,
+			Runtime.getRuntime().availableProcessors());
+
+	/** The number of checks running at the moment. */
+	private static int runningChecks = 0;
+
+	/** The counter used to preserve arrival order of checks with equal deadlines. */
+	private static long ticketsCounter = 0;
+
+	/** The check latency statistics in milliseconds for each {@link ActorPriority}. */
+	private static final EnumMap<ActorPriority, TimingStatistics> latencies = new EnumMap<>(
+			ActorPriority.class);
+
+	static {
+		for (ActorPriority priority : ActorPriority.values()) {
+			latencies.put(priority, new TimingStatistics());
+		}
+	}
+
+	private ActorCheckScheduler() {
+	}
+
+	/**
+	 * The permission to run a single check of the {@link Actor}. <br>
+	 * Obtained by {@link ActorCheckScheduler#acquire(Actor, long)}.
+	 */
+	public static final class CheckTicket implements Comparable<CheckTicket> {
+
+		/** The Actor which wants to run the check. */
+		private final Actor actor;
+
+		/** The priority of the Actor at the moment of asking for a permission. */
+		private final ActorPriority priority;
+
+		/** The moment in nanoseconds (see {@link System#nanoTime()}) the check is due. */
+		private final long dueTime;
+
+		/** The moment in nanoseconds the check must be started at the latest. */
+		private final long deadline;
+
+		/** The arrival order of the ticket. */
+		private final long order;
+
+		private CheckTicket(Actor actor, ActorPriority priority, long dueTime, long order) {
+			this.actor = actor;
+			this.priority = priority;
+			this.dueTime = dueTime;
+			this.deadline = dueTime + priority.getDeadlineSlack() * 1000000L;
+			this.order = order;
+		}
+
+		/**
+		 * Gets the Actor which wants to run the check.
+		 *
+		 * @return the Actor
+		 */
+		public Actor getActor() {
+			return actor;
+		}
+
+		/**
+		 * Gets the priority of the Actor at the moment of asking for a permission.
+		 *
+		 * @return the priority
+		 */
+		public ActorPriority getPriority() {
+			return priority;
+		}
+
+		@Override
+		public int compareTo(CheckTicket other) {
+			// Deadlines are compared through subtraction as System.nanoTime() may overflow.
+			long deadlineDifference = deadline - other.deadline;
+			if (deadlineDifference != 0)
+				return deadlineDifference < 0 ? -1 : 1;
+			int priorityDifference = priority.compareTo(other.priority);
+			if (priorityDifference != 0)
+				return priorityDifference;
+			return Long.compare(order, other.order);
+		}
+	}
+
+	/**
+	 * Waits until the {@link Actor} is allowed to run its check.
+	 *
+	 * @param actor
+	 *            The Actor which wants to run the check.
+	 * @param dueTime
+	 *            The moment in nanoseconds (see {@link System#nanoTime()}) the check is due.
+	 * @return The {@link CheckTicket} which must be given back with {@link #release(CheckTicket)}
+	 *         after the check is done.
+	 * @throws InterruptedException
+	 *             If the current thread was interrupted while waiting, e.g. because the Actor was
+	 *             stopped.
+	 */
+	public static CheckTicket acquire(Actor actor, long dueTime) throws InterruptedException {
+		if (actor == null) {
+			throw new IllegalArgumentException("Actor can't be null");
+		}
+		ActorPriority priority = actor.getRuntime().getPriority();
+		CheckTicket ticket;
+		synchronized (lock) {
+			ticket = new CheckTicket(actor, priority, dueTime, ticketsCounter++);
+			waitingTickets.add(ticket);
+			try {
+				while (runningChecks >= maxConcurrentChecks || waitingTickets.peek() != ticket) {
+					lock.wait();
+				}
+			} catch (InterruptedException e) {
+				waitingTickets.remove(ticket);
+				// The removed ticket might have been blocking the others.
+				lock.notifyAll();
+				throw e;
+			}
+			waitingTickets.poll();
+			runningChecks++;
+			if (!waitingTickets.isEmpty() && runningChecks < maxConcurrentChecks) {
+				// The next ticket in the queue can also run.
+				lock.notifyAll();
+			}
+		}
+		long latency = (System.nanoTime() - dueTime) / 1000000L;
+		latencies.get(priority).record(latency);
+		return ticket;
+	}
+
+	/**
+	 * Gives back the permission to run a check, so other waiting checks can run.
+	 *
+	 * @param ticket
+	 *            The {@link CheckTicket} obtained by {@link #acquire(Actor, long)}.
+	 */
+	public static void release(CheckTicket ticket) {
+		if (ticket == null) {
+			throw new IllegalArgumentException("Ticket can't be null");
+		}
+		synchronized (lock) {
+			runningChecks--;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Gets the maximum number of checks allowed to run at the same time.
+	 *
+	 * @return the maximum number of concurrent checks
+	 */
+	public static int getMaxConcurrentChecks() {
+		synchronized (lock) {
+			return maxConcurrentChecks;
+		}
+	}
+
+	/**
+	 * Sets the maximum number of checks allowed to run at the same time. <br>
+	 * By default it's the number of available processors.
+	 *
+	 * @param maxConcurrentChecks
+	 *            the maximum number of concurrent checks, must be positive
+	 */
+	public static void setMaxConcurrentChecks(int maxConcurrentChecks) {
+		if (maxConcurrentChecks < 1) {
+			throw new IllegalArgumentException("Maximum number of concurrent checks must be positive");
+		}
+		synchronized (lock) {
+			ActorCheckScheduler.maxConcurrentChecks = maxConcurrentChecks;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Gets check latency statistics in milliseconds for the specified {@link ActorPriority}.
+	 *
+	 * @param priority
+	 *            the priority
+	 * @return the latency statistics
+	 */
+	public static TimingStatistics getLatencyStatistics(ActorPriority priority) {
+		return latencies.get(priority);
+	}
+
+	/**
+	 * Forgets all measured check latencies.
+	 */
+	public static void resetStatistics() {
+		for (TimingStatistics statistics : latencies.values()) {
+			statistics.reset();
+		}
+	}
+
+	/**
+	 * Gets short human-readable summary of 99th percentile of check latency for each
+	 * {@link ActorPriority}. <br>
+	 * Suitable for showing in the status bar.
+	 *
+	 * @return the summary, like "Check latency p99: High 2 ms, Normal 15 ms, Low 40 ms"
+	 */
+	public static String getLatencySummary() {
+		StringBuilder sb = new StringBuilder("Check latency p99:");
+		String separator = " ";
+		for (ActorPriority priority : ActorPriority.values()) {
+			sb.append(separator).append(priority).append(' ')
+					.append(latencies.get(priority).getPercentile(99)).append(" ms");
+			separator = ", ";
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Logs check latency statistics for each {@link ActorPriority}.
+	 */
+	public static void logStatistics() {
+		for (ActorPriority priority : ActorPriority.values()) {
+			TimingStatistics statistics = latencies.get(priority);
+			if (statistics.getCount() != 0) {
+				logger.info("Check latency of Actors with " + priority + " priority, ms: "
+						+ statistics);
+			}
+		}
+	}
+
+}
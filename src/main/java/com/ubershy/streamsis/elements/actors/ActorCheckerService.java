@@ -17,16 +17,27 @@
  */
 package com.ubershy.streamsis.elements.actors;
 
-import com.ubershy.streamsis.ConstsAndVars;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import javafx.concurrent.WorkerStateEvent;
+import com.ubershy.streamsis.ConstsAndVars;
+import com.ubershy.streamsis.UserVars;
+import com.ubershy.streamsis.elements.actors.ActorCheckScheduler.CheckTicket;
+import com.ubershy.streamsis.elements.checkers.Checker;
 
 /**
  * This service is used by {@link Actor} to do regular {@link Actor#checkAndAct()} with specified
  * time interval. <br>
+ * If Actor's {@link Checker} depends only on variables in {@link UserVars}, the service doesn't
+ * poll, but checks only when these variables change. <br>
  * The state of Checking then can be observed. <br>
  */
-public class ActorCheckerService extends javafx.concurrent.Service<Void> {
+public class ActorCheckerService extends ActorLoopService {
+
+	static final Logger logger = LoggerFactory.getLogger(ActorCheckerService.class);
 
 	/** The Actor to work with. */
 	private Actor actor;
@@ -40,64 +51,192 @@ public class ActorCheckerService extends javafx.concurrent.Service<Void> {
 	public ActorCheckerService(Actor actor) {
 		super();
 		this.actor = actor;
-		setOnFailed((WorkerStateEvent e) -> {
-			if (getException() != null) 
-				throw new RuntimeException(getException());
-			else
-				throw new RuntimeException(
-						"Some Checker or other code caused ActorCheckerService to fail.");
-		});
 	}
 
 	@Override
-	protected javafx.concurrent.Task<Void> createTask() {
+	protected LoopTask createTask() {
 		ProgressTask ct = new ProgressTask();
 		return ct;
 	}
 
-	public class ProgressTask extends javafx.concurrent.Task<Void> {
+	public class ProgressTask extends LoopTask {
 		@Override
-		public Void call() {
+		protected void call() {
 			if (actor.getElementInfo().canWork()) {
-				while (true) {
-					actor.getElementInfo().setAsWorking();
-					// updateProgress(0, 1);
-					if (isCancelled()) {
-						break;
+				Checker checker = actor.getRuntime().getChecker();
+				Set<String> watchedVariables = (checker == null) ? null
+						: checker.findWatchedVariables();
+				if (watchedVariables != null && !watchedVariables.isEmpty()) {
+					checkOnVariablesChange(watchedVariables);
+				} else {
+					CheckBudgetGovernor.register(actor);
+					try {
+						checkRegularly();
+					} finally {
+						CheckBudgetGovernor.unregister(actor);
 					}
-					// Lets allow user to update checkInterval during working Actor.
-					// So lets tune 'sleepTime' value every loop.
-					int sleepTime = actor.getCheckInterval();
-					if (ConstsAndVars.performChecking) {
+				}
+				actor.getElementInfo().setAsReady();
+			}
+			// updateProgress(0, 1);
+		}
+
+		/**
+		 * Does regular {@link Actor#checkAndAct()} until the task is cancelled.
+		 */
+		private void checkRegularly() {
+			// The moment in nanoseconds the next check is due. The first one is due right now.
+			long dueTime = System.nanoTime();
+			while (true) {
+				actor.getElementInfo().setAsWorking();
+				// updateProgress(0, 1);
+				if (isCancelled()) {
+					break;
+				}
+				// The compiled check interval might be stretched if checking exceeds the budget
+				// or raised if checks are slower than the interval, so lets tune 'sleepTime'
+				// value every loop.
+				int sleepTime = Math.max(CheckBudgetGovernor.getEffectiveCheckInterval(actor),
+						CheckOverrunMonitor.getRaisedInterval(actor));
+				if (ConstsAndVars.performChecking) {
+					// Wait for our turn if too many Actors want to check at the same time.
+					CheckTicket ticket;
+					try {
+						ticket = ActorCheckScheduler.acquire(actor, dueTime);
+					} catch (InterruptedException e) {
+						if (isCancelled()) {
+							break;
+						} else {
+							e.printStackTrace();
+							continue;
+						}
+					}
+					boolean wasSwitchedOn = actor.isSwitchOnProperty().get();
+					long costCounter = CheckBudgetGovernor.getCostCounter();
+					long checkStartTime = System.nanoTime();
+					try {
 						actor.checkAndAct();
-					} else {
-						// Without a little amount of sleep we will not notice progress update
-						try {
-							Thread.sleep(100);
-						} catch (InterruptedException e) {
-							if (isCancelled()) {
-								break;
-							} else {
-								e.printStackTrace();
-							}
+					} finally {
+						ActorCheckScheduler.release(ticket);
+					}
+					CheckOverrunMonitor.recordCheckDuration(actor,
+							System.nanoTime() - checkStartTime);
+					CheckBudgetGovernor.recordCheckCost(actor,
+							CheckBudgetGovernor.getCostCounter() - costCounter);
+					if (!sleepIfSwitchedOn(wasSwitchedOn)) {
+						break;
+					}
+				} else {
+					// Without a little amount of sleep we will not notice progress update
+					try {
+						Thread.sleep(100);
+					} catch (InterruptedException e) {
+						if (isCancelled()) {
+							break;
+						} else {
+							e.printStackTrace();
 						}
 					}
-					// updateProgress(1, 1);
+				}
+				// updateProgress(1, 1);
+				dueTime = System.nanoTime() + sleepTime * 1000000L;
+				try {
+					Thread.sleep(sleepTime);
+				} catch (InterruptedException e) {
+					if (isCancelled()) {
+						break;
+					} else {
+						e.printStackTrace();
+					}
+				}
+				actor.getElementInfo().setBooleanResult(true);
+			}
+		}
+
+		/**
+		 * Does {@link Actor#checkAndAct()} once and then each time one of the specified
+		 * variables in {@link UserVars} changes, until the task is cancelled. <br>
+		 * Used instead of {@link #checkRegularly()} when Actor's {@link Checker} depends only on
+		 * variables, see {@link Checker#findWatchedVariables()}.
+		 *
+		 * @param variables
+		 *            The names of variables to watch.
+		 */
+		private void checkOnVariablesChange(Set<String> variables) {
+			// The first check is done right away.
+			final AtomicBoolean changed = new AtomicBoolean(true);
+			Runnable listener = () -> {
+				synchronized (changed) {
+					changed.set(true);
+					changed.notifyAll();
+				}
+			};
+			for (String variable : variables) {
+				UserVars.addListener(variable, listener);
+			}
+			logger.info(actor.getElementInfo().getName() + ": Checker depends only on variables "
+					+ variables + ", so checks will be done only when they change.");
+			try {
+				while (true) {
 					try {
-						Thread.sleep(sleepTime);
+						synchronized (changed) {
+							while (!changed.get()) {
+								changed.wait();
+							}
+							changed.set(false);
+						}
 					} catch (InterruptedException e) {
 						if (isCancelled()) {
 							break;
 						} else {
 							e.printStackTrace();
+							continue;
+						}
+					}
+					if (isCancelled()) {
+						break;
+					}
+					actor.getElementInfo().setAsWorking();
+					if (ConstsAndVars.performChecking) {
+						boolean wasSwitchedOn = actor.isSwitchOnProperty().get();
+						actor.checkAndAct();
+						if (!sleepIfSwitchedOn(wasSwitchedOn)) {
+							break;
 						}
 					}
 					actor.getElementInfo().setBooleanResult(true);
 				}
-				actor.getElementInfo().setAsReady();
+			} finally {
+				for (String variable : variables) {
+					UserVars.removeListener(variable, listener);
+				}
 			}
-			// updateProgress(0, 1);
-			return null;
+		}
+
+		/**
+		 * Sleeps for {@link ActorRuntime#getSleepOnSuccessDuration()} if the Actor has just
+		 * switched On.
+		 *
+		 * @param wasSwitchedOn
+		 *            Tells if the Actor was switched On before the last check.
+		 * @return False, if the task was cancelled during sleep.
+		 */
+		private boolean sleepIfSwitchedOn(boolean wasSwitchedOn) {
+			int sleepDuration = actor.getRuntime().getSleepOnSuccessDuration();
+			if (!wasSwitchedOn && actor.isSwitchOnProperty().get() && sleepDuration > 0) {
+				logger.info("Sleeping after success check result for " + sleepDuration
+						+ " milliseconds.");
+				try {
+					Thread.sleep(sleepDuration);
+				} catch (InterruptedException e) {
+					if (isCancelled()) {
+						return false;
+					} else {
+						logger.debug("Sleep after success check result was interrupted.");
+					}
+				}
+			}
+			return true;
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.elements.actors;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ActorLoopService runs a {@link LoopTask} of {@link Actor} in a background thread and allows to
+ * cancel it.
+ * <p>
+ * It's similar to {@link javafx.concurrent.Service}, but doesn't need JavaFX toolkit to be
+ * running, so Actors can work without GUI. All services share a single pool of daemon threads.
+ * <p>
+ * If the task throws an exception, the exception goes to thread's
+ * {@link Thread.UncaughtExceptionHandler}.
+ */
+public abstract class ActorLoopService {
+
+	/** The counter used for naming threads. */
+	private static final AtomicInteger threadsCounter = new AtomicInteger();
+
+	/** The pool of threads shared by all ActorLoopServices. */
+	private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "ActorLoop-" + threadsCounter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/** The task which is currently running or scheduled to run. */
+	private LoopTask currentTask;
+
+	/**
+	 * Creates a new task to run on {@link #start()}.
+	 *
+	 * @return the new task
+	 */
+	protected abstract LoopTask createTask();
+
+	/**
+	 * Starts a new task. If the previous task is still running, cancels it first.
+	 */
+	public synchronized void start() {
+		cancel();
+		currentTask = createTask();
+		executor.execute(currentTask);
+	}
+
+	/**
+	 * Cancels the current task, if any. <br>
+	 * The task's thread is interrupted, so the task can wake up from sleep and finish.
+	 */
+	public synchronized void cancel() {
+		if (currentTask != null) {
+			currentTask.cancel();
+			currentTask = null;
+		}
+	}
+
+	/**
+	 * Tells if the service has a task which is running or scheduled to run.
+	 *
+	 * @return true, if the task is running or scheduled to run
+	 */
+	public synchronized boolean isRunning() {
+		return currentTask != null && !currentTask.isDone();
+	}
+
+	/**
+	 * The task to run inside {@link ActorLoopService}. <br>
+	 * Usually it's a loop which works until {@link #isCancelled()} becomes true.
+	 */
+	public abstract static class LoopTask implements Runnable {
+
+		/** Tells if the task was cancelled. */
+		private volatile boolean cancelled = false;
+
+		/** Tells if the task has finished. */
+		private volatile boolean done = false;
+
+		/** The thread running the task. Guarded by this task's monitor. */
+		private Thread thread;
+
+		/**
+		 * Does the work of the task.
+		 */
+		protected abstract void call();
+
+		/**
+		 * Tells if the task was cancelled and should finish as soon as possible.
+		 *
+		 * @return true, if the task was cancelled
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Tells if the task has finished.
+		 *
+		 * @return true, if the task has finished
+		 */
+		public boolean isDone() {
+			return done;
+		}
+
+		/**
+		 * Cancels the task and interrupts its thread.
+		 */
+		private synchronized void cancel() {
+			cancelled = true;
+			if (thread != null) {
+				thread.interrupt();
+			}
+		}
+
+		@Override
+		public final void run() {
+			synchronized (this) {
+				thread = Thread.currentThread();
+			}
+			try {
+				if (!cancelled) {
+					call();
+				}
+			} finally {
+				synchronized (this) {
+					thread = null;
+					// Don't let the interruption leak to the next task of the pooled thread.
+					Thread.interrupted();
+				}
+				done = true;
+			}
+		}
+	}
+
+}
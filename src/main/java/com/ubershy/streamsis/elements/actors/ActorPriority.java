@@ -0,0 +1,95 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.elements.actors;
+
+/**
+ * The Enum with possible priorities of {@link Actor Actor's} checks.
+ * <p>
+ * Each priority has a deadline slack. It's the amount of time in milliseconds an Actor's check
+ * is allowed to be late after the moment it's due. {@link ActorCheckScheduler} runs ready checks
+ * in order of their deadlines, so Actors with bigger slack yield to more urgent Actors when
+ * there's not enough CPU for everyone.
+ * <p>
+ * Each priority also has a throttle weight. When {@link CheckBudgetGovernor} needs to reduce the
+ * load, it stretches check intervals of Actors proportionally to their throttle weights, so less
+ * important Actors slow down more.
+ */
+public enum ActorPriority {
+
+	/** For Actors that must react as soon as possible, e.g. the ones switching scenes. */
+	HIGH("High", 0, 1),
+
+	/** For most of the Actors. */
+	NORMAL("Normal", 250, 2),
+
+	/** For Actors that can wait, e.g. the ones playing a random sound every minute. */
+	LOW("Low", 1000, 4);
+
+	/** The user-friendly name of the priority. */
+	private final String name;
+
+	/** The time in milliseconds the check is allowed to be late after it's due. */
+	private final int deadlineSlack;
+
+	/** How strongly check intervals are stretched when the checking is throttled. */
+	private final double throttleWeight;
+
+	/**
+	 * Instantiates a new ActorPriority.
+	 *
+	 * @param name
+	 *            The user-friendly name of the priority.
+	 * @param deadlineSlack
+	 *            The time in milliseconds the check is allowed to be late after it's due.
+	 * @param throttleWeight
+	 *            How strongly check intervals are stretched when the checking is throttled.
+	 */
+	private ActorPriority(String name, int deadlineSlack, double throttleWeight) {
+		this.name = name;
+		this.deadlineSlack = deadlineSlack;
+		this.throttleWeight = throttleWeight;
+	}
+
+	/**
+	 * Gets the time in milliseconds the Actor's check is allowed to be late after it's due.
+	 *
+	 * @return The deadline slack in milliseconds.
+	 */
+	public int getDeadlineSlack() {
+		return deadlineSlack;
+	}
+
+	/**
+	 * Gets the weight which defines how strongly Actor's check interval is stretched when the
+	 * checking is throttled by {@link CheckBudgetGovernor}. Bigger weight - more stretching.
+	 *
+	 * @return The throttle weight.
+	 */
+	public double getThrottleWeight() {
+		return throttleWeight;
+	}
+
+	/*
+	 * Returns the user-friendly name of this priority.
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
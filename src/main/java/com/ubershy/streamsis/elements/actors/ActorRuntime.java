@@ -0,0 +1,141 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.elements.actors;
+
+import com.ubershy.streamsis.elements.actions.Action;
+import com.ubershy.streamsis.elements.checkers.Checker;
+
+/**
+ * ActorRuntime is the immutable compiled form of {@link Actor Actor's} settings and children. It
+ * is used while the Actor is working.
+ * <p>
+ * Actor's editable settings are JavaFX properties and its children are in ObservableLists, so the
+ * user can edit them in GUI. Reading them on every check costs a lot of indirection, and they can
+ * change in the middle of a check. So {@link Actor#init()} compiles them into ActorRuntime with
+ * plain final fields and arrays. The working Actor reads only ActorRuntime, and the editable
+ * model can be changed without affecting it until the next initialization.
+ */
+public final class ActorRuntime {
+
+	/** The ActorRuntime of Actor which was not initialized yet. It has no children. */
+	public static final ActorRuntime EMPTY = new ActorRuntime(null, new Action[0], new Action[0],
+			0, 0, 0, false, false, ActorPriority.NORMAL);
+
+	/** The Actor's {@link Checker}, can be null. */
+	private final Checker checker;
+
+	/** The Actor's On {@link Action Actions}. */
+	private final Action[] onActions;
+
+	/** The Actor's Off {@link Action Actions}. */
+	private final Action[] offActions;
+
+	/** The interval of time in milliseconds between Actor's checks. */
+	private final int checkInterval;
+
+	/** The interval of time in milliseconds between Actor's Actions executions. */
+	private final int repeatInterval;
+
+	/** The duration of sleep in milliseconds after the first successful check in a row. */
+	private final int sleepOnSuccessDuration;
+
+	/** Defines repeat or not On Actions. */
+	private final boolean doOnRepeat;
+
+	/** Defines repeat or not Off Actions. */
+	private final boolean doOffRepeat;
+
+	/** The priority of Actor's checks. */
+	private final ActorPriority priority;
+
+	private ActorRuntime(Checker checker, Action[] onActions, Action[] offActions,
+			int checkInterval, int repeatInterval, int sleepOnSuccessDuration, boolean doOnRepeat,
+			boolean doOffRepeat, ActorPriority priority) {
+		this.checker = checker;
+		this.onActions = onActions;
+		this.offActions = offActions;
+		this.checkInterval = checkInterval;
+		this.repeatInterval = repeatInterval;
+		this.sleepOnSuccessDuration = sleepOnSuccessDuration;
+		this.doOnRepeat = doOnRepeat;
+		this.doOffRepeat = doOffRepeat;
+		this.priority = priority;
+	}
+
+	/**
+	 * Compiles the current settings and children of the Actor into ActorRuntime.
+	 *
+	 * @param actor
+	 *            The Actor to compile.
+	 * @return the new ActorRuntime
+	 */
+	public static ActorRuntime compile(Actor actor) {
+		ActorPriority priority = actor.getPriority();
+		return new ActorRuntime(actor.getChecker(),
+				actor.getOnActions().toArray(new Action[0]),
+				actor.getOffActions().toArray(new Action[0]), actor.getCheckInterval(),
+				actor.getRepeatInterval(), actor.getSleepOnSuccessDuration(),
+				actor.getDoOnRepeat(), actor.getDoOffRepeat(),
+				(priority == null) ? ActorPriority.NORMAL : priority);
+	}
+
+	public Checker getChecker() {
+		return checker;
+	}
+
+	public int getOnActionsCount() {
+		return onActions.length;
+	}
+
+	public Action getOnAction(int index) {
+		return onActions[index];
+	}
+
+	public int getOffActionsCount() {
+		return offActions.length;
+	}
+
+	public Action getOffAction(int index) {
+		return offActions[index];
+	}
+
+	public int getCheckInterval() {
+		return checkInterval;
+	}
+
+	public int getRepeatInterval() {
+		return repeatInterval;
+	}
+
+	public int getSleepOnSuccessDuration() {
+		return sleepOnSuccessDuration;
+	}
+
+	public boolean getDoOnRepeat() {
+		return doOnRepeat;
+	}
+
+	public boolean getDoOffRepeat() {
+		return doOffRepeat;
+	}
+
+	public ActorPriority getPriority() {
+		return priority;
+	}
+
+}
@@ -0,0 +1,343 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.elements.actors;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ubershy.streamsis.CuteConfig;
+
+/**
+ * CheckBudgetGovernor keeps the total load produced by {@link Actor Actors'} checks under the
+ * budget configured by the user in {@link CuteConfig}.
+ * <p>
+ * There are two independent limits, each one is disabled when set to zero:
+ * <ul>
+ * <li><b>MaxChecksPerSecond</b> - the maximum total number of checks per second.</li>
+ * <li><b>MaxCheckingCPUPercent</b> - the maximum percentage of total CPU time (all cores) that
+ * checks are allowed to consume.</li>
+ * </ul>
+ * The governor measures the cost of each check (CPU time of the checking thread, or wall time if
+ * the JVM can't measure CPU time) and keeps the average cost of each working Actor. Once per
+ * {@link #RECALCULATIONPERIOD} it finds the smallest stretch factor <i>k</i> which keeps the
+ * predicted load under the budget. Then each Actor's effective check interval becomes: <br>
+ * <code>checkInterval * (1 + k * throttleWeight)</code>, <br>
+ * where throttleWeight comes from Actor's {@link ActorPriority}. So when the budget is tight,
+ * every Actor slows down, but less important Actors slow down more.
+ */
+public final class CheckBudgetGovernor {
+
+	static final Logger logger = LoggerFactory.getLogger(CheckBudgetGovernor.class);
+
+	/** How often in milliseconds the stretch factor is recalculated. */
+	public static final long RECALCULATIONPERIOD = 1000;
+
+	/** The biggest stretch factor the governor can choose. */
+	private static final double MAXSTRETCHFACTOR = 1000.0;
+
+	/** How much the newest measurement affects the average cost of Actor's check. */
+	private static final double COSTSMOOTHING = 0.2;
+
+	/** The lock guarding all mutable state of the governor. */
+	private static final Object lock = new Object();
+
+	/** The average check cost in milliseconds of each working Actor. */
+	private static final IdentityHashMap<Actor, Double> averageCosts = new IdentityHashMap<>();
+
+	/** The bean which can measure CPU time of the current thread. */
+	private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+	/** Tells if CPU time of the current thread can be measured. */
+	private static final boolean cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported();
+
+	/** The maximum total number of checks per second. Zero means unlimited. */
+	private static double maxChecksPerSecond = 0;
+
+	/** The maximum percentage of total CPU time checks can consume. Zero means unlimited. */
+	private static double maxCheckingCPUPercent = 0;
+
+	/** The current stretch factor. Zero means no throttling. */
+	private static volatile double stretchFactor = 0;
+
+	/** The time in milliseconds when the stretch factor was recalculated the last time. */
+	private static long lastRecalculationTime = 0;
+
+	private CheckBudgetGovernor() {
+	}
+
+	/**
+	 * Reads the budget from {@link CuteConfig}. <br>
+	 * Should be called before starting Actors. Wrong values are logged and replaced, so a typo
+	 * in the config doesn't prevent the Project from starting.
+	 */
+	public static void loadBudgetFromConfig() {
+		double maxChecks = CuteConfig.getDouble(CuteConfig.CUTE, "MaxChecksPerSecond");
+		if (maxChecks < 0) {
+			logger.error("MaxChecksPerSecond can't be negative, using 0 (unlimited) instead of: "
+					+ maxChecks);
+			maxChecks = 0;
+		}
+		double maxCPU = CuteConfig.getDouble(CuteConfig.CUTE, "MaxCheckingCPUPercent");
+		if (maxCPU < 0 || maxCPU > 100) {
+			logger.error("MaxCheckingCPUPercent must be from 0 to 100, using 0 (unlimited) "
+					+ "instead of: " + maxCPU);
+			maxCPU = 0;
+		}
+		setBudget(maxChecks, maxCPU);
+	}
+
+	/**
+	 * Sets the budget for checking.
+	 *
+	 * @param maxChecksPerSecond
+	 *            The maximum total number of checks per second. Zero means unlimited.
+	 * @param maxCheckingCPUPercent
+	 *            The maximum percentage of total CPU time checks can consume. Zero means
+	 *            unlimited.
+	 * @throws IllegalArgumentException
+	 *             if the values are out of range
+	 */
+	public static void setBudget(double maxChecksPerSecond, double maxCheckingCPUPercent) {
+		if (maxChecksPerSecond < 0 || maxCheckingCPUPercent < 0 || maxCheckingCPUPercent > 100) {
+			throw new IllegalArgumentException("Checking budget values are out of range");
+		}
+		synchronized (lock) {
+			CheckBudgetGovernor.maxChecksPerSecond = maxChecksPerSecond;
+			CheckBudgetGovernor.maxCheckingCPUPercent = maxCheckingCPUPercent;
+			recalculate(System.currentTimeMillis());
+		}
+		logger.info("Checking budget: max checks per second: "
+				+ (maxChecksPerSecond == 0 ? "unlimited" : maxChecksPerSecond)
+				+ ", max CPU percent: "
+				+ (maxCheckingCPUPercent == 0 ? "unlimited" : maxCheckingCPUPercent));
+	}
+
+	/**
+	 * Tells the governor that the Actor started checking.
+	 *
+	 * @param actor
+	 *            The Actor.
+	 */
+	public static void register(Actor actor) {
+		synchronized (lock) {
+			averageCosts.put(actor, 0.0);
+		}
+	}
+
+	/**
+	 * Tells the governor that the Actor stopped checking.
+	 *
+	 * @param actor
+	 *            The Actor.
+	 */
+	public static void unregister(Actor actor) {
+		synchronized (lock) {
+			averageCosts.remove(actor);
+			if (averageCosts.isEmpty()) {
+				stretchFactor = 0;
+			}
+		}
+	}
+
+	/**
+	 * Gets the current time counter used for measuring check cost. <br>
+	 * Pass the difference of two such values to {@link #recordCheckCost(Actor, long)}.
+	 *
+	 * @return CPU time of the current thread in nanoseconds, or wall time in nanoseconds if CPU
+	 *         time can't be measured.
+	 */
+	public static long getCostCounter() {
+		if (cpuTimeSupported) {
+			return threadBean.getCurrentThreadCpuTime();
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the cost of a single Actor's check.
+	 *
+	 * @param actor
+	 *            The Actor which did the check.
+	 * @param costNanos
+	 *            The cost of the check in nanoseconds, see {@link #getCostCounter()}.
+	 */
+	public static void recordCheckCost(Actor actor, long costNanos) {
+		double costMs = Math.max(0, costNanos) / 1000000.0;
+		synchronized (lock) {
+			Double average = averageCosts.get(actor);
+			if (average == null) {
+				// The Actor was already unregistered.
+				return;
+			}
+			if (average == 0) {
+				averageCosts.put(actor, costMs);
+			} else {
+				averageCosts.put(actor, average + COSTSMOOTHING * (costMs - average));
+			}
+			long now = System.currentTimeMillis();
+			if (now - lastRecalculationTime >= RECALCULATIONPERIOD) {
+				recalculate(now);
+			}
+		}
+	}
+
+	/**
+	 * Gets the effective check interval of the Actor, i.e. Actor's check interval stretched
+	 * according to the current throttling.
+	 *
+	 * @param actor
+	 *            The Actor.
+	 * @return The effective check interval in milliseconds.
+	 */
+	public static int getEffectiveCheckInterval(Actor actor) {
+		int interval = actor.getRuntime().getCheckInterval();
+		double k = stretchFactor;
+		if (k == 0) {
+			return interval;
+		}
+		return (int) Math.min(Integer.MAX_VALUE, Math.round(interval * stretchOf(actor, k)));
+	}
+
+	/**
+	 * Tells if checking is throttled at the moment.
+	 *
+	 * @return True, if Actors' check intervals are stretched.
+	 */
+	public static boolean isThrottling() {
+		return stretchFactor > 0;
+	}
+
+	/**
+	 * Gets short human-readable description of the current throttling. <br>
+	 * Suitable for showing in the status bar.
+	 *
+	 * @return the description, like "Throttled: intervals x1.5-x3.0", or empty String if checking
+	 *         is not throttled.
+	 */
+	public static String getThrottlingSummary() {
+		double k = stretchFactor;
+		if (k == 0) {
+			return "";
+		}
+		double smallest = 1 + k * ActorPriority.HIGH.getThrottleWeight();
+		double biggest = 1 + k * ActorPriority.LOW.getThrottleWeight();
+		return String.format("Throttled: intervals x%.1f-x%.1f", smallest, biggest);
+	}
+
+	/**
+	 * Finds the smallest stretch factor which keeps the predicted load under the budget.
+	 * Must be called under {@link #lock}.
+	 *
+	 * @param now
+	 *            The current time in milliseconds.
+	 */
+	private static void recalculate(long now) {
+		lastRecalculationTime = now;
+		if ((maxChecksPerSecond == 0 && maxCheckingCPUPercent == 0) || averageCosts.isEmpty()) {
+			setStretchFactor(0);
+			return;
+		}
+		if (fitsInBudget(0)) {
+			setStretchFactor(0);
+			return;
+		}
+		if (!fitsInBudget(MAXSTRETCHFACTOR)) {
+			setStretchFactor(MAXSTRETCHFACTOR);
+			return;
+		}
+		// The load only decreases with growing stretch factor, so binary search works.
+		double low = 0;
+		double high = MAXSTRETCHFACTOR;
+		for (int i = 0; i < 40; i++) {
+			double middle = (low + high) / 2;
+			if (fitsInBudget(middle)) {
+				high = middle;
+			} else {
+				low = middle;
+			}
+		}
+		setStretchFactor(high);
+	}
+
+	/**
+	 * Predicts the load with the specified stretch factor and compares it with the budget. Must be
+	 * called under {@link #lock}.
+	 *
+	 * @param k
+	 *            The stretch factor.
+	 * @return True, if the predicted load fits in the budget.
+	 */
+	private static boolean fitsInBudget(double k) {
+		double checksPerSecond = 0;
+		double cpuMsPerSecond = 0;
+		for (Map.Entry<Actor, Double> entry : averageCosts.entrySet()) {
+			Actor actor = entry.getKey();
+			double cost = entry.getValue();
+			// The next check starts after the previous check is finished and the interval passed.
+			double period = actor.getRuntime().getCheckInterval() * stretchOf(actor, k) + cost;
+			if (period <= 0)
+				continue;
+			double rate = 1000.0 / period;
+			checksPerSecond += rate;
+			cpuMsPerSecond += rate * cost;
+		}
+		if (maxChecksPerSecond != 0 && checksPerSecond > maxChecksPerSecond) {
+			return false;
+		}
+		double cpuBudgetMsPerSecond = maxCheckingCPUPercent / 100.0
+				* Runtime.getRuntime().availableProcessors() * 1000.0;
+		if (maxCheckingCPUPercent != 0 && cpuMsPerSecond > cpuBudgetMsPerSecond) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the multiplier of Actor's check interval for the specified stretch factor.
+	 *
+	 * @param actor
+	 *            The Actor.
+	 * @param k
+	 *            The stretch factor.
+	 * @return The multiplier.
+	 */
+	private static double stretchOf(Actor actor, double k) {
+		return 1 + k * actor.getRuntime().getPriority().getThrottleWeight();
+	}
+
+	/**
+	 * Sets the new stretch factor and logs the change of throttling state.
+	 *
+	 * @param newStretchFactor
+	 *            The new stretch factor.
+	 */
+	private static void setStretchFactor(double newStretchFactor) {
+		if (stretchFactor == 0 && newStretchFactor != 0) {
+			logger.info("Checking exceeds the budget. Throttling started.");
+		} else if (stretchFactor != 0 && newStretchFactor == 0) {
+			logger.info("Checking fits in the budget. Throttling stopped.");
+		}
+		stretchFactor = newStretchFactor;
+	}
+
+}
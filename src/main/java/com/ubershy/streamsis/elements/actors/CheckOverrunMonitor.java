@@ -0,0 +1,287 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.elements.actors;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ubershy.streamsis.CuteConfig;
+import com.ubershy.streamsis.TimingStatistics;
+import com.ubershy.streamsis.elements.ElementInfo;
+
+/**
+ * CheckOverrunMonitor measures how long each {@link Actor Actor's} check takes and finds
+ * overruns - checks which take longer than Actor's check interval. Such Actors check much more
+ * rarely than the user expects.
+ * <p>
+ * For each Actor it counts overruns and keeps check duration statistics. <br>
+ * When an Actor overruns {@link #OVERRUNSINAROWTOREACT} times in a row, the monitor reacts
+ * according to {@link OverrunPolicy} from {@link CuteConfig}:
+ * <ul>
+ * <li>{@link OverrunPolicy#WARN} - writes a warning to the log.</li>
+ * <li>{@link OverrunPolicy#SICK} - also sets the Actor as sick. The Actor becomes healthy again
+ * when it stops overrunning.</li>
+ * <li>{@link OverrunPolicy#RAISEINTERVAL} - also raises Actor's check interval for the rest of
+ * the run, so the interval is a bit bigger than the usual check duration.</li>
+ * </ul>
+ */
+public final class CheckOverrunMonitor {
+
+	static final Logger logger = LoggerFactory.getLogger(CheckOverrunMonitor.class);
+
+	/** How many overruns in a row are needed to react according to the policy. */
+	public static final int OVERRUNSINAROWTOREACT = 3;
+
+	/** How much the raised interval is bigger than the 99th percentile of check duration. */
+	private static final double RAISEDINTERVALMARGIN = 1.25;
+
+	/** The lock guarding {@link #statistics} map and {@link #policy}. */
+	private static final Object lock = new Object();
+
+	/** The overrun statistics of each Actor which did checks since the last reset. */
+	private static final IdentityHashMap<Actor, OverrunStatistics> statistics =
+			new IdentityHashMap<>();
+
+	/** The current reaction on overruns. */
+	private static OverrunPolicy policy = OverrunPolicy.WARN;
+
+	private CheckOverrunMonitor() {
+	}
+
+	/**
+	 * Overrun statistics of a single {@link Actor}.
+	 */
+	public static final class OverrunStatistics {
+
+		/** The durations of Actor's checks in milliseconds. */
+		private final TimingStatistics durations = new TimingStatistics();
+
+		/** The number of checks which took longer than check interval. */
+		private long overrunCount = 0;
+
+		/** The number of overruns in a row. */
+		private int overrunsInARow = 0;
+
+		/** The message with which the monitor set the Actor as sick, null if it didn't. */
+		private String sickMessage = null;
+
+		/** The check interval in milliseconds raised by the monitor, 0 if not raised. */
+		private volatile int raisedInterval = 0;
+
+		/**
+		 * Gets the durations of Actor's checks in milliseconds.
+		 *
+		 * @return the check duration statistics
+		 */
+		public TimingStatistics getDurations() {
+			return durations;
+		}
+
+		/**
+		 * Gets the number of checks which took longer than check interval.
+		 *
+		 * @return the overrun count
+		 */
+		public synchronized long getOverrunCount() {
+			return overrunCount;
+		}
+
+		/**
+		 * Gets the check interval in milliseconds raised by the monitor.
+		 *
+		 * @return the raised check interval, 0 if the interval was not raised
+		 */
+		public int getRaisedInterval() {
+			return raisedInterval;
+		}
+
+		@Override
+		public String toString() {
+			return "overruns: " + getOverrunCount() + ", duration ms: " + durations;
+		}
+	}
+
+	/**
+	 * Reads {@link OverrunPolicy} from {@link CuteConfig}. <br>
+	 * Should be called before starting Actors.
+	 */
+	public static void loadPolicyFromConfig() {
+		String policyName = CuteConfig.getString(CuteConfig.CUTE, "CheckOverrunPolicy");
+		OverrunPolicy newPolicy;
+		try {
+			newPolicy = OverrunPolicy.valueOf(policyName.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			logger.error("Unknown check overrun policy in configuration: '" + policyName
+					+ "'. Using " + OverrunPolicy.WARN.name() + " instead.");
+			newPolicy = OverrunPolicy.WARN;
+		}
+		setPolicy(newPolicy);
+	}
+
+	/**
+	 * Sets the reaction on overruns.
+	 *
+	 * @param policy
+	 *            the {@link OverrunPolicy}
+	 */
+	public static void setPolicy(OverrunPolicy policy) {
+		if (policy == null) {
+			throw new IllegalArgumentException("Overrun policy can't be null");
+		}
+		synchronized (lock) {
+			CheckOverrunMonitor.policy = policy;
+		}
+	}
+
+	/**
+	 * Gets the reaction on overruns.
+	 *
+	 * @return the {@link OverrunPolicy}
+	 */
+	public static OverrunPolicy getPolicy() {
+		synchronized (lock) {
+			return policy;
+		}
+	}
+
+	/**
+	 * Records the duration of a single Actor's check and reacts on overruns.
+	 *
+	 * @param actor
+	 *            The Actor which did the check.
+	 * @param durationNanos
+	 *            The wall time duration of the check in nanoseconds.
+	 */
+	public static void recordCheckDuration(Actor actor, long durationNanos) {
+		OverrunStatistics stats;
+		OverrunPolicy currentPolicy;
+		synchronized (lock) {
+			stats = statistics.get(actor);
+			if (stats == null) {
+				stats = new OverrunStatistics();
+				statistics.put(actor, stats);
+			}
+			currentPolicy = policy;
+		}
+		long durationMs = durationNanos / 1000000L;
+		stats.durations.record(durationMs);
+		ElementInfo info = actor.getElementInfo();
+		synchronized (stats) {
+			// Once the interval is raised, the checks are compared with the raised interval.
+			int interval = Math.max(actor.getRuntime().getCheckInterval(),
+					stats.raisedInterval);
+			if (durationMs <= interval) {
+				stats.overrunsInARow = 0;
+				if (stats.sickMessage != null) {
+					// Let's not heal the Actor if it got sick for another reason meanwhile.
+					if (info.isSick() && stats.sickMessage.equals(info.getUnhealthyMessage())) {
+						info.setAsHealthy();
+					}
+					stats.sickMessage = null;
+				}
+				return;
+			}
+			stats.overrunCount++;
+			stats.overrunsInARow++;
+			if (stats.overrunsInARow != OVERRUNSINAROWTOREACT) {
+				return;
+			}
+			long p99 = stats.durations.getPercentile(99);
+			String message = "Checks take up to " + p99
+					+ " ms, which is longer than check interval " + interval + " ms";
+			logger.warn(info.getName() + ": " + message + ". Overruns so far: "
+					+ stats.overrunCount);
+			switch (currentPolicy) {
+			case SICK:
+				if (!info.isSick() && !info.isBroken()) {
+					stats.sickMessage = message;
+					info.setAsSick(message);
+				}
+				break;
+			case RAISEINTERVAL:
+				int raised = (int) Math.min(Integer.MAX_VALUE,
+						Math.ceil(p99 * RAISEDINTERVALMARGIN / 10.0) * 10);
+				if (raised > stats.raisedInterval) {
+					stats.raisedInterval = raised;
+					logger.info(info.getName() + ": check interval is raised to " + raised
+							+ " ms until the Project stops");
+				}
+				break;
+			case WARN:
+			default:
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Gets the check interval of the Actor raised because of overruns, see
+	 * {@link OverrunPolicy#RAISEINTERVAL}.
+	 *
+	 * @param actor
+	 *            The Actor.
+	 * @return The raised check interval in milliseconds, 0 if it's not raised.
+	 */
+	public static int getRaisedInterval(Actor actor) {
+		OverrunStatistics stats;
+		synchronized (lock) {
+			stats = statistics.get(actor);
+		}
+		return stats == null ? 0 : stats.getRaisedInterval();
+	}
+
+	/**
+	 * Gets overrun statistics of the Actor.
+	 *
+	 * @param actor
+	 *            The Actor.
+	 * @return The statistics, or null if the Actor didn't do any checks since the last reset.
+	 */
+	public static OverrunStatistics getStatistics(Actor actor) {
+		synchronized (lock) {
+			return statistics.get(actor);
+		}
+	}
+
+	/**
+	 * Forgets all statistics and raised intervals.
+	 */
+	public static void resetStatistics() {
+		synchronized (lock) {
+			statistics.clear();
+		}
+	}
+
+	/**
+	 * Logs statistics of Actors which had overruns.
+	 */
+	public static void logStatistics() {
+		synchronized (lock) {
+			for (Map.Entry<Actor, OverrunStatistics> entry : statistics.entrySet()) {
+				if (entry.getValue().getOverrunCount() != 0) {
+					logger.info("Actor '" + entry.getKey().getElementInfo().getName()
+							+ "' check overrun statistics: " + entry.getValue());
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.elements.actors;
+
+import com.ubershy.streamsis.elements.ElementInfo;
+
+/**
+ * The Enum with possible reactions of {@link CheckOverrunMonitor} on {@link Actor Actor's}
+ * checks which take longer than Actor's check interval.
+ */
+public enum OverrunPolicy {
+
+	/** Just write a warning to the log. */
+	WARN("Warn"),
+
+	/** Write a warning to the log and set the Actor as sick, see {@link ElementInfo#setAsSick}. */
+	SICK("Set as sick"),
+
+	/**
+	 * Write a warning to the log and raise Actor's check interval while the project is running.
+	 * The check interval stored in the project stays the same.
+	 */
+	RAISEINTERVAL("Raise interval");
+
+	/** The user-friendly name of the policy. */
+	private final String name;
+
+	/**
+	 * Instantiates a new OverrunPolicy.
+	 *
+	 * @param name
+	 *            The user-friendly name of the policy.
+	 */
+	private OverrunPolicy(String name) {
+		this.name = name;
+	}
+
+	/*
+	 * Returns the user-friendly name of this policy.
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -32,9 +32,6 @@ import com.ubershy.streamsis.elements.actions.Action;
 import com.ubershy.streamsis.elements.checkers.Checker;
 import com.ubershy.streamsis.project.CuteProject;
 
-import javafx.application.Platform;
-import javafx.concurrent.Worker.State;
-
 /** The main implementation of {@link Actor} that is used in {@link StreamSis}. */
 public class UniversalActor extends AbstractActor implements Actor {
 	
@@ -144,8 +141,9 @@ public class UniversalActor extends AbstractActor implements Actor {
 	public void checkAndAct() {
 		// Actor breaks during init() if checker is found broken.
 		// So if this method executes, we can assume that the checker is not broken.
-		boolean state = checkers.get(0).check();
-		if (checkers.get(0).getElementInfo().isBroken()) { // broke during execution
+		Checker checker = runtime.getChecker();
+		boolean state = checker.check();
+		if (checker.getElementInfo().isBroken()) { // broke during execution
 			this.stop();
 			elementInfo.setAsBroken("Checker broke during execution. "
 					+ "The Actor was stopped and set as broken for safety");
@@ -155,15 +153,8 @@ public class UniversalActor extends AbstractActor implements Actor {
 			logger.info(elementInfo.getName() + ": Target aquired!");
 			runEnable();
 			isSwitchOn.set(true);
-			if (getSleepOnSuccessDuration() > 0) {
-				logger.info("Sleeping after success check result for " + getSleepOnSuccessDuration()
-						+ " milliseconds.");
-				try {
-					Thread.sleep(getSleepOnSuccessDuration());
-				} catch (InterruptedException e) {
-					logger.debug("Sleep after success check result was interrupted.");
-				}
-			}
+			// The sleep after success is done by ActorCheckerService, so the Actor doesn't
+			// occupy ActorCheckScheduler's slot while sleeping.
 		} else if (isSwitchOn.get() && !state) {
 			logger.info(elementInfo.getName() + ": Target lost!");
 			runDisable();
@@ -216,59 +207,45 @@ public class UniversalActor extends AbstractActor implements Actor {
 				}
 			}
 		}
+		runtime = ActorRuntime.compile(this);
 	}
 
 	/**
 	 * Starts Off Actions service and stops On Actions service.
 	 */
 	protected void runDisable() {
-		Platform.runLater(() -> {
-			onRepeatingService.cancel();
-			if (!offActions.isEmpty()) {
-				if (offRepeatingService.getState() == State.READY) {
-					offRepeatingService.start();
-				} else {
-					offRepeatingService.restart();
-				}
-			}
-		});
+		onRepeatingService.cancel();
+		if (runtime.getOffActionsCount() != 0) {
+			offRepeatingService.start();
+		}
 	}
 
 	/**
 	 * Starts On Actions service and stops Off Actions service.
 	 */
 	protected void runEnable() {
-		Platform.runLater(() -> {
-			offRepeatingService.cancel();
-			if (!onActions.isEmpty()) {
-				if (onRepeatingService.getState() == State.READY) {
-					onRepeatingService.start();
-				} else {
-					onRepeatingService.restart();
-				}
-			}
-		});
+		offRepeatingService.cancel();
+		if (runtime.getOnActionsCount() != 0) {
+			onRepeatingService.start();
+		}
 	}
 
 	@Override
 	public void start() {
-		Platform.runLater(() -> {
-			if (actorCheckerService.getState() == State.READY) {
-				actorCheckerService.start();
-			} else {
-				actorCheckerService.restart();
-			}
-		});
+		actorCheckerService.start();
 	}
 
 	@Override
 	public void stop() {
-		Platform.runLater(() -> {
-			actorCheckerService.cancel();
-			onRepeatingService.cancel();
-			offRepeatingService.cancel();
-			isSwitchOn.set(false); // reset SwitchOn
-		});
+		actorCheckerService.cancel();
+		onRepeatingService.cancel();
+		offRepeatingService.cancel();
+		isSwitchOn.set(false); // reset SwitchOn
+	}
+
+	@Override
+	public void resetRuntimeState() {
+		isSwitchOn.set(false);
 	}
 
 }
@@ -17,6 +17,8 @@
  */
 package com.ubershy.streamsis.elements.checkers;
 
+import java.util.Set;
+
 import com.ubershy.streamsis.UserVars;
 import com.ubershy.streamsis.elements.CuteElement;
 import com.ubershy.streamsis.elements.actions.Action;
@@ -47,4 +49,17 @@ public interface Checker extends CuteElement {
 	 */
 	public boolean check();
 
+	/**
+	 * Finds the names of variables in {@link UserVars} the result of {@link #check()} depends on.
+	 * <br>
+	 * If the result depends only on these variables, {@link Actor} doesn't need to poll this
+	 * Checker regularly. It's enough to check when one of these variables changes.
+	 *
+	 * @return the names of variables, or null if the result depends on something else and the
+	 *         Checker must be polled.
+	 */
+	public default Set<String> findWatchedVariables() {
+		return null;
+	}
+
 }
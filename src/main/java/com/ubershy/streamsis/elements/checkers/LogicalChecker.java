@@ -19,6 +19,8 @@ package com.ubershy.streamsis.elements.checkers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -157,6 +159,26 @@ public class LogicalChecker extends AbstractCuteElement implements Checker {
 	private SimpleObjectProperty<BooleanOperator> operator = new SimpleObjectProperty<LogicalChecker.BooleanOperator>(
 			BooleanOperator.NOT);
 
+	/**
+	 * The Checkers and the Boolean Operator compiled on {@link #init()}. <br>
+	 * Published as a whole, so {@link #check()} never sees Checkers from one {@link #init()} and
+	 * the operator from another.
+	 */
+	@JsonIgnore
+	private volatile RuntimeSnapshot runtime = new RuntimeSnapshot(new Checker[0],
+			BooleanOperator.NOT);
+
+	/** The immutable runtime state of LogicalChecker compiled on {@link #init()}. */
+	private static final class RuntimeSnapshot {
+		final Checker[] checkers;
+		final BooleanOperator operator;
+
+		RuntimeSnapshot(Checker[] checkers, BooleanOperator operator) {
+			this.checkers = checkers;
+			this.operator = operator;
+		}
+	}
+
 	public LogicalChecker() {
 	}
 
@@ -214,18 +236,19 @@ public class LogicalChecker extends AbstractCuteElement implements Checker {
 		boolean result = false;
 		if (elementInfo.canWork()) {
 			elementInfo.setAsWorking();
-			switch (operator.get()) {
+			RuntimeSnapshot current = runtime;
+			switch (current.operator) {
 			case NOT:
-				result = getNOTResult();
+				result = getNOTResult(current.checkers);
 				break;
 			case AND:
-				result = getANDResult();
+				result = getANDResult(current.checkers);
 				break;
 			case OR:
-				result = getORResult();
+				result = getORResult(current.checkers);
 				break;
 			case XOR:
-				result = getXORResult();
+				result = getXORResult(current.checkers);
 				break;
 			}
 			elementInfo.setBooleanResult(result);
@@ -233,14 +256,33 @@ public class LogicalChecker extends AbstractCuteElement implements Checker {
 		return result;
 	}
 
+	@Override
+	public Set<String> findWatchedVariables() {
+		Checker[] runtimeCheckers = runtime.checkers;
+		if (runtimeCheckers.length == 0)
+			return null;
+		Set<String> result = new HashSet<String>();
+		for (Checker checker : runtimeCheckers) {
+			Set<String> childVariables = checker.findWatchedVariables();
+			if (childVariables == null) {
+				// At least one of the Checkers needs polling, so this Checker needs it too.
+				return null;
+			}
+			result.addAll(childVariables);
+		}
+		return result;
+	}
+
 	/**
 	 * Gets AND result.
 	 *
+	 * @param runtimeCheckers
+	 *            the Checkers compiled on {@link #init()}
 	 * @return the AND result
 	 */
-	private boolean getANDResult() {
+	private boolean getANDResult(Checker[] runtimeCheckers) {
 		boolean result = false;
-		for (Checker checker : checkers) {
+		for (Checker checker : runtimeCheckers) {
 			result = checker.check();
 			if (!result)
 				break;
@@ -279,20 +321,24 @@ public class LogicalChecker extends AbstractCuteElement implements Checker {
 	/**
 	 * Gets NOT result.
 	 *
+	 * @param runtimeCheckers
+	 *            the Checkers compiled on {@link #init()}
 	 * @return the NOT result
 	 */
-	private boolean getNOTResult() {
-		return !checkers.get(0).check();
+	private boolean getNOTResult(Checker[] runtimeCheckers) {
+		return !runtimeCheckers[0].check();
 	}
 
 	/**
 	 * Gets OR result.
 	 *
+	 * @param runtimeCheckers
+	 *            the Checkers compiled on {@link #init()}
 	 * @return the OR result
 	 */
-	private boolean getORResult() {
+	private boolean getORResult(Checker[] runtimeCheckers) {
 		boolean result = false;
-		for (Checker checker : checkers) {
+		for (Checker checker : runtimeCheckers) {
 			result = checker.check();
 			if (result)
 				break;
@@ -303,10 +349,12 @@ public class LogicalChecker extends AbstractCuteElement implements Checker {
 	/**
 	 * Gets XOR result.
 	 *
+	 * @param runtimeCheckers
+	 *            the Checkers compiled on {@link #init()}
 	 * @return the XOR result
 	 */
-	private boolean getXORResult() {
-		return checkers.get(0).check() ^ checkers.get(1).check();
+	private boolean getXORResult(Checker[] runtimeCheckers) {
+		return runtimeCheckers[0].check() ^ runtimeCheckers[1].check();
 	}
 
 	@Override
@@ -317,6 +365,7 @@ public class LogicalChecker extends AbstractCuteElement implements Checker {
 		if (operatorIsBrokenMessage != null) {
 			elementInfo.setAsBroken(operatorIsBrokenMessage);
 		}
+		runtime = new RuntimeSnapshot(checkers.toArray(new Checker[0]), operator.get());
 	}
 
 	/**
@@ -17,6 +17,9 @@
  */
 package com.ubershy.streamsis.elements.checkers;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +62,25 @@ public class VariableChecker extends AbstractCuteElement implements Checker {
 	public String getKey() {return key.get();}
 	public void setKey(String key) {this.key.set(key);}
 
+	/**
+	 * The variable to check and the value to expect compiled on {@link #init()}. <br>
+	 * Published as a whole, so {@link #check()} never sees the variable from one {@link #init()}
+	 * and the value from another.
+	 */
+	@JsonIgnore
+	private volatile RuntimeSnapshot runtime = new RuntimeSnapshot("", "");
+
+	/** The immutable runtime state of VariableChecker compiled on {@link #init()}. */
+	private static final class RuntimeSnapshot {
+		final String key;
+		final String expectedValue;
+
+		RuntimeSnapshot(String key, String expectedValue) {
+			this.key = key;
+			this.expectedValue = expectedValue;
+		}
+	}
+
 	/** The variable for storing previous result. Helps to prevent spamming to log. */
 	@JsonIgnore
 	private boolean previousResult = false;
@@ -86,17 +108,20 @@ public class VariableChecker extends AbstractCuteElement implements Checker {
 		boolean result = false;
 		if (elementInfo.canWork()) {
 			elementInfo.setAsWorking();
-			String currentValue = UserVars.get(key.get());
-			if (expectedValue.get().equalsIgnoreCase(currentValue)) {
+			RuntimeSnapshot current = runtime;
+			String runtimeKey = current.key;
+			String runtimeExpectedValue = current.expectedValue;
+			String currentValue = UserVars.get(runtimeKey);
+			if (runtimeExpectedValue.equalsIgnoreCase(currentValue)) {
 				if (!previousResult) {
-					logger.info("Variable: '" + key.get() + "' EQUALS expected Value: '"
-							+ expectedValue.get() + "'");
+					logger.info("Variable: '" + runtimeKey + "' EQUALS expected Value: '"
+							+ runtimeExpectedValue + "'");
 				}
 				result = true;
 			} else {
 				if (previousResult) {
-					logger.info("Variable: '" + key.get() + "' NOT EQUALS expected Value: '"
-							+ expectedValue.get() + "'. Current Value: '" + currentValue + "'");
+					logger.info("Variable: '" + runtimeKey + "' NOT EQUALS expected Value: '"
+							+ runtimeExpectedValue + "'. Current Value: '" + currentValue + "'");
 				}
 			}
 			elementInfo.setBooleanResult(result);
@@ -105,6 +130,11 @@ public class VariableChecker extends AbstractCuteElement implements Checker {
 		return result;
 	}
 
+	@Override
+	public Set<String> findWatchedVariables() {
+		return Collections.singleton(runtime.key);
+	}
+
 	@Override
 	public void init() {
 		super.init();
@@ -112,6 +142,13 @@ public class VariableChecker extends AbstractCuteElement implements Checker {
 			elementInfo.setAsBroken("Variable name is empty");
 		if (expectedValue.get() == null)
 			throw new RuntimeException("Expected value can't be set to null.");
+		runtime = new RuntimeSnapshot(key.get(), expectedValue.get());
+		resetRuntimeState();
+	}
+
+	@Override
+	public void resetRuntimeState() {
+		previousResult = false;
 	}
 
 }
@@ -130,6 +130,31 @@ public abstract class AbstractRelationToNumberChecker extends AbstractCuteElemen
 	@Override
 	public void setOperator(BooleanNumberOperator operator) {this.operator.set(operator);}
 	
+	/**
+	 * The contained {@link Counter}, the operator and the compare number compiled on
+	 * {@link #init()}. <br>
+	 * Published as a whole, so subclasses never see values from different {@link #init()} calls.
+	 */
+	@JsonIgnore
+	protected volatile RuntimeSnapshot runtime = new RuntimeSnapshot(null,
+			BooleanNumberOperator.EQUAL, 0);
+
+	/** The immutable runtime state of the Checker compiled on {@link #init()}. */
+	protected static final class RuntimeSnapshot {
+		/** The contained {@link Counter}. */
+		final Counter counter;
+		/** The operator. */
+		final BooleanNumberOperator operator;
+		/** The compare number. */
+		final int compareNumber;
+
+		RuntimeSnapshot(Counter counter, BooleanNumberOperator operator, int compareNumber) {
+			this.counter = counter;
+			this.operator = operator;
+			this.compareNumber = compareNumber;
+		}
+	}
+
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@JsonIgnore
 	@Override
@@ -158,6 +183,8 @@ public abstract class AbstractRelationToNumberChecker extends AbstractCuteElemen
 	@Override
 	public void init() {
 		super.init();
+		runtime = new RuntimeSnapshot(counter.isEmpty() ? null : counter.get(0), operator.get(),
+				compareNumber.get());
 	}
 	
 	@JsonIgnore
@@ -103,25 +103,27 @@ public class RelationToConstantNumberChecker extends AbstractRelationToNumberChe
 		boolean result = false;
 		if (elementInfo.canWork()) {
 			elementInfo.setAsWorking();
-			int count = counter.get(0).count();
-			switch (operator.get()) {
+			RuntimeSnapshot current = runtime;
+			int runtimeCompareNumber = current.compareNumber;
+			int count = current.counter.count();
+			switch (current.operator) {
 			case GREATER:
-				result = (count > compareNumber.get());
+				result = (count > runtimeCompareNumber);
 				break;
 			case LESS:
-				result = (count < compareNumber.get());
+				result = (count < runtimeCompareNumber);
 				break;
 			case EQUAL:
-				result = (count == compareNumber.get());
+				result = (count == runtimeCompareNumber);
 				break;
 			case NOTEQUAL:
-				result = (count != compareNumber.get());
+				result = (count != runtimeCompareNumber);
 				break;
 			case LESSOREQUAL:
-				result = (count <= compareNumber.get());
+				result = (count <= runtimeCompareNumber);
 				break;
 			case GREATEROREQUAL:
-				result = (count >= compareNumber.get());
+				result = (count >= runtimeCompareNumber);
 				break;
 			}
 			elementInfo.setBooleanResult(result);
@@ -107,8 +107,9 @@ public class RelationToPreviousNumberChecker extends AbstractRelationToNumberChe
 		boolean result = false;
 		if (elementInfo.canWork()) {
 			elementInfo.setAsWorking();
-			int count = counter.get(0).count();
-			switch (operator.get()) {
+			RuntimeSnapshot current = runtime;
+			int count = current.counter.count();
+			switch (current.operator) {
 			case GREATER:
 				result = (count > previousResult);
 				break;
@@ -140,7 +141,12 @@ public class RelationToPreviousNumberChecker extends AbstractRelationToNumberChe
 		if (elementInfo.isBroken()) {
 			return; // Already broken by super.init()
 		}
-		previousResult = compareNumber.get();
+		resetRuntimeState();
+	}
+
+	@Override
+	public void resetRuntimeState() {
+		previousResult = runtime.compareNumber;
 	}
 
 }
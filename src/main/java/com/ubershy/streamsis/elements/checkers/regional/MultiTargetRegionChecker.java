@@ -34,6 +34,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ubershy.streamsis.Util;
 import com.ubershy.streamsis.elements.AbstractCuteElement;
+import com.ubershy.streamsis.elements.AssetHolder;
 import com.ubershy.streamsis.elements.checkers.Checker;
 import com.ubershy.streamsis.elements.helpers.Coordinates;
 import com.ubershy.streamsis.elements.helpers.MultiSourceFileLister;
@@ -55,7 +56,7 @@ import javafx.beans.property.SimpleObjectProperty;
  * When it's {@link #useANDOperator} is <b>false</b> this {@link Checker} will return true on
  * {@link #check()} if <b>at least one</b> of the targets is found within the region. <br>
  */
-public class MultiTargetRegionChecker extends AbstractCuteElement implements Checker {
+public class MultiTargetRegionChecker extends AbstractCuteElement implements Checker, AssetHolder {
 	
 	/** The description of this CuteElement type. */
 	public final static String description = MultiTargetRegionChecker.class.getSimpleName()
@@ -87,9 +88,24 @@ public class MultiTargetRegionChecker extends AbstractCuteElement implements Che
 	public float getSimilarity() {return similarity.get();}
 	public void setSimilarity(float similarity) {this.similarity.set(similarity);}
 
-	/** The targetPatterns {@link org.sikuli.script.Pattern Patterns} to internally work with. */
+	/**
+	 * The targetPatterns {@link org.sikuli.script.Pattern Patterns} to internally work with. <br>
+	 * Null when the assets are unloaded.
+	 */
+	@JsonIgnore
+	protected volatile ArrayList<Pattern> targets;
+
+	/** The paths of Target image files used during the last {@link #init()}. */
+	@JsonIgnore
+	protected volatile String[] runtimeTargetPaths;
+
+	/** The similarity used during the last {@link #init()}. */
+	@JsonIgnore
+	protected volatile float runtimeSimilarity;
+
+	/** The approximate size of {@link #targets} in memory. */
 	@JsonIgnore
-	protected ArrayList<Pattern> targets;
+	protected volatile long residentAssetBytes = 0;
 
 	/**
 	 * If true, use AND operator(find all Target Images), else - OR operator (find at least one
@@ -205,16 +221,17 @@ public class MultiTargetRegionChecker extends AbstractCuteElement implements Che
 			Screen screen = (Screen) coords.get().getRegion().getScreen();
 			ScreenImage screenImage = screen.capture(coords.get().getRegion());
 			finder.resetImage(new Image(screenImage));
+			ArrayList<Pattern> loadedTargets = getLoadedTargets();
 			if (useANDOperator.get() == true) { // AND operator
 				result = true;
-				for (Pattern p : targets) {
+				for (Pattern p : loadedTargets) {
 					finder.find(p);
 					result = result && finder.hasNext();
 					if (result == false)
 						break;
 				}
 			} else { // OR operator
-				for (Pattern p : targets) {
+				for (Pattern p : loadedTargets) {
 					finder.find(p);
 					result = result || finder.hasNext();
 					if (result == true)
@@ -229,6 +246,8 @@ public class MultiTargetRegionChecker extends AbstractCuteElement implements Che
 	@Override
 	public void init() {
 		super.init();
+		unloadAssets();
+		runtimeTargetPaths = null;
 		coords.get().initRegion(elementInfo);
 		if (elementInfo.isBroken()) {
 			// already broken by coords.get().initRegion();
@@ -244,11 +263,59 @@ public class MultiTargetRegionChecker extends AbstractCuteElement implements Che
 			return;
 		}
 		ReadOnlyListProperty<File> targetsList = fileLister.get().getTemporarySourceFileList();
-		targets = new ArrayList<Pattern>(targetsList.size());
-		for (File f : targetsList) {
-			Image.unCacheBundledImage(f.getAbsolutePath());
-			targets.add(new Pattern(f.toString()).similar(similarity.get()));
+		String[] targetPaths = new String[targetsList.size()];
+		for (int i = 0; i < targetPaths.length; i++) {
+			targetPaths[i] = targetsList.get(i).getAbsolutePath();
+		}
+		runtimeTargetPaths = targetPaths;
+		runtimeSimilarity = similarity.get();
+		loadAssets();
+	}
+
+	/**
+	 * Gets the {@link #targets}, loading them if they were unloaded.
+	 *
+	 * @return the target Patterns
+	 */
+	protected ArrayList<Pattern> getLoadedTargets() {
+		ArrayList<Pattern> loadedTargets = targets;
+		if (loadedTargets == null) {
+			loadAssets();
+			loadedTargets = targets;
 		}
+		return loadedTargets;
+	}
+
+	@Override
+	public synchronized void loadAssets() {
+		if (targets != null || runtimeTargetPaths == null || elementInfo.isBroken())
+			return;
+		ArrayList<Pattern> loadedTargets = new ArrayList<Pattern>(runtimeTargetPaths.length);
+		long bytes = 0;
+		for (String path : runtimeTargetPaths) {
+			Pattern pattern = Util.loadSikulixPattern(path, runtimeSimilarity);
+			bytes += Util.estimateSikulixPatternBytes(pattern);
+			loadedTargets.add(pattern);
+		}
+		residentAssetBytes = bytes;
+		targets = loadedTargets;
+	}
+
+	@Override
+	public synchronized void unloadAssets() {
+		if (targets == null)
+			return;
+		targets = null;
+		residentAssetBytes = 0;
+		for (String path : runtimeTargetPaths) {
+			Util.unloadSikulixImage(path);
+		}
+	}
+
+	@JsonIgnore
+	@Override
+	public long getResidentAssetBytes() {
+		return residentAssetBytes;
 	}
 
 }
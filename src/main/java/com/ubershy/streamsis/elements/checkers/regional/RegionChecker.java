@@ -17,7 +17,8 @@
  */
 package com.ubershy.streamsis.elements.checkers.regional;
 
-import org.sikuli.script.Image;
+import java.awt.Dimension;
+
 import org.sikuli.script.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +28,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ubershy.streamsis.Util;
 import com.ubershy.streamsis.elements.AbstractCuteElement;
+import com.ubershy.streamsis.elements.AssetHolder;
 import com.ubershy.streamsis.elements.checkers.Checker;
 import com.ubershy.streamsis.elements.helpers.Coordinates;
 
@@ -49,7 +51,7 @@ import javafx.collections.ObservableList;
  * "0.5" - everything that slightly reminds the targetPattern image. <br>
  * "0" - everything.
  */
-public class RegionChecker extends AbstractCuteElement implements Checker {
+public class RegionChecker extends AbstractCuteElement implements Checker, AssetHolder {
 
 	static final Logger logger = LoggerFactory.getLogger(RegionChecker.class);
 	
@@ -90,8 +92,24 @@ public class RegionChecker extends AbstractCuteElement implements Checker {
 		this.targetImagePath.set(targetImagePath);
 	}
 
-	/** The target {@link org.sikuli.script.Pattern Pattern} to internally work with. */
-	protected Pattern targetPattern;
+	/**
+	 * The target {@link org.sikuli.script.Pattern Pattern} to internally work with. <br>
+	 * Null when the assets are unloaded.
+	 */
+	@JsonIgnore
+	protected volatile Pattern targetPattern;
+
+	/** The path of target image used during the last {@link #init()}. */
+	@JsonIgnore
+	protected volatile String runtimeTargetImagePath;
+
+	/** The similarity used during the last {@link #init()}. */
+	@JsonIgnore
+	protected volatile float runtimeSimilarity;
+
+	/** The approximate size of {@link #targetPattern} in memory. */
+	@JsonIgnore
+	protected volatile long residentAssetBytes = 0;
 	
 	/**
 	 * The acceptable extensions of image files.
@@ -138,7 +156,7 @@ public class RegionChecker extends AbstractCuteElement implements Checker {
 			// if (Util.debugMode) {
 			// coords.highlightRegion();
 			// }
-			result = (coords.getRegion().exists(targetPattern, 0) != null);
+			result = (coords.getRegion().exists(getLoadedTargetPattern(), 0) != null);
 			elementInfo.setBooleanResult(result);
 		}
 		return result;
@@ -147,7 +165,8 @@ public class RegionChecker extends AbstractCuteElement implements Checker {
 	@Override
 	public void init() {
 		super.init();
-		targetPattern = null;
+		unloadAssets();
+		runtimeTargetImagePath = null;
 		coords.initRegion(elementInfo);
 		if (elementInfo.isBroken()) {
 			// already broken by coords.initRegion();
@@ -171,19 +190,65 @@ public class RegionChecker extends AbstractCuteElement implements Checker {
 					.setAsBroken("Can't find or read Target image file: " + targetImagePath.get());
 			return;
 		}
-		Image.unCacheBundledImage(targetImagePath.get());
-		targetPattern = new Pattern(targetImagePath.get()).similar(similarity.get());
-		Image image = targetPattern.getImage();
-		if (image.getSize().getWidth() > coords.getW()) {
+		runtimeTargetImagePath = targetImagePath.get();
+		runtimeSimilarity = similarity.get();
+		Pattern pattern = getLoadedTargetPattern();
+		if (pattern == null) {
+			// already broken
+			return;
+		}
+		Dimension imageSize;
+		synchronized (Util.sikulixImageCacheLock) {
+			imageSize = pattern.getImage().getSize();
+		}
+		if (imageSize.getWidth() > coords.getW()) {
 			elementInfo.setAsBroken(
 					"Target image's width should be smaller than width of specified Region");
 			return;
 		}
-		if (image.getSize().getHeight() > coords.getH()) {
+		if (imageSize.getHeight() > coords.getH()) {
 			elementInfo.setAsBroken(
 					"Target image's height should be smaller than height of specified Region");
 			return;
 		}
 	}
 
+	/**
+	 * Gets the {@link #targetPattern}, loading it if it was unloaded.
+	 *
+	 * @return the target Pattern
+	 */
+	protected Pattern getLoadedTargetPattern() {
+		Pattern pattern = targetPattern;
+		if (pattern == null) {
+			loadAssets();
+			pattern = targetPattern;
+		}
+		return pattern;
+	}
+
+	@Override
+	public synchronized void loadAssets() {
+		if (targetPattern != null || runtimeTargetImagePath == null || elementInfo.isBroken())
+			return;
+		Pattern pattern = Util.loadSikulixPattern(runtimeTargetImagePath, runtimeSimilarity);
+		residentAssetBytes = Util.estimateSikulixPatternBytes(pattern);
+		targetPattern = pattern;
+	}
+
+	@Override
+	public synchronized void unloadAssets() {
+		if (targetPattern == null)
+			return;
+		targetPattern = null;
+		residentAssetBytes = 0;
+		Util.unloadSikulixImage(runtimeTargetImagePath);
+	}
+
+	@JsonIgnore
+	@Override
+	public long getResidentAssetBytes() {
+		return residentAssetBytes;
+	}
+
 }
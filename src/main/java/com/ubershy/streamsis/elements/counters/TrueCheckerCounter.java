@@ -51,6 +51,10 @@ public class TrueCheckerCounter extends AbstractCuteElement implements Counter {
 	@JsonProperty
 	private final ObservableList<Checker> checkers = FXCollections.observableArrayList();
 
+	/** The checkers compiled on {@link #init()}. */
+	@JsonIgnore
+	private volatile Checker[] runtimeCheckers = new Checker[0];
+
 	public TrueCheckerCounter() {
 	}
 
@@ -68,6 +72,7 @@ public class TrueCheckerCounter extends AbstractCuteElement implements Counter {
 	@Override
 	public void init() {
 		super.init();
+		runtimeCheckers = checkers.toArray(new Checker[0]);
 	}
 
 	@Override
@@ -75,7 +80,7 @@ public class TrueCheckerCounter extends AbstractCuteElement implements Counter {
 		int result = 0;
 		if (elementInfo.canWork()) {
 			elementInfo.setAsWorking();
-			for (Checker checker : checkers) {
+			for (Checker checker : runtimeCheckers) {
 				if (checker.check())
 					result++;
 			}
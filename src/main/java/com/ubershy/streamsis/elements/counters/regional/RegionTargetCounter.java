@@ -17,11 +17,11 @@
  */
 package com.ubershy.streamsis.elements.counters.regional;
 
+import java.awt.Dimension;
 import java.util.Iterator;
 import java.util.List;
 
 import org.sikuli.script.FindFailed;
-import org.sikuli.script.Image;
 import org.sikuli.script.Match;
 import org.sikuli.script.Pattern;
 import org.slf4j.Logger;
@@ -32,6 +32,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ubershy.streamsis.Util;
 import com.ubershy.streamsis.elements.AbstractCuteElement;
+import com.ubershy.streamsis.elements.AssetHolder;
 import com.ubershy.streamsis.elements.counters.Counter;
 import com.ubershy.streamsis.elements.helpers.Coordinates;
 
@@ -47,7 +48,7 @@ import javafx.beans.property.StringProperty;
  * For example, it can count how many shortcuts the user have on his OS desktop by finding all
  * instances of shortcut arrow image.
  */
-public class RegionTargetCounter extends AbstractCuteElement implements Counter {
+public class RegionTargetCounter extends AbstractCuteElement implements Counter, AssetHolder {
 	// TODO: fix duplicate code shared with RegionChecker.
 	
 	/** The description of this CuteElement type. */
@@ -89,8 +90,24 @@ public class RegionTargetCounter extends AbstractCuteElement implements Counter
 		this.targetImagePath.set(targetImagePath);
 	}
 
-	/** The target {@link org.sikuli.script.Pattern Pattern} to internally work with. */
-	protected Pattern targetPattern;
+	/**
+	 * The target {@link org.sikuli.script.Pattern Pattern} to internally work with. <br>
+	 * Null when the assets are unloaded.
+	 */
+	@JsonIgnore
+	protected volatile Pattern targetPattern;
+
+	/** The path of target image used during the last {@link #init()}. */
+	@JsonIgnore
+	protected volatile String runtimeTargetImagePath;
+
+	/** The similarity used during the last {@link #init()}. */
+	@JsonIgnore
+	protected volatile float runtimeSimilarity;
+
+	/** The approximate size of {@link #targetPattern} in memory. */
+	@JsonIgnore
+	protected volatile long residentAssetBytes = 0;
 	
 	/**
 	 * The acceptable extensions of image files.
@@ -134,7 +151,7 @@ public class RegionTargetCounter extends AbstractCuteElement implements Counter
 			elementInfo.setAsWorking();
 			Iterator<Match> matchResult = null;
 			try {
-				matchResult = coords.getRegion().findAll(targetPattern);
+				matchResult = coords.getRegion().findAll(getLoadedTargetPattern());
 			} catch (FindFailed notImportant) {
 				// Really, it's not that important. =)
 			}
@@ -149,6 +166,8 @@ public class RegionTargetCounter extends AbstractCuteElement implements Counter
 	@Override
 	public void init() {
 		super.init();
+		unloadAssets();
+		runtimeTargetImagePath = null;
 		coords.initRegion(elementInfo);
 		if (elementInfo.isBroken()) {
 			// already broken by coords.initRegion();
@@ -167,19 +186,65 @@ public class RegionTargetCounter extends AbstractCuteElement implements Counter
 					.setAsBroken("Can't find or read Target image file: " + targetImagePath.get());
 			return;
 		}
-		Image.unCacheBundledImage(targetImagePath.get());
-		targetPattern = new Pattern(targetImagePath.get()).similar(similarity.get());
-		Image image = targetPattern.getImage();
-		if (image.getSize().getWidth() > coords.getW()) {
+		runtimeTargetImagePath = targetImagePath.get();
+		runtimeSimilarity = similarity.get();
+		Pattern pattern = getLoadedTargetPattern();
+		if (pattern == null) {
+			// already broken
+			return;
+		}
+		Dimension imageSize;
+		synchronized (Util.sikulixImageCacheLock) {
+			imageSize = pattern.getImage().getSize();
+		}
+		if (imageSize.getWidth() > coords.getW()) {
 			elementInfo.setAsBroken(
 					"Target image's width should be smaller than width of specified Region");
 			return;
 		}
-		if (image.getSize().getHeight() > coords.getH()) {
+		if (imageSize.getHeight() > coords.getH()) {
 			elementInfo.setAsBroken(
 					"Target image's height should be smaller than height of specified Region");
 			return;
 		}
 	}
 
+	/**
+	 * Gets the {@link #targetPattern}, loading it if it was unloaded.
+	 *
+	 * @return the target Pattern
+	 */
+	protected Pattern getLoadedTargetPattern() {
+		Pattern pattern = targetPattern;
+		if (pattern == null) {
+			loadAssets();
+			pattern = targetPattern;
+		}
+		return pattern;
+	}
+
+	@Override
+	public synchronized void loadAssets() {
+		if (targetPattern != null || runtimeTargetImagePath == null || elementInfo.isBroken())
+			return;
+		Pattern pattern = Util.loadSikulixPattern(runtimeTargetImagePath, runtimeSimilarity);
+		residentAssetBytes = Util.estimateSikulixPatternBytes(pattern);
+		targetPattern = pattern;
+	}
+
+	@Override
+	public synchronized void unloadAssets() {
+		if (targetPattern == null)
+			return;
+		targetPattern = null;
+		residentAssetBytes = 0;
+		Util.unloadSikulixImage(runtimeTargetImagePath);
+	}
+
+	@JsonIgnore
+	@Override
+	public long getResidentAssetBytes() {
+		return residentAssetBytes;
+	}
+
 }
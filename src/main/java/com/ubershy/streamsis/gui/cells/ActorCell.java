@@ -203,8 +203,9 @@ public class ActorCell extends ListCell<Actor> {
 		// Let's set heart's initial view
 		refreshLook(actorStarted, isSwitchOnProperty.get(), checkIntervalProperty.get(),
 				elementHealthProperty.get());
+		// The state is always updated on JavaFX Application Thread by ElementStatePulse.
 		ChangeListener<ElementState> elementStateListener = (observableValue, oldElementState,
-				newElementState) -> Platform.runLater(() -> {
+				newElementState) -> {
 					boolean isActorStartedNow = findIfActorStarted(newElementState);
 					if (actorStarted != isActorStartedNow) {
 						// Things have changed, need to update heart look.
@@ -223,7 +224,7 @@ public class ActorCell extends ListCell<Actor> {
 					default:
 						break;
 					}
-				});
+				};
 		ChangeListener<ElementHealth> elementHealthListener = (observableValue, oldElementHealth,
 				newElementHealth) -> Platform.runLater(() -> {
 					synchronized (heartImageView) {
@@ -185,10 +185,9 @@ public class CuteTreeCell extends TreeCell<CuteElement> {
 				newElementHealth) -> Platform.runLater(() -> {
 					refreshTextColorBasedOnHealth(newElementHealth);
 				});
+		// The last result is always updated on JavaFX Application Thread by ElementStatePulse.
 		ChangeListener<Result<?>> lastResultListener = (observableValue, oldResult,
-				newResult) -> Platform.runLater(() -> {
-					refreshResultIconBasedOnResult(newResult);
-				});
+				newResult) -> refreshResultIconBasedOnResult(newResult);
 		elementHealthProperty.addListener(elementHealthListener);
 		lastResultProperty.addListener(lastResultListener);
 		setOnMouseClicked(event -> GUIManager.elementEditor.setCurrentElement(getItem()));
@@ -40,6 +40,7 @@ import com.ubershy.streamsis.elements.counters.Counter;
 import com.ubershy.streamsis.gui.cells.CuteTreeCell;
 import com.ubershy.streamsis.gui.helperclasses.GUIUtil;
 import com.ubershy.streamsis.project.ProjectManager;
+import com.ubershy.streamsis.project.SisSceneAssetManager;
 
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -95,6 +96,7 @@ public class TreeContextMenuBuilder {
 				if (!list.isEmpty()) {
 					if (list.contains(cuteElement)) {
 						list.remove(cuteElement);
+						SisSceneAssetManager.unloadAssetsOfElementTree(cuteElement);
 						// Initialize whole project to reinitialize any parents that might get
 						// broken.
 						ProjectManager.initProjectFromGUI();
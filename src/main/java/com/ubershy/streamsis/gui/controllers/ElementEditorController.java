@@ -41,6 +41,7 @@ import com.ubershy.streamsis.gui.animations.ThreeDotsAnimation;
 import com.ubershy.streamsis.gui.controllers.editor.CommonElementFieldsController;
 import com.ubershy.streamsis.gui.controllers.editor.CuteElementController;
 import com.ubershy.streamsis.gui.helperclasses.CuteButtonsStatesManager;
+import com.ubershy.streamsis.project.SisSceneAssetManager;
 import com.ubershy.streamsis.project.StuffSerializator;
 
 import de.jensd.fx.glyphs.fontawesome.FontAwesomeIcon;
@@ -428,8 +429,8 @@ public class ElementEditorController implements Initializable {
 		} else {
 			// Other CuteElements can be edited and serialized.
 			try {
-				elementWorkingCopy = (CuteElement) StuffSerializator
-						.makeACopyOfObjectUsingSerialization(currentElement);
+				elementWorkingCopy = StuffSerializator
+						.makeACopyOfObjectUsingTokenBuffer(currentElement);
 			} catch (IOException e) {
 				throw new RuntimeException(e.getMessage());
 			}
@@ -494,6 +495,11 @@ public class ElementEditorController implements Initializable {
 		nameLabel.textProperty().unbind();
 		elementHealthProperty.unbind();
 		whyUnhealthyProperty.unbind();
+		// Not editable CuteElements are edited without making a copy, see connectToCuteElement().
+		if (elementWorkingCopy != null && elementWorkingCopy.getElementInfo().isEditable()) {
+			// The copy is thrown away, so its assets must not stay in use.
+			SisSceneAssetManager.unloadAssetsOfElementTree(elementWorkingCopy);
+		}
 		elementWorkingCopy = null;
 		buttonStateManager.allowOrNotPerformTestButtonBasedOnElementClass(null);
 	}
@@ -564,6 +570,9 @@ public class ElementEditorController implements Initializable {
 			throw new RuntimeException("For some reason can't transfer changes from copy of the "
 					+ "current CuteElement to the current CuteElement", e);
 		}
+		// The copy is not needed anymore. Let's release its assets before initialization, so
+		// the changed files of assets are loaded again.
+		disconnectFromConnectedCuteElement();
 		// Initialize whole project, it may fix parents and it may highlight problems in this
 		// CuteElement.
 		ProjectManager.initProjectFromGUI();
@@ -586,6 +595,7 @@ public class ElementEditorController implements Initializable {
 	void hitCancelButton(ActionEvent event) {
 		root.expandedProperty().set(false);
 		if (getCurrentElement() != null) {
+			disconnectFromConnectedCuteElement();
 			getCurrentElement().init();
 			connectToCuteElement(getCurrentElement());
 		}
@@ -34,6 +34,8 @@ import com.ubershy.streamsis.Util;
 import com.ubershy.streamsis.elements.CuteElement;
 import com.ubershy.streamsis.elements.SisScene;
 import com.ubershy.streamsis.elements.actors.Actor;
+import com.ubershy.streamsis.elements.actors.ActorCheckScheduler;
+import com.ubershy.streamsis.elements.actors.CheckBudgetGovernor;
 import com.ubershy.streamsis.gui.GUIManager;
 import com.ubershy.streamsis.gui.helperclasses.CuteColor;
 import com.ubershy.streamsis.gui.helperclasses.GUIUtil;
@@ -73,6 +75,7 @@ import javafx.scene.control.ProgressBar;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TitledPane;
 import javafx.scene.control.ToggleButton;
+import javafx.scene.control.Tooltip;
 import javafx.scene.control.TreeView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Priority;
@@ -129,6 +132,8 @@ public class FullModeController implements Initializable {
     @FXML
     private Label numberOfElementsLabel;
     @FXML
+    private Label checkLatencyLabel;
+    @FXML
     private ProgressBar projectInitProgressBar;
     @FXML
     private Label SPStatusLabel;
@@ -141,6 +146,9 @@ public class FullModeController implements Initializable {
 	private NotificationPane notificationPane;
 	private CuteProject project;
 
+	/** The Timeline which periodically updates {@link #checkLatencyLabel}. */
+	private Timeline checkLatencyUpdater;
+
 	public Node getView() {
 		return rootNode;
 	}
@@ -224,6 +232,31 @@ public class FullModeController implements Initializable {
 				}
 			});
 		});
+		// Show check latency and throttling of Actors. It's polled, because it changes on every check.
+		if (checkLatencyUpdater == null) {
+			checkLatencyUpdater = new Timeline(
+					new KeyFrame(Duration.seconds(1), (ActionEvent event) -> {
+						if (project != null && project.isStarted()) {
+							String summary = ActorCheckScheduler.getLatencySummary();
+							String switchSummary = project.getSisSceneSwitchSummary();
+							if (!switchSummary.isEmpty()) {
+								summary = summary + ". " + switchSummary;
+							}
+							if (CheckBudgetGovernor.isThrottling()) {
+								summary = CheckBudgetGovernor.getThrottlingSummary() + ". "
+										+ summary;
+								checkLatencyLabel.setTextFill(Color.ORANGE);
+							} else {
+								checkLatencyLabel.setTextFill(Color.GREY);
+							}
+							checkLatencyLabel.setText(summary);
+						} else {
+							checkLatencyLabel.setText("");
+						}
+					}));
+			checkLatencyUpdater.setCycleCount(Timeline.INDEFINITE);
+			checkLatencyUpdater.play();
+		}
 	}
 
 	private void initializeOpenRecentMenu() {
@@ -403,6 +436,14 @@ public class FullModeController implements Initializable {
 				setSPStatusBar(newVal);
 			});
 		});
+		// Let the user skip waiting for the next reconnect attempt.
+		// The tooltip also shows the status and latency of each Streaming Program.
+		Tooltip SPStatusTooltip = new Tooltip();
+		SPStatusTooltip.setOnShowing(event -> SPStatusTooltip.setText(
+				StreamingProgramManager.getEndpointGroup().getSummary()
+						+ "\nClick to reconnect now"));
+		Tooltip.install(SPStatusBar, SPStatusTooltip);
+		SPStatusBar.setOnMouseClicked(event -> StreamingProgramManager.reconnectNow());
 	}
 	
 	private void setSPStatusBar(ConnectionStatus status) {
@@ -496,6 +537,8 @@ public class FullModeController implements Initializable {
 		FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter(
 				"StreamSis Project files (*.streamsis)", "*.streamsis");
 		fileChooser.getExtensionFilters().add(extFilter);
+		fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+				"StreamSis Project bundles (*.streamsisbundle)", "*.streamsisbundle"));
 		String lastDir = CuteConfig.getString(CuteConfig.UTILGUI, "LastFileDirectory");
 		if (Util.checkDirectory(lastDir)) {
 			fileChooser.setInitialDirectory(new File(lastDir));
@@ -575,6 +618,8 @@ public class FullModeController implements Initializable {
 		FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter(
 				"StreamSis Project files (*.streamsis)", "*.streamsis");
 		fileChooser.getExtensionFilters().add(extFilter);
+		fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+				"StreamSis Project bundles (*.streamsisbundle)", "*.streamsisbundle"));
 		String lastDir = CuteConfig.getString(CuteConfig.UTILGUI, "LastFileDirectory");
 		if (Util.checkDirectory(lastDir)) {
 			fileChooser.setInitialDirectory(new File(lastDir));
@@ -626,8 +671,8 @@ public class FullModeController implements Initializable {
 	@FXML
 	private void setVolumeToConfigAndLoadedSounds() { // Is invoked on mouse release on slider.
 		double volumeToSet = volumeSlider.getValue() / 100.0;
+		// SuperSoundManager listens to this setting and applies it to all sounds.
 		CuteConfig.setDouble(CuteConfig.CUTE, "GlobalVolume", volumeToSet);
-		SuperSoundManager.setVolumeForAllSounds(volumeToSet);
 	}
 
 	@FXML
@@ -18,7 +18,10 @@
 package com.ubershy.streamsis.gui.controllers.editor;
 
 import java.net.URL;
+import java.util.EnumMap;
 import java.util.ResourceBundle;
+
+import org.controlsfx.control.SegmentedButton;
 import org.controlsfx.validation.ValidationResult;
 import org.controlsfx.validation.ValidationSupport;
 import org.controlsfx.validation.Validator;
@@ -26,12 +29,16 @@ import org.controlsfx.validation.Validator;
 import com.ubershy.streamsis.ConstsAndVars;
 import com.ubershy.streamsis.elements.CuteElement;
 import com.ubershy.streamsis.elements.actors.Actor;
+import com.ubershy.streamsis.elements.actors.ActorPriority;
 import com.ubershy.streamsis.gui.controllers.editor.AbstractCuteController;
 import com.ubershy.streamsis.gui.helperclasses.IntegerTextField;
 
+import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.Toggle;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Pane;
 
@@ -58,6 +65,10 @@ public class UniversalActorController extends AbstractCuteController
     @FXML
     private Pane sleepOnSuccessFieldContainer;
 
+	/** The container for {@link #prioritySegmentedButton}. */
+	@FXML
+	private Pane priorityContainer;
+
 	/** The CheckBox for {@link Actor#doOnRepeatProperty()}. */
 	@FXML
 	private CheckBox repeatOnActionsCheckBox;
@@ -75,6 +86,13 @@ public class UniversalActorController extends AbstractCuteController
 	/** The IntegerTextField for editing {@link Actor#sleepOnSuccessDurationProperty()}. */
 	private IntegerTextField sleepOnSuccessIntegerTextField = new IntegerTextField(10000000, true);
 
+	/** The SegmentedButton for editing {@link Actor#priorityProperty()}. */
+	private SegmentedButton prioritySegmentedButton = new SegmentedButton();
+
+	/** The map with {@link #prioritySegmentedButton}'s buttons for each {@link ActorPriority}. */
+	private EnumMap<ActorPriority, ToggleButton> priorityButtons = new EnumMap<>(
+			ActorPriority.class);
+
 	/** The {@link Actor} to edit. */
 	private Actor actor;
 	
@@ -84,6 +102,21 @@ public class UniversalActorController extends AbstractCuteController
 	/** The Validation Support for this controller. */
 	private ValidationSupport validationSupport;
 
+	/** The listener which sets {@link ActorPriority} of {@link #actor} on toggle change. */
+	private ChangeListener<? super Toggle> priorityToggleListener = (o, oldVal, newVal) -> {
+		if (actor != null) {
+			if (newVal != null) {
+				ActorPriority priority = (ActorPriority) newVal.getUserData();
+				actor.setPriority(priority);
+				buttonStateManager.reportNewValueOfControl(origActor.getPriority(), priority,
+						prioritySegmentedButton, null);
+			} else {
+				// Let's not allow having all toggles unselected.
+				oldVal.setSelected(true);
+			}
+		}
+	};
+
 	/*
 	 * @inheritDoc
 	 */
@@ -94,6 +127,13 @@ public class UniversalActorController extends AbstractCuteController
 		checkIntervalFieldContainer.getChildren().add(checkIntervalIntegerTextField);
 		repeatIntervalFieldContainer.getChildren().add(repeatIntervalIntegerTextField);
 		sleepOnSuccessFieldContainer.getChildren().add(sleepOnSuccessIntegerTextField);
+		for (ActorPriority priority : ActorPriority.values()) {
+			ToggleButton button = new ToggleButton(priority.toString());
+			button.setUserData(priority);
+			priorityButtons.put(priority, button);
+			prioritySegmentedButton.getButtons().add(button);
+		}
+		priorityContainer.getChildren().add(prioritySegmentedButton);
 	}
 
 	/*
@@ -122,6 +162,9 @@ public class UniversalActorController extends AbstractCuteController
 				actor.doOnRepeatProperty());
 		bindBidirectionalAndRemember(repeatOffActionsCheckBox.selectedProperty(),
 				actor.doOffRepeatProperty());
+		priorityButtons.get(actor.getPriority()).setSelected(true);
+		prioritySegmentedButton.getToggleGroup().selectedToggleProperty()
+				.addListener(priorityToggleListener);
 	}
 
 	/*
@@ -130,6 +173,8 @@ public class UniversalActorController extends AbstractCuteController
 	@Override
 	public void unbindFromCuteElement() {
 		unbindAllRememberedBinds();
+		prioritySegmentedButton.getToggleGroup().selectedToggleProperty()
+				.removeListener(priorityToggleListener);
 	}
 
 	/*
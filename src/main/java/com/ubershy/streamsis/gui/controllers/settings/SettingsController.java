@@ -29,6 +29,8 @@ import org.controlsfx.validation.decoration.StyleClassValidationDecoration;
 import com.ubershy.streamsis.CuteConfig;
 import com.ubershy.streamsis.HotkeyManager;
 import com.ubershy.streamsis.HotkeyManager.Hotkey;
+import com.ubershy.streamsis.elements.actors.CheckOverrunMonitor;
+import com.ubershy.streamsis.elements.actors.OverrunPolicy;
 import com.ubershy.streamsis.gui.StreamSisAppFactory;
 import com.ubershy.streamsis.gui.controllers.settings.networking.SpecificNetworkSettingsController;
 import com.ubershy.streamsis.gui.helperclasses.CuteGraphicValidationDecoration;
@@ -63,6 +65,8 @@ public class SettingsController implements Initializable {
     @FXML
     private CheckBox projectAutoStartCheckBox;
     @FXML
+    private ChoiceBox<OverrunPolicy> overrunPolicyChoiceBox;
+    @FXML
     private GridPane hotkeysGridPane;
     @FXML
     private ButtonBar buttonBar;
@@ -196,6 +200,9 @@ public class SettingsController implements Initializable {
 			projectAutoStartCheckBox
 					.setSelected(CuteConfig.getBoolean(CuteConfig.CUTE, "ProjectAutoStart"));
 		}
+		overrunPolicyChoiceBox.setItems(FXCollections.observableArrayList(OverrunPolicy.values()));
+		CheckOverrunMonitor.loadPolicyFromConfig();
+		overrunPolicyChoiceBox.getSelectionModel().select(CheckOverrunMonitor.getPolicy());
 	}
 
 	/**
@@ -207,6 +214,9 @@ public class SettingsController implements Initializable {
 				projectAutoLoadCheckBox.isSelected());
 		CuteConfig.setBoolean(CuteConfig.CUTE, "ProjectAutoStart",
 				projectAutoStartCheckBox.isSelected());
+		OverrunPolicy overrunPolicy = overrunPolicyChoiceBox.getValue();
+		CuteConfig.setString(CuteConfig.CUTE, "CheckOverrunPolicy", overrunPolicy.name());
+		CheckOverrunMonitor.setPolicy(overrunPolicy);
 		
 		// Hotkeys tab.
 		for (HotkeyRow hr : allHotkeyRows) {
@@ -275,7 +275,6 @@ public final class GUIUtil {
 			throw new RuntimeException(e);
 		}
 		CuteConfig.setString(CuteConfig.UTILGUI, subKey, serialized);
-		CuteConfig.saveConfig();
 	}
 
 	/**
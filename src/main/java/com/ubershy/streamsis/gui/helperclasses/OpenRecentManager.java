@@ -72,7 +72,6 @@ public final class OpenRecentManager {
 			}
 			CuteConfig.setString(CuteConfig.UTILGUI, "OpenRecent" + i, valueToSet);
 		}
-		CuteConfig.saveConfig();
 	}
 
 	/**
@@ -17,6 +17,15 @@
  */
 package com.ubershy.streamsis.networking;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +36,22 @@ import javafx.beans.property.ReadOnlyObjectProperty;
 
 /**
  * ConnectionMaintainer maintains connections to Streaming Programs. Reconnects in case of trouble.
+ * <p>
+ * The first reconnect happens immediately. If it fails, the next ones are scheduled with
+ * exponential backoff: the delay doubles after each failed attempt up to
+ * {@link #RECONNECTMAXDELAY}. Each delay is randomly changed by up to {@link #RECONNECTJITTER},
+ * so many clients don't reconnect at the same moment. The delay can be skipped with
+ * {@link #reconnectNow()}, for example, when the user knows that the Streaming Program is running
+ * again. <br>
+ * Reconnects and disconnects are timed by a background thread shared by all
+ * ConnectionMaintainers, but happen in a worker thread of each ConnectionMaintainer, never in
+ * the thread which reported the change of status. So a Streaming Program which doesn't answer
+ * doesn't delay reconnects of other clients. A connect attempt which takes longer than
+ * {@link #CONNECTTIMEOUT} is interrupted and reported as a connection error, so the backoff
+ * continues.
+ * <p>
+ * ConnectionMaintainer counts reconnect attempts and measures how long there was no
+ * connection.
  */
 public class ConnectionMaintainer {
 
@@ -34,12 +59,67 @@ public class ConnectionMaintainer {
 	
 	/** The client which connection to Streaming Program {@link ConnectionMaintainer} maintains. */
 	private final TypicalClient client;
-	private boolean reconnectFailedBefore = false;
-	private Thread reconnectionWaitingThread;
-	private Thread disconnectOnErrorThread;
-	private static final long RECONNECTDELAY = 2000;
+
+	/** The delay in milliseconds before the second reconnect attempt in a row. */
+	private static final long RECONNECTINITIALDELAY = 1000;
+
+	/** The maximum delay in milliseconds between reconnect attempts. */
+	private static final long RECONNECTMAXDELAY = 30000;
+
+	/** The maximum part of delay by which it can be randomly changed. */
+	private static final double RECONNECTJITTER = 0.2;
+
 	private static final long ERRORDISCONNECTDELAY = 5000;
 
+	/** The maximum time in milliseconds a single connect attempt can take. */
+	public static final long CONNECTTIMEOUT = 10000;
+
+	/** The thread which times reconnects, disconnects and connect timeouts. Never blocks. */
+	private static final ScheduledExecutorService scheduler = Executors
+			.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "ConnectionMaintainer");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/**
+	 * The thread which connects and disconnects the {@link #client}. It's stopped when idle for a
+	 * minute.
+	 */
+	private final ThreadPoolExecutor worker = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), runnable -> {
+				Thread thread = new Thread(runnable, "ConnectionMaintainerWorker");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/** Tells if the connection is maintained now. Guarded by this. */
+	private boolean maintaining = false;
+
+	/** The number of failed reconnect attempts in a row. Guarded by this. */
+	private int failedAttemptsInRow = 0;
+
+	/** The scheduled reconnect, null if it's not scheduled. Guarded by this. */
+	private ScheduledFuture<?> scheduledReconnect;
+
+	/** The scheduled disconnect, null if it's not scheduled. Guarded by this. */
+	private ScheduledFuture<?> scheduledDisconnect;
+
+	/** The time of the last reconnect attempt from {@link System#nanoTime()}. Guarded by this. */
+	private long lastAttemptTime = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+	/**
+	 * The time since when there's no connection from {@link System#nanoTime()}, or zero if the
+	 * client is online. Guarded by this.
+	 */
+	private long downSince = 0;
+
+	/** The number of all reconnect attempts. */
+	private final AtomicLong reconnectAttempts = new AtomicLong();
+
+	/** The sum of all periods without connection in nanoseconds, except the current one. */
+	private final AtomicLong totalDowntime = new AtomicLong();
+
 	InvalidationListener statusListener = (o) -> {
 		@SuppressWarnings("unchecked")
 		ConnectionStatus currentStatus = ((ReadOnlyObjectProperty<ConnectionStatus>) o).getValue();
@@ -50,27 +130,27 @@ public class ConnectionMaintainer {
 		case AUTHENTICATIONFAIL:
 			// Scheduling disconnect for the user to see the status. After disconnect, there will be
 			// reconnect.
-			if (disconnectOnErrorThread == null) // If it's not already scheduled.
-				scheduleDisconnectBecauseOfError();
+			scheduleDisconnectBecauseOfError();
 			break;
 		case CONNECTING:
 			break;
 		case CONNECTIONERROR: 
-			reconnect();
+			markAsDown();
+			scheduleReconnect();
 			break;
 		case ERROR:
 			// Scheduling disconnect for the user to see the status. After disconnect, there will be
 			// reconnect.
-			if (disconnectOnErrorThread == null) // If it's not already scheduled.
-				scheduleDisconnectBecauseOfError();
+			scheduleDisconnectBecauseOfError();
 			break;
 		case OFFLINE:
+			markAsDown();
 			cancelScheduledDisconnect();
-			reconnect();
+			scheduleReconnect();
 			break;
 		case ONLINE:
 			cancelScheduledDisconnect();
-			reconnectFailedBefore = false;
+			markAsUp();
 			break;
 		default:
 			throw new RuntimeException("What is this status?");
@@ -89,6 +169,7 @@ public class ConnectionMaintainer {
 			throw new IllegalArgumentException("Client can't be null");
 		}
 		this.client = client;
+		worker.allowCoreThreadTimeOut(true);
 	}
 	
 	/**
@@ -107,8 +188,13 @@ public class ConnectionMaintainer {
 	 */
 	public void maintainConnection() {
 		logger.info("Maintaining connection.");
+		synchronized (this) {
+			maintaining = true;
+			failedAttemptsInRow = 0;
+			markAsDown();
+		}
 		client.statusProperty().addListener(statusListener);
-		client.connect();
+		connectInWorker();
 	}
 
 	/**
@@ -116,60 +202,170 @@ public class ConnectionMaintainer {
 	 */
 	public void stopMaintainingConnection() {
 		logger.info("Stopping maintaining connection.");
+		synchronized (this) {
+			maintaining = false;
+			cancelScheduledReconnect();
+			cancelScheduledDisconnect();
+		}
 		client.statusProperty().removeListener(statusListener);
 		client.disconnect();
+	}
+
+	/**
+	 * Hints that the Streaming Program is probably available now, so the scheduled reconnect
+	 * should happen immediately instead of waiting for its delay. <br>
+	 * To avoid flooding the Streaming Program, the hint is ignored if the previous attempt was
+	 * less than {@link #RECONNECTINITIALDELAY} ago. The backoff is not reset.
+	 */
+	public synchronized void reconnectNow() {
+		if (scheduledReconnect == null || scheduledReconnect.getDelay(TimeUnit.MILLISECONDS) <= 0)
+			return;
+		long sinceLastAttempt = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastAttemptTime);
+		if (sinceLastAttempt < RECONNECTINITIALDELAY) {
+			logger.debug("Ignoring hint to reconnect now, the last attempt was just now.");
+			return;
+		}
+		logger.info("Reconnecting now instead of waiting for the scheduled reconnect...");
 		cancelScheduledReconnect();
+		scheduledReconnect = scheduler.schedule(this::reconnect, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Gets the number of all reconnect attempts since the creation of ConnectionMaintainer.
+	 *
+	 * @return The number of reconnect attempts.
+	 */
+	public long getReconnectAttempts() {
+		return reconnectAttempts.get();
+	}
+
+	/**
+	 * Gets how long there's no connection right now.
+	 *
+	 * @return The current downtime in milliseconds, or zero if the client is online.
+	 */
+	public synchronized long getCurrentDowntimeMillis() {
+		return (downSince == 0) ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - downSince);
+	}
+
+	/**
+	 * Gets how long there was no connection in total, including the current downtime.
+	 *
+	 * @return The total downtime in milliseconds.
+	 */
+	public long getTotalDowntimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(totalDowntime.get()) + getCurrentDowntimeMillis();
+	}
+
+	private synchronized void markAsDown() {
+		if (downSince == 0)
+			downSince = System.nanoTime();
 	}
 
-	private void cancelScheduledReconnect() {
-		if (reconnectionWaitingThread != null && reconnectionWaitingThread.isAlive()) {
-			reconnectionWaitingThread.interrupt();
-			reconnectionWaitingThread = null;
+	private synchronized void markAsUp() {
+		failedAttemptsInRow = 0;
+		if (downSince != 0) {
+			long downtime = System.nanoTime() - downSince;
+			totalDowntime.addAndGet(downtime);
+			downSince = 0;
+			logger.info("Connection is established after " + TimeUnit.NANOSECONDS.toMillis(downtime)
+					+ " ms of downtime. Reconnect attempts so far: " + reconnectAttempts.get()
+					+ ".");
+		}
+	}
+
+	private synchronized void cancelScheduledReconnect() {
+		if (scheduledReconnect != null) {
+			scheduledReconnect.cancel(false);
+			scheduledReconnect = null;
 		}
 	}
 	
-	private void cancelScheduledDisconnect() {
-		if (disconnectOnErrorThread != null && disconnectOnErrorThread.isAlive()) {
-			disconnectOnErrorThread.interrupt();
-			disconnectOnErrorThread = null;
+	private synchronized void cancelScheduledDisconnect() {
+		if (scheduledDisconnect != null) {
+			if (scheduledDisconnect.cancel(false))
+				logger.info("Scheduled disconnect was cancelled.");
+			scheduledDisconnect = null;
 		}
 	}
 
-	private void scheduleDisconnectBecauseOfError() {
-		disconnectOnErrorThread = NetUtil.startInNewThread(() -> {
-			logger.info(
-					"Scheduling disconnect in " + ERRORDISCONNECTDELAY + " ms because of error...");
-			try {
-				Thread.sleep(ERRORDISCONNECTDELAY);
-			} catch (InterruptedException e) {
-				logger.info("Scheduled disconnect was cancelled.");
-				return;
+	private synchronized void scheduleDisconnectBecauseOfError() {
+		if (!maintaining || scheduledDisconnect != null) // If it's already scheduled.
+			return;
+		logger.info("Scheduling disconnect in " + ERRORDISCONNECTDELAY + " ms because of error...");
+		scheduledDisconnect = scheduler.schedule(() -> {
+			synchronized (this) {
+				scheduledDisconnect = null;
 			}
-			logger.info("Executing scheduled disconnect...");
-			disconnectOnErrorThread = null;
-			client.disconnect();
-		});
+			worker.execute(() -> {
+				logger.info("Executing scheduled disconnect...");
+				client.disconnect();
+			});
+		}, ERRORDISCONNECTDELAY, TimeUnit.MILLISECONDS);
 	}
 
-	private void reconnect() {
-		boolean sleepWasInterrupted = false;
-		if (reconnectFailedBefore) {
-			logger.info("Scheduling reconnect in " + RECONNECTDELAY + " ms.");
-			try {
-				reconnectionWaitingThread = Thread.currentThread();
-				Thread.sleep(RECONNECTDELAY);
-			} catch (InterruptedException e) {
-				logger.info("Scheduled reconnect was cancelled.");
-				sleepWasInterrupted = true;
-			}
-		} else {
+	private synchronized void scheduleReconnect() {
+		if (!maintaining || scheduledReconnect != null) // If it's already scheduled.
+			return;
+		long delay = computeReconnectDelay(failedAttemptsInRow);
+		if (delay == 0) {
 			logger.info("Reconnecting immediately...");
+		} else {
+			logger.info("Scheduling reconnect in " + delay + " ms.");
 		}
-		reconnectionWaitingThread = null;
-		if (!sleepWasInterrupted) {
-			reconnectFailedBefore = true;
-			client.connect();
+		failedAttemptsInRow++;
+		scheduledReconnect = scheduler.schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Computes the delay before the reconnect attempt.
+	 *
+	 * @param failedAttempts
+	 *            The number of failed reconnect attempts in a row.
+	 * @return The delay in milliseconds, zero for the first attempt.
+	 */
+	private static long computeReconnectDelay(int failedAttempts) {
+		if (failedAttempts == 0)
+			return 0;
+		// Let's not overflow when the Streaming Program is off for a long time.
+		int exponent = Math.min(failedAttempts - 1, 30);
+		long delay = Math.min(RECONNECTINITIALDELAY << exponent, RECONNECTMAXDELAY);
+		double jitter = ThreadLocalRandom.current().nextDouble(-RECONNECTJITTER, RECONNECTJITTER);
+		return Math.round(delay * (1 + jitter));
+	}
+
+	private void reconnect() {
+		synchronized (this) {
+			scheduledReconnect = null;
+			if (!maintaining)
+				return;
+			lastAttemptTime = System.nanoTime();
 		}
+		reconnectAttempts.incrementAndGet();
+		connectInWorker();
+	}
+
+	/**
+	 * Connects the {@link #client} in the {@link #worker} thread. If connecting takes longer than
+	 * {@link #CONNECTTIMEOUT}, the worker thread is interrupted, so the client gives up and
+	 * reports a connection error.
+	 */
+	private void connectInWorker() {
+		worker.execute(() -> {
+			Thread workerThread = Thread.currentThread();
+			ScheduledFuture<?> timeout = scheduler.schedule(() -> {
+				logger.warn("Connecting takes longer than " + CONNECTTIMEOUT
+						+ " ms. Giving up this attempt.");
+				workerThread.interrupt();
+			}, CONNECTTIMEOUT, TimeUnit.MILLISECONDS);
+			try {
+				client.connect();
+			} finally {
+				timeout.cancel(false);
+				// The timeout might have fired right after connecting.
+				Thread.interrupted();
+			}
+		});
 	}
 
 }
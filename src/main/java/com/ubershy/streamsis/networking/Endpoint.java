@@ -0,0 +1,149 @@
+/** 
+ * StreamSis
+ * Copyright (C) 2016 Eva Balycheva
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.networking;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.ubershy.streamsis.networking.clients.TypicalClient;
+
+/**
+ * Endpoint is a single Streaming Program which StreamSis controls: the {@link TypicalClient}
+ * connected to it and the {@link ConnectionMaintainer} of this client.
+ * <p>
+ * Endpoint collects metrics of round-trip latency, i.e. the time between sending a request and
+ * receiving a successful response.
+ */
+public class Endpoint {
+
+	/** The user-friendly name of the Endpoint, like the address of the Streaming Program. */
+	private final String name;
+
+	/** The connection maintainer of the Endpoint's client. */
+	private final ConnectionMaintainer connectionMaintainer;
+
+	/** The number of successful responses. */
+	private final LongAdder responsesCount = new LongAdder();
+
+	/** The sum of round-trip latencies in nanoseconds. */
+	private final LongAdder totalLatency = new LongAdder();
+
+	/** The round-trip latency of the last successful response in nanoseconds. */
+	private volatile long lastLatency;
+
+	/** The maximum round-trip latency in nanoseconds. */
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	/**
+	 * Instantiates a new Endpoint.
+	 *
+	 * @param name
+	 *            The user-friendly name of the Endpoint, like the address of the Streaming
+	 *            Program.
+	 * @param client
+	 *            The client connecting to the Streaming Program.
+	 * @throws IllegalArgumentException
+	 *             If the client is null.
+	 */
+	public Endpoint(String name, TypicalClient client) {
+		this.name = name;
+		this.connectionMaintainer = new ConnectionMaintainer(client);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public TypicalClient getClient() {
+		return connectionMaintainer.getClient();
+	}
+
+	public ConnectionMaintainer getConnectionMaintainer() {
+		return connectionMaintainer;
+	}
+
+	/**
+	 * Gets the current connection status of the Endpoint's client.
+	 *
+	 * @return The {@link ConnectionStatus}.
+	 */
+	public ConnectionStatus getStatus() {
+		return getClient().statusProperty().get();
+	}
+
+	/**
+	 * Records the round-trip latency of a successful response.
+	 *
+	 * @param latency
+	 *            The latency in nanoseconds.
+	 */
+	void recordLatency(long latency) {
+		responsesCount.increment();
+		totalLatency.add(latency);
+		lastLatency = latency;
+		maxLatency.accumulateAndGet(latency, Math::max);
+	}
+
+	/**
+	 * Gets the round-trip latency of the last successful response.
+	 *
+	 * @return The latency in milliseconds, or zero if there were no responses.
+	 */
+	public double getLastLatencyMillis() {
+		return lastLatency / 1000000.0;
+	}
+
+	/**
+	 * Gets the average round-trip latency of successful responses.
+	 *
+	 * @return The latency in milliseconds, or zero if there were no responses.
+	 */
+	public double getAverageLatencyMillis() {
+		long count = responsesCount.sum();
+		return (count == 0) ? 0 : totalLatency.sum() / 1000000.0 / count;
+	}
+
+	/**
+	 * Gets the maximum round-trip latency of successful responses.
+	 *
+	 * @return The latency in milliseconds, or zero if there were no responses.
+	 */
+	public double getMaxLatencyMillis() {
+		return maxLatency.get() / 1000000.0;
+	}
+
+	/**
+	 * Gets the status and metrics of the Endpoint as a human-readable text.
+	 *
+	 * @return The summary text.
+	 */
+	public String getSummary() {
+		return String.format(
+				"%s: %s, latency: %.1f ms last, %.1f ms average, %.1f ms max, "
+						+ "reconnect attempts: %d, total downtime: %d ms.",
+				name, getStatus(), getLastLatencyMillis(), getAverageLatencyMillis(),
+				getMaxLatencyMillis(), connectionMaintainer.getReconnectAttempts(),
+				connectionMaintainer.getTotalDowntimeMillis());
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
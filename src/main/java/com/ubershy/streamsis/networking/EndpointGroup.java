@@ -0,0 +1,262 @@
+/** 
+ * StreamSis
+ * Copyright (C) 2016 Eva Balycheva
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.networking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import com.ubershy.streamsis.networking.clients.TypicalClient;
+import com.ubershy.streamsis.networking.responses.GetSceneNameResponse;
+import com.ubershy.streamsis.networking.responses.Response;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+/**
+ * EndpointGroup controls several Streaming Programs together, for example, the main OBS Studio
+ * and the backup one. Each of them is an {@link Endpoint} with its own connection.
+ * <p>
+ * Requests which change something, like switching scenes, are sent to all Endpoints at once
+ * without waiting for each other, so the Streaming Programs do it almost at the same time. The
+ * response is successful only if all Endpoints succeeded. Requests which just ask something are
+ * sent only to the primary Endpoint, which is the first one.
+ * <p>
+ * The status of the group is {@link ConnectionStatus#ONLINE ONLINE} only if all Endpoints are
+ * online. Otherwise it's the status of the first Endpoint which is not online.
+ */
+public class EndpointGroup {
+
+	/** The Endpoints, the first one is primary. */
+	private final List<Endpoint> endpoints;
+
+	/** The status of the group. */
+	private final ReadOnlyObjectWrapper<ConnectionStatus> status = new ReadOnlyObjectWrapper<ConnectionStatus>(
+			ConnectionStatus.OFFLINE);
+
+	public ReadOnlyObjectProperty<ConnectionStatus> statusProperty() {
+		return status.getReadOnlyProperty();
+	}
+
+	/** Updates {@link #status} when the status of any Endpoint changes. */
+	private final InvalidationListener statusListener = (o) -> updateStatus();
+
+	/**
+	 * Instantiates a new EndpointGroup.
+	 *
+	 * @param endpoints
+	 *            The Endpoints, the first one is primary.
+	 * @throws IllegalArgumentException
+	 *             If there are no Endpoints.
+	 */
+	public EndpointGroup(List<Endpoint> endpoints) {
+		if (endpoints == null || endpoints.isEmpty()) {
+			throw new IllegalArgumentException("At least one endpoint is needed");
+		}
+		this.endpoints = Collections.unmodifiableList(new ArrayList<Endpoint>(endpoints));
+		for (Endpoint endpoint : this.endpoints) {
+			endpoint.getClient().statusProperty().addListener(statusListener);
+		}
+		updateStatus();
+	}
+
+	/**
+	 * Gets the Endpoints of the group.
+	 *
+	 * @return The unmodifiable list of Endpoints, the first one is primary.
+	 */
+	public List<Endpoint> getEndpoints() {
+		return endpoints;
+	}
+
+	/**
+	 * Gets the primary Endpoint which answers the requests that just ask something.
+	 *
+	 * @return The primary Endpoint.
+	 */
+	public Endpoint getPrimary() {
+		return endpoints.get(0);
+	}
+
+	private synchronized void updateStatus() {
+		ConnectionStatus newStatus = ConnectionStatus.ONLINE;
+		for (Endpoint endpoint : endpoints) {
+			ConnectionStatus endpointStatus = endpoint.getStatus();
+			if (endpointStatus != ConnectionStatus.ONLINE) {
+				newStatus = endpointStatus;
+				break;
+			}
+		}
+		status.set(newStatus);
+	}
+
+	/**
+	 * Starts to maintain connections to all Endpoints. Each Endpoint connects in its own thread,
+	 * so a slow Streaming Program doesn't delay the others.
+	 */
+	public void maintainConnections() {
+		for (Endpoint endpoint : endpoints) {
+			NetUtil.startInNewThread(() -> {
+				endpoint.getConnectionMaintainer().maintainConnection();
+			});
+		}
+	}
+
+	/**
+	 * Stops maintaining connections to all Endpoints and disconnects from them.
+	 */
+	public void stopMaintainingConnections() {
+		for (Endpoint endpoint : endpoints) {
+			endpoint.getConnectionMaintainer().stopMaintainingConnection();
+		}
+	}
+
+	/**
+	 * Hints all Endpoints waiting for reconnect that they should reconnect now.
+	 *
+	 * @see ConnectionMaintainer#reconnectNow()
+	 */
+	public void reconnectNow() {
+		for (Endpoint endpoint : endpoints) {
+			endpoint.getConnectionMaintainer().reconnectNow();
+		}
+	}
+
+	/**
+	 * Requests the current scene name in the primary Endpoint.
+	 *
+	 * @return The future of the current scene name.
+	 */
+	public CompletableFuture<GetSceneNameResponse> getSceneNameAsync() {
+		Endpoint primary = getPrimary();
+		return measureLatency(primary, primary.getClient()::getSceneNameAsync);
+	}
+
+	/**
+	 * Requests to set the current scene in all Endpoints at once.
+	 *
+	 * @param name
+	 *            The name of the scene to set as current.
+	 * @return The future of the response, which is successful only if all Endpoints succeeded.
+	 *         Otherwise its error text tells which Endpoints failed and why.
+	 */
+	public CompletableFuture<Response> setSceneNameAsync(String name) {
+		List<CompletableFuture<Response>> futures = new ArrayList<>(endpoints.size());
+		for (Endpoint endpoint : endpoints) {
+			TypicalClient client = endpoint.getClient();
+			// A failed future would make allOf() fail too, so let's turn it into error response.
+			futures.add(measureLatency(endpoint, () -> client.setSceneNameAsync(name))
+					.exceptionally(e -> new Response(e.toString(), null)));
+		}
+		if (futures.size() == 1) {
+			return futures.get(0);
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+				.thenApply(ignored -> combineResponses(futures));
+	}
+
+	/**
+	 * Tells if the scene is current in all Endpoints. Mostly it's known from
+	 * {@link StreamingProgramState StreamingProgramStates} of Endpoints. Only the Endpoints which
+	 * states are unknown are asked, all at once. Blocks until they answer.
+	 *
+	 * @param name
+	 *            The name of the scene.
+	 * @return true, if the scene is current in all Endpoints. False if it's not current at least
+	 *         in one of them, or if some Endpoint can't tell.
+	 */
+	public boolean isSceneCurrentEverywhere(String name) {
+		List<CompletableFuture<GetSceneNameResponse>> asked = new ArrayList<>();
+		for (Endpoint endpoint : endpoints) {
+			String currentSceneName = endpoint.getClient().getState().getCurrentSceneName();
+			if (currentSceneName == null) {
+				asked.add(measureLatency(endpoint, endpoint.getClient()::getSceneNameAsync)
+						.exceptionally(e -> new GetSceneNameResponse(e.toString(), null, null)));
+			} else if (!currentSceneName.equals(name)) {
+				return false;
+			}
+		}
+		for (CompletableFuture<GetSceneNameResponse> future : asked) {
+			GetSceneNameResponse response = future.join();
+			if (response.getErrorText() != null || !name.equals(response.getSceneName()))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the status and metrics of each Endpoint as a human-readable text.
+	 *
+	 * @return The summary text, one line per Endpoint.
+	 */
+	public String getSummary() {
+		StringBuilder summary = new StringBuilder();
+		for (Endpoint endpoint : endpoints) {
+			if (summary.length() != 0)
+				summary.append('\n');
+			summary.append(endpoint.getSummary());
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Sends the request and records the latency of successful response in the Endpoint.
+	 *
+	 * @param endpoint
+	 *            The Endpoint to which the request is sent.
+	 * @param request
+	 *            The code sending the request.
+	 * @return The future of the response.
+	 */
+	private static <T extends Response> CompletableFuture<T> measureLatency(Endpoint endpoint,
+			Supplier<CompletableFuture<T>> request) {
+		long startTime = System.nanoTime();
+		return request.get().whenComplete((response, throwable) -> {
+			if (response != null && response.getErrorText() == null)
+				endpoint.recordLatency(System.nanoTime() - startTime);
+		});
+	}
+
+	/**
+	 * Combines the responses of all Endpoints.
+	 *
+	 * @param futures
+	 *            The completed futures of responses in the same order as {@link #endpoints}.
+	 * @return The response of the primary Endpoint if all responses are successful, otherwise the
+	 *         error response listing the errors of each failed Endpoint.
+	 */
+	private Response combineResponses(List<CompletableFuture<Response>> futures) {
+		StringBuilder errors = new StringBuilder();
+		for (int i = 0; i < futures.size(); i++) {
+			String errorText = futures.get(i).join().getErrorText();
+			if (errorText != null) {
+				if (errors.length() != 0)
+					errors.append("; ");
+				errors.append(endpoints.get(i).getName()).append(": ").append(errorText);
+			}
+		}
+		if (errors.length() == 0) {
+			return futures.get(0).join();
+		}
+		return new Response(errors.toString(), null);
+	}
+
+}
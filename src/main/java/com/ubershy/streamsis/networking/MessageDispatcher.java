@@ -0,0 +1,170 @@
+/** 
+ * StreamSis
+ * Copyright (C) 2016 Eva Balycheva
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.networking;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MessageDispatcher delivers responses and events received by networking clients to the code
+ * waiting for them.
+ * <p>
+ * Delivery happens in a single daemon thread, so no thread is created per message, and messages
+ * are delivered in the same order as they were received. The queue of messages is bounded. If
+ * it's full, the thread which received the message waits until there's free space in the queue,
+ * so the receiving slows down instead of using more and more memory, and the order is kept.
+ * <p>
+ * The code run by MessageDispatcher must not block, because all messages wait for it. <br>
+ * MessageDispatcher collects metrics: the depth of the queue and the latency of dispatching,
+ * i.e. the time between receiving the message and starting its delivery.
+ */
+public final class MessageDispatcher {
+
+	static final Logger logger = LoggerFactory.getLogger(MessageDispatcher.class);
+
+	/** The maximum number of messages waiting for delivery. */
+	private static final int QUEUECAPACITY = 1024;
+
+	/** The dispatcher thread. */
+	private static volatile Thread dispatcherThread;
+
+	/** The executor with the single dispatcher thread. */
+	private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0,
+			TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(QUEUECAPACITY), runnable -> {
+				Thread thread = new Thread(runnable, "NetDispatcher");
+				thread.setDaemon(true);
+				dispatcherThread = thread;
+				return thread;
+			}, (runnable, pool) -> {
+				if (Thread.currentThread() == dispatcherThread) {
+					// Waiting for itself would never end.
+					runnable.run();
+					return;
+				}
+				logger.warn("Dispatcher queue is full, receiving thread waits for free space.");
+				try {
+					pool.getQueue().put(runnable);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					logger.error("Interrupted while waiting for dispatcher queue, message is lost.");
+				}
+			});
+
+	/** The number of dispatched messages. */
+	private static final LongAdder dispatchedCount = new LongAdder();
+
+	/** The sum of dispatch latencies in nanoseconds. */
+	private static final LongAdder totalLatency = new LongAdder();
+
+	/** The maximum dispatch latency in nanoseconds. */
+	private static final AtomicLong maxLatency = new AtomicLong();
+
+	/** The maximum observed depth of the queue. */
+	private static final AtomicLong peakQueueDepth = new AtomicLong();
+
+	private MessageDispatcher() {
+	}
+
+	/**
+	 * Delivers the message in the dispatcher thread.
+	 *
+	 * @param delivery
+	 *            The code delivering the message. Must not block.
+	 */
+	public static void dispatch(Runnable delivery) {
+		long dispatchTime = System.nanoTime();
+		executor.execute(() -> {
+			long latency = System.nanoTime() - dispatchTime;
+			dispatchedCount.increment();
+			totalLatency.add(latency);
+			maxLatency.accumulateAndGet(latency, Math::max);
+			try {
+				delivery.run();
+			} catch (RuntimeException e) {
+				logger.error("Error occured while delivering message.", e);
+			}
+		});
+		peakQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+	}
+
+	/**
+	 * Gets the number of messages waiting for delivery right now.
+	 *
+	 * @return The depth of the queue.
+	 */
+	public static int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * Gets the maximum number of messages which were waiting for delivery at the same time.
+	 *
+	 * @return The peak depth of the queue.
+	 */
+	public static long getPeakQueueDepth() {
+		return peakQueueDepth.get();
+	}
+
+	/**
+	 * Gets the number of dispatched messages.
+	 *
+	 * @return The number of dispatched messages.
+	 */
+	public static long getDispatchedCount() {
+		return dispatchedCount.sum();
+	}
+
+	/**
+	 * Gets the average time between receiving a message and starting its delivery.
+	 *
+	 * @return The average dispatch latency in microseconds.
+	 */
+	public static double getAverageLatencyMicros() {
+		long count = dispatchedCount.sum();
+		return (count == 0) ? 0 : totalLatency.sum() / 1000.0 / count;
+	}
+
+	/**
+	 * Gets the maximum time between receiving a message and starting its delivery.
+	 *
+	 * @return The maximum dispatch latency in microseconds.
+	 */
+	public static double getMaxLatencyMicros() {
+		return maxLatency.get() / 1000.0;
+	}
+
+	/**
+	 * Gets the metrics as a human-readable text.
+	 *
+	 * @return The metrics text.
+	 */
+	public static String getMetricsSummary() {
+		return String.format(
+				"Dispatched messages: %d, queue depth: %d (peak %d), "
+						+ "dispatch latency: %.1f µs average, %.1f µs max.",
+				getDispatchedCount(), getQueueDepth(), getPeakQueueDepth(),
+				getAverageLatencyMicros(), getMaxLatencyMicros());
+	}
+
+}
@@ -17,6 +17,9 @@
  */
 package com.ubershy.streamsis.networking;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +32,24 @@ public class NetUtil {
 	
 	static final Logger logger = LoggerFactory.getLogger(NetUtil.class);
 
+	/** The scheduler shared by networking stuff for timeouts and delayed tasks. */
+	private static final ScheduledExecutorService scheduler = Executors
+			.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "NetScheduler");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/**
+	 * Gets the scheduler shared by networking stuff for timeouts and delayed tasks. <br>
+	 * Tasks must be short and must not block, because all of them run in a single thread.
+	 *
+	 * @return The scheduler.
+	 */
+	public static ScheduledExecutorService getScheduler() {
+		return scheduler;
+	}
+
 	/**
 	 * Starts runnable in a new thread and returns this thread.
 	 *
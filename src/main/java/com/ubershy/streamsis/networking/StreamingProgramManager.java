@@ -17,10 +17,15 @@
  */
 package com.ubershy.streamsis.networking;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ubershy.streamsis.CuteConfig;
+import com.ubershy.streamsis.networking.clients.OBSStudioClient;
 import com.ubershy.streamsis.networking.clients.TypicalClient;
 import com.ubershy.streamsis.networking.responses.GetSceneNameResponse;
 import com.ubershy.streamsis.networking.responses.Response;
@@ -28,12 +33,23 @@ import com.ubershy.streamsis.networking.responses.Response;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 
+/**
+ * StreamingProgramManager manages communication with Streaming Programs of the
+ * {@link ClientType} chosen by the user.
+ * <p>
+ * For OBS Studio, several instances can be controlled together. They are listed in
+ * "OBSSTUDIOENDPOINTS" setting and form an {@link EndpointGroup}. Requests which change something
+ * are sent to all of them at once, and requests which ask something are answered by the first
+ * one.
+ */
 public class StreamingProgramManager {
 
 	static final Logger logger = LoggerFactory.getLogger(StreamingProgramManager.class);
+
+	private static final String ENDPOINTSCONFIGSUBKEY = "OBSSTUDIOENDPOINTS";
 	
-	/** The connection maintainer of the current {@link TypicalClient} instance. */
-	private static ConnectionMaintainer connectionMaintainer;
+	/** The Endpoints of the current {@link TypicalClient} type. */
+	private static EndpointGroup endpointGroup;
 	
 	/** Indicates that {@link StreamingProgramManager} was initialized. */
 	private static boolean started = false;
@@ -52,7 +68,7 @@ public class StreamingProgramManager {
 	public static ClientType getClientType() {return clientType.get();}
 	public static void setClientType(ClientType type) {setClientTypeAndRemember(type);};
 	
-	/** The current connection status of the {@link TypicalClient} instance loaded. */
+	/** The current connection status of all {@link TypicalClient} instances loaded. */
 	private static ReadOnlyObjectWrapper<ConnectionStatus> status = new ReadOnlyObjectWrapper<ConnectionStatus>(
 			ConnectionStatus.OFFLINE);
 	public static ReadOnlyObjectProperty<ConnectionStatus> statusProperty() {
@@ -95,7 +111,11 @@ public class StreamingProgramManager {
 		}
 		stoppedForever = true;
 		logger.info("Stopping Streaming Program Manager forever...");
-		connectionMaintainer.stopMaintainingConnection();
+		endpointGroup.stopMaintainingConnections();
+		for (Endpoint endpoint : endpointGroup.getEndpoints()) {
+			logger.info(endpoint.getSummary());
+		}
+		logger.info(MessageDispatcher.getMetricsSummary());
 		logger.info("Streaming Program Manager is stopped forever.");
 	}
 
@@ -113,10 +133,11 @@ public class StreamingProgramManager {
 		}
 		logger.info("Now setting client type to: '" + type.toString() + "'");
 		boolean needNewInstance = true;
-		if (connectionMaintainer != null) {
-			// Stop existing client.
+		if (endpointGroup != null) {
+			// Stop existing clients.
+			EndpointGroup oldEndpointGroup = endpointGroup;
 			NetUtil.startInNewThread(() -> {
-				connectionMaintainer.stopMaintainingConnection();
+				oldEndpointGroup.stopMaintainingConnections();
 			});
 			if (type.equals(clientType.get())) {
 				// If type is the same, instantiation of the new client is not needed.
@@ -125,25 +146,142 @@ public class StreamingProgramManager {
 		} 
 		if (needNewInstance) {
 			clientType.set(type);
-			TypicalClient newClient;
+			EndpointGroup newEndpointGroup;
 			try {
-				newClient = type.instantiate();
-				status.bind(newClient.statusProperty());
+				newEndpointGroup = new EndpointGroup(createEndpoints(type));
+				status.bind(newEndpointGroup.statusProperty());
 			} catch (Exception e) {
 				throw new RuntimeException(
 						"An error occured during instantiation of client type: "
 								+ type.toString(),
 						e);
 			}
-			connectionMaintainer = new ConnectionMaintainer(newClient);
+			endpointGroup = newEndpointGroup;
 		}
-		NetUtil.startInNewThread(() -> {
-			connectionMaintainer.maintainConnection();
-		});
+		endpointGroup.maintainConnections();
 		// If everything went alright, let's save the client type to config.
 		CuteConfig.setString(CuteConfig.NETWORKING, "StreamingProgramName", type.name());
 	}
 	
+	/**
+	 * Creates the Endpoints for the client type. For {@link ClientType#OBSSTUDIO}, they are
+	 * taken from "OBSSTUDIOENDPOINTS" setting, which is a comma-separated list of "host:port" or
+	 * "host:port:password". IPv6 hosts are written in brackets, e.g. "[::1]:4444". Commas and
+	 * backslashes inside passwords are escaped with backslash. Endpoints without password use
+	 * the password from "OBSSTUDIOPASS" setting.
+	 *
+	 * @param type
+	 *            The client type.
+	 * @return The list of Endpoints, never empty.
+	 */
+	private static List<Endpoint> createEndpoints(ClientType type) {
+		List<Endpoint> endpoints = new ArrayList<Endpoint>();
+		if (type == ClientType.OBSSTUDIO) {
+			String setting = CuteConfig.getString(CuteConfig.NETWORKING, ENDPOINTSCONFIGSUBKEY);
+			for (String endpointString : splitEndpoints(setting)) {
+				endpointString = endpointString.trim();
+				if (endpointString.isEmpty())
+					continue;
+				Endpoint endpoint = parseOBSStudioEndpoint(endpointString);
+				if (endpoint != null)
+					endpoints.add(endpoint);
+			}
+		}
+		if (endpoints.isEmpty()) {
+			endpoints.add(new Endpoint(type.toString(), type.instantiate()));
+		}
+		logger.info("Endpoints of '" + type.toString() + "': " + endpoints);
+		return endpoints;
+	}
+
+	/**
+	 * Splits the list of endpoints by commas which are not escaped with backslash. <br>
+	 * Escape sequences are kept as is, so passwords can be unescaped later.
+	 *
+	 * @param setting
+	 *            The comma-separated list of endpoints.
+	 * @return The list of endpoint strings.
+	 */
+	private static List<String> splitEndpoints(String setting) {
+		List<String> result = new ArrayList<String>();
+		StringBuilder current = new StringBuilder();
+		for (int i = 0; i < setting.length(); i++) {
+			char c = setting.charAt(i);
+			if (c == '\\' && i + 1 < setting.length()) {
+				current.append(c).append(setting.charAt(++i));
+			} else if (c == ',') {
+				result.add(current.toString());
+				current.setLength(0);
+			} else {
+				current.append(c);
+			}
+		}
+		result.add(current.toString());
+		return result;
+	}
+
+	/**
+	 * Parses the OBS Studio endpoint written as "host:port", "host:port:password",
+	 * "[IPv6 host]:port" or "[IPv6 host]:port:password".
+	 *
+	 * @param endpointString
+	 *            The endpoint string with escape sequences in password.
+	 * @return The Endpoint, or null if the string is wrong.
+	 */
+	private static Endpoint parseOBSStudioEndpoint(String endpointString) {
+		String host;
+		String rest;
+		if (endpointString.startsWith("[")) {
+			int closing = endpointString.indexOf(']');
+			host = (closing == -1) ? "" : endpointString.substring(1, closing);
+			rest = (closing == -1) ? "" : endpointString.substring(closing + 1);
+			rest = rest.startsWith(":") ? rest.substring(1) : "";
+		} else {
+			int colon = endpointString.indexOf(':');
+			host = (colon == -1) ? endpointString : endpointString.substring(0, colon);
+			rest = (colon == -1) ? "" : endpointString.substring(colon + 1);
+		}
+		host = host.trim();
+		int passwordColon = rest.indexOf(':');
+		String portString = (passwordColon == -1) ? rest : rest.substring(0, passwordColon);
+		int port = -1;
+		try {
+			port = Integer.parseInt(portString.trim());
+		} catch (NumberFormatException e) {
+			// Port stays invalid.
+		}
+		if (host.isEmpty() || port < 1 || port > 65535) {
+			// Let's not show the password in the log.
+			logger.error("Wrong OBS Studio endpoint in configuration: '" + host + ":"
+					+ portString + "'. It must be 'host:port' or 'host:port:password', IPv6 host"
+					+ " must be in brackets. Skipping it.");
+			return null;
+		}
+		String uri = "ws://" + (host.contains(":") ? "[" + host + "]" : host) + ":" + port + "/";
+		String password = (passwordColon == -1) ? null
+				: unescapePassword(rest.substring(passwordColon + 1));
+		return new Endpoint(uri, new OBSStudioClient(uri, password));
+	}
+
+	/**
+	 * Removes the backslashes escaping characters in password.
+	 *
+	 * @param escaped
+	 *            The password with escape sequences.
+	 * @return The password.
+	 */
+	private static String unescapePassword(String escaped) {
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < escaped.length(); i++) {
+			char c = escaped.charAt(i);
+			if (c == '\\' && i + 1 < escaped.length()) {
+				c = escaped.charAt(++i);
+			}
+			result.append(c);
+		}
+		return result.toString();
+	}
+	
 	private static ClientType getClientTypeFromConfig() {
 		String name = CuteConfig.getString(CuteConfig.NETWORKING, "StreamingProgramName");
 		ClientType clientType;
@@ -159,23 +297,92 @@ public class StreamingProgramManager {
 	}
 
 	/**
-	 * Gets the current scene name in the Streaming Program in response.
+	 * Gets the current scene name in the primary Streaming Program in response.
 	 *
 	 * @return The current scene name in the Streaming Program in response.
 	 */
 	public static GetSceneNameResponse getSceneName() {
-		throwExceptionIfNotStarted();
-		return connectionMaintainer.getClient().getSceneName();
+		return getSceneNameAsync().join();
 	}
 
 	/**
-	 * Sets the current scene in the Streaming Program by name.
+	 * Sets the current scene in all Streaming Programs by name.
 	 *
-	 * @return The name of the scene to make current in the Streaming Program.
+	 * @param name
+	 *            The name of the scene to make current in the Streaming Programs.
+	 * @return The response, which is successful only if all Streaming Programs succeeded.
 	 */
 	public static Response setSceneName(String name) {
+		return setSceneNameAsync(name).join();
+	}
+
+	/**
+	 * Tells if the scene is current in all Streaming Programs.
+	 *
+	 * @param name
+	 *            The name of the scene.
+	 * @return true, if the scene is current in all Streaming Programs.
+	 * @see EndpointGroup#isSceneCurrentEverywhere(String)
+	 */
+	public static boolean isSceneCurrentEverywhere(String name) {
+		throwExceptionIfNotStarted();
+		return endpointGroup.isSceneCurrentEverywhere(name);
+	}
+
+	/**
+	 * Hints that the Streaming Program is probably available now, so the connection should be
+	 * retried immediately instead of waiting for the scheduled reconnect.
+	 */
+	public static void reconnectNow() {
+		throwExceptionIfNotStarted();
+		endpointGroup.reconnectNow();
+	}
+
+	/**
+	 * Gets the {@link EndpointGroup} of the current client type. Useful for getting status and
+	 * metrics of each Streaming Program.
+	 *
+	 * @return The EndpointGroup.
+	 */
+	public static EndpointGroup getEndpointGroup() {
+		throwExceptionIfNotStarted();
+		return endpointGroup;
+	}
+
+	/**
+	 * Gets the local mirror of the primary Streaming Program's state. Reading it doesn't need
+	 * requests over the network.
+	 *
+	 * @return The {@link StreamingProgramState}.
+	 */
+	public static StreamingProgramState getState() {
+		throwExceptionIfNotStarted();
+		return endpointGroup.getPrimary().getClient().getState();
+	}
+
+	/**
+	 * Requests the current scene name in the primary Streaming Program without waiting for
+	 * response.
+	 *
+	 * @return The future of the current scene name in the Streaming Program in response.
+	 */
+	public static CompletableFuture<GetSceneNameResponse> getSceneNameAsync() {
+		throwExceptionIfNotStarted();
+		return endpointGroup.getSceneNameAsync();
+	}
+
+	/**
+	 * Requests to set the current scene in all Streaming Programs by name at once without
+	 * waiting for responses.
+	 *
+	 * @param name
+	 *            The name of the scene to make current in the Streaming Programs.
+	 * @return The future of the response, which is successful only if all Streaming Programs
+	 *         succeeded.
+	 */
+	public static CompletableFuture<Response> setSceneNameAsync(String name) {
 		throwExceptionIfNotStarted();
-		return connectionMaintainer.getClient().setSceneName(name);
+		return endpointGroup.setSceneNameAsync(name);
 	}
 	
 }
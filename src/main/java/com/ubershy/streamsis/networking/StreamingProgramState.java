@@ -0,0 +1,134 @@
+/** 
+ * StreamSis
+ * Copyright (C) 2016 Eva Balycheva
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.networking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.ubershy.streamsis.networking.clients.TypicalClient;
+
+/**
+ * StreamingProgramState is a local mirror of the Streaming Program's state, such as the current
+ * scene and the list of scenes. It's fed by events from the Streaming Program, so it can be read
+ * any time without requests over the network.
+ * <p>
+ * Each {@link TypicalClient} has its own StreamingProgramState. It's refreshed with a request on
+ * each connection and becomes unknown on disconnection. It's thread-safe.
+ */
+public class StreamingProgramState {
+
+	/** The name of the current scene, null if unknown. */
+	private volatile String currentSceneName;
+
+	/** The unmodifiable list of scene names, empty if unknown. */
+	private volatile List<String> sceneNames = Collections.emptyList();
+
+	/**
+	 * The number of changes of the current scene which came from events. Guarded by this.
+	 * Tells if the current scene changed while the refresh request was in flight.
+	 */
+	private long sceneChangesCounter;
+
+	/**
+	 * Gets the name of the current scene in the Streaming Program.
+	 *
+	 * @return The name of the current scene, or null if it's unknown, for example, when there's no
+	 *         connection.
+	 */
+	public String getCurrentSceneName() {
+		return currentSceneName;
+	}
+
+	/**
+	 * Gets the names of all scenes in the Streaming Program.
+	 *
+	 * @return The unmodifiable list of scene names, empty if it's unknown.
+	 */
+	public List<String> getSceneNames() {
+		return sceneNames;
+	}
+
+	/**
+	 * Tells if the state is known, i.e. it was refreshed after the connection.
+	 *
+	 * @return true, if the current scene is known
+	 */
+	public boolean isKnown() {
+		return currentSceneName != null;
+	}
+
+	/**
+	 * Is called when the current scene in the Streaming Program changes.
+	 *
+	 * @param sceneName
+	 *            The name of the new current scene.
+	 */
+	public synchronized void sceneSwitched(String sceneName) {
+		sceneChangesCounter++;
+		currentSceneName = sceneName;
+	}
+
+	/**
+	 * Is called when the list of scenes in the Streaming Program changes.
+	 *
+	 * @param names
+	 *            The names of scenes.
+	 */
+	public synchronized void scenesChanged(List<String> names) {
+		sceneNames = Collections.unmodifiableList(new ArrayList<String>(names));
+	}
+
+	/**
+	 * Is called before sending the refresh request.
+	 *
+	 * @return The mark to pass to {@link #refreshed(String, List, long)}.
+	 */
+	public synchronized long startRefresh() {
+		return sceneChangesCounter;
+	}
+
+	/**
+	 * Is called when the response to the refresh request comes. <br>
+	 * If the current scene was changed by events after the request was sent, the newer scene
+	 * from events is kept.
+	 *
+	 * @param sceneName
+	 *            The name of the current scene from the response.
+	 * @param names
+	 *            The names of scenes from the response.
+	 * @param mark
+	 *            The mark returned by {@link #startRefresh()}.
+	 */
+	public synchronized void refreshed(String sceneName, List<String> names, long mark) {
+		if (mark == sceneChangesCounter) {
+			currentSceneName = sceneName;
+		}
+		scenesChanged(names);
+	}
+
+	/**
+	 * Forgets the state, because it's not known anymore, for example, after disconnection.
+	 */
+	public synchronized void clear() {
+		sceneChangesCounter++;
+		currentSceneName = null;
+		sceneNames = Collections.emptyList();
+	}
+
+}
@@ -17,10 +17,13 @@
  */
 package com.ubershy.streamsis.networking.clients;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ubershy.streamsis.networking.ConnectionStatus;
+import com.ubershy.streamsis.networking.StreamingProgramState;
 import com.ubershy.streamsis.networking.responses.GetSceneNameResponse;
 import com.ubershy.streamsis.networking.responses.Response;
 
@@ -36,6 +39,9 @@ public class NoneClient implements TypicalClient {
 	
 	private static final String errorText = "Streaming Program is not set. Doing nothing.";
 	
+	/** The state which is always unknown, because there's no Streaming Program. */
+	private final StreamingProgramState state = new StreamingProgramState();
+
 	private ReadOnlyObjectWrapper<ConnectionStatus> status = new ReadOnlyObjectWrapper<ConnectionStatus>(
 			ConnectionStatus.OFFLINE);
 
@@ -44,13 +50,18 @@ public class NoneClient implements TypicalClient {
 	}
 
 	@Override
-	public GetSceneNameResponse getSceneName() {
-		return new GetSceneNameResponse(errorText, null, null);
+	public StreamingProgramState getState() {
+		return state;
+	}
+
+	@Override
+	public CompletableFuture<GetSceneNameResponse> getSceneNameAsync() {
+		return CompletableFuture.completedFuture(new GetSceneNameResponse(errorText, null, null));
 	}
 
 	@Override
-	public Response setSceneName(String name) {
-		return new Response(errorText, null);
+	public CompletableFuture<Response> setSceneNameAsync(String name) {
+		return CompletableFuture.completedFuture(new Response(errorText, null));
 	}
 
 	@Override
@@ -5,18 +5,19 @@ import java.net.ConnectException;
 import java.net.URI;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
 
-import javax.json.Json;
-import javax.json.JsonBuilderFactory;
-import javax.json.JsonObject;
-import javax.json.JsonObjectBuilder;
 import javax.websocket.ClientEndpoint;
 import javax.websocket.CloseReason;
 import javax.websocket.ContainerProvider;
@@ -30,6 +31,7 @@ import javax.websocket.WebSocketContainer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.ubershy.streamsis.networking.responses.Response;
 
 import javafx.beans.property.ReadOnlyObjectProperty;
@@ -37,31 +39,47 @@ import javafx.beans.property.ReadOnlyObjectWrapper;
 
 import com.ubershy.streamsis.CuteConfig;
 import com.ubershy.streamsis.networking.ConnectionStatus;
-import com.ubershy.streamsis.networking.CuteDecoder;
+import com.ubershy.streamsis.networking.MessageDispatcher;
 import com.ubershy.streamsis.networking.NetUtil;
+import com.ubershy.streamsis.networking.StreamingProgramState;
+import com.ubershy.streamsis.networking.clients.OBSStudioCodec.Message;
 import com.ubershy.streamsis.networking.responses.GetSceneNameResponse;
 
 /**
  * OBSStudioClient allows to connect to OBS Studio that has websocket plugin turned on.
+ * <p>
+ * Requests are pipelined: each request is sent without waiting for responses to the previous
+ * ones, and responses are matched to requests by "message-id". Responses and events are
+ * delivered by {@link MessageDispatcher}, so the code reacting on them must not block.
+ * Messages are encoded and decoded by {@link OBSStudioCodec}.
+ * <p>
+ * The client listens to scene events of OBS Studio and keeps {@link StreamingProgramState} up to
+ * date. The state is refreshed with "GetSceneList" request after each connection.
  */
-@ClientEndpoint(decoders = CuteDecoder.class)
+@ClientEndpoint
 public class OBSStudioClient implements TypicalClient {
 
-	private interface RequestCallback {
-		public void processResponse(JsonObject response, String errorMessage);
-	}
-
 	static final Logger logger = LoggerFactory.getLogger(OBSStudioClient.class);
 
-	private static final JsonBuilderFactory factory = Json.createBuilderFactory(null);
-
 	private static final String SERVERURI = "ws://127.0.0.1:4444/";
 
 	private static final String PASSCONFIGSUBKEY = "OBSSTUDIOPASS";
 
-	private final Map<String, RequestCallback> requestCallbacks = new ConcurrentHashMap<>();
+	/** The types of events which OBSStudioClient reacts on. Other events are skipped. */
+	private static final Set<String> INTERESTINGEVENTS = new HashSet<String>(
+			Arrays.asList("SwitchScenes", "ScenesChanged", "SceneCollectionChanged"));
+
+	/** The futures of requests waiting for responses by message IDs. */
+	private final Map<Long, CompletableFuture<Response>> pendingRequests =
+			new ConcurrentHashMap<>();
 
-	private Session session;
+	/** The ID of the next request. */
+	private final AtomicLong nextMessageID = new AtomicLong();
+
+	private volatile Session session;
+
+	/** The local mirror of OBS Studio's state. */
+	private final StreamingProgramState state = new StreamingProgramState();
 
 	private static final long RESPONSETIMEOUT = 3000;
 
@@ -71,6 +89,33 @@ public class OBSStudioClient implements TypicalClient {
 	public ReadOnlyObjectProperty<ConnectionStatus> statusProperty() {
 		return status.getReadOnlyProperty();
 	}
+
+	/** The URI of OBS Studio's websocket server. */
+	private final String serverURI;
+
+	/** The password for authentication, null to take it from {@link CuteConfig}. */
+	private final String password;
+
+	/**
+	 * Instantiates a new OBSStudioClient which connects to OBS Studio on this machine with the
+	 * password from {@link CuteConfig}.
+	 */
+	public OBSStudioClient() {
+		this(SERVERURI, null);
+	}
+
+	/**
+	 * Instantiates a new OBSStudioClient.
+	 *
+	 * @param serverURI
+	 *            The URI of OBS Studio's websocket server, like "ws://127.0.0.1:4444/".
+	 * @param password
+	 *            The password for authentication, or null to take it from {@link CuteConfig}.
+	 */
+	public OBSStudioClient(String serverURI, String password) {
+		this.serverURI = serverURI;
+		this.password = password;
+	}
 	
 	@Override
 	public void connect() {
@@ -78,9 +123,14 @@ public class OBSStudioClient implements TypicalClient {
 		status.set(ConnectionStatus.CONNECTING);
 		try {
 			WebSocketContainer container = ContainerProvider.getWebSocketContainer();
-			container.connectToServer(this, new URI(SERVERURI));
+			container.connectToServer(this, new URI(serverURI));
 		} catch (Exception e) {
-			// Doing nothing, onError() will handle the situation.
+			// Usually onError() handles the situation. But it's not called if connecting was
+			// interrupted, e.g. because of timeout, so let's make sure the failure is reported.
+			if (status.get() == ConnectionStatus.CONNECTING) {
+				logger.error("Connection failed: " + e);
+				status.set(ConnectionStatus.CONNECTIONERROR);
+			}
 		}
 	}
 
@@ -100,20 +150,33 @@ public class OBSStudioClient implements TypicalClient {
 	}
 
 	@Override
-	public GetSceneNameResponse getSceneName() {
-		Response genericResponse = sendRequestGetResponse("GetCurrentScene", null);
-		String sceneName = null;
-		if (genericResponse.getErrorText() == null) {
-			sceneName = genericResponse.getRawData().getString("name");
-		}
-		return new GetSceneNameResponse(genericResponse.getErrorText(),
-				genericResponse.getRawData(), sceneName);
+	public StreamingProgramState getState() {
+		return state;
 	}
 
 	@Override
-	public Response setSceneName(String name) {
-		return sendRequestGetResponse("SetCurrentScene",
-				factory.createObjectBuilder().add("scene-name", name).build());
+	public CompletableFuture<GetSceneNameResponse> getSceneNameAsync() {
+		return sendRequestAsync("GetCurrentScene").thenApply(genericResponse -> {
+			String sceneName = null;
+			if (genericResponse.getErrorText() == null) {
+				sceneName = genericResponse.getRawData().path("name").textValue();
+			}
+			return new GetSceneNameResponse(genericResponse.getErrorText(),
+					genericResponse.getRawData(), sceneName);
+		}).exceptionally(e -> {
+			logger.error("Can't get current scene.", e);
+			return new GetSceneNameResponse("Can't get current scene: " + e, null, null);
+		});
+	}
+
+	@Override
+	public CompletableFuture<Response> setSceneNameAsync(String name) {
+		return sendRequestAsync("SetCurrentScene", "scene-name", name).thenApply(response -> {
+			// Let's not wait for the event to update the state.
+			if (response.getErrorText() == null)
+				state.sceneSwitched(name);
+			return response;
+		}).exceptionally(e -> NetUtil.buildErrorResponseAndLog("Can't set current scene.", e));
 	}
 
 	@OnOpen
@@ -121,33 +184,50 @@ public class OBSStudioClient implements TypicalClient {
 		this.session = session;
 		session.setMaxIdleTimeout(0);
 		logger.info("Connected.");
-		status.set(ConnectionStatus.ONLINE);
-		NetUtil.startInNewThread(() -> {
-			authenticateIfNeeded();
-		});
+		// Not ONLINE yet, OBS Studio rejects most requests until authentication is done.
+		status.set(ConnectionStatus.AUTHENTICATING);
+		authenticateIfNeeded();
 	}
 
 	@OnMessage
-	public void onMessage(JsonObject json) {
-		if (json.getString("update-type", null) != null) {
-			logger.debug("Received 'update-type' message. Doing nothing.");
+	public void onMessage(String text) {
+		Message message;
+		try {
+			message = OBSStudioCodec.decode(text, INTERESTINGEVENTS);
+		} catch (IOException e) {
+			logger.error("Can't decode message: " + text, e);
+			return;
+		}
+		if (message == OBSStudioCodec.IGNORED) {
+			return;
+		}
+		if (message.isEvent()) {
+			MessageDispatcher.dispatch(
+					() -> processEvent(message.getUpdateType(), message.getData()));
 			return;
 		}
 		// If it's not "update-type" event, but a response, lets process it.
-		String errorMessage = getErrorFromRawResponse(json);
-		String id = json.getString("message-id", null);
-		if (id != null) {
-			NetUtil.startInNewThread(() -> {
+		String errorMessage = message.getErrorText();
+		if (errorMessage != null) {
+			logger.error("Error response received: " + errorMessage);
+		}
+		long id = message.getMessageID();
+		if (id != -1) {
+			MessageDispatcher.dispatch(() -> {
 				logger.debug("Received response with ID: " + id);
-				RequestCallback callback = requestCallbacks.remove(id);
-				if (callback != null)
-					callback.processResponse(json, errorMessage);
-				else
-					logger.error(
-							"Callback with such ID is unknown: " + id + ". Doing nothing. o_O");
+				CompletableFuture<Response> future = pendingRequests.remove(id);
+				if (future != null) {
+					if ("Not Authenticated".equals(errorMessage)) {
+						status.set(ConnectionStatus.AUTHENTICATIONFAIL);
+					}
+					future.complete(new Response(errorMessage, message.getData()));
+				} else {
+					logger.error("Request with such ID is unknown or timed out: " + id
+							+ ". Doing nothing. o_O");
+				}
 			});
 		} else {
-			logger.error("Wrong response received, it doesn't have 'message-id' field.");
+			logger.error("Wrong response received, it doesn't have valid 'message-id' field.");
 		}
 	}
 
@@ -155,6 +235,15 @@ public class OBSStudioClient implements TypicalClient {
 	public void onClose(Session userSession, CloseReason reason) {
 		this.session = null;
 		logger.info("Disconnected with reason: " + reason.getReasonPhrase());
+		state.clear();
+		// Responses to pending requests will never come.
+		for (Long id : pendingRequests.keySet()) {
+			CompletableFuture<Response> future = pendingRequests.remove(id);
+			if (future != null) {
+				future.complete(NetUtil.buildErrorResponseAndLog(
+						"Connection was closed before response came.", null));
+			}
+		}
 		status.set(ConnectionStatus.OFFLINE);
 	}
 
@@ -168,8 +257,20 @@ public class OBSStudioClient implements TypicalClient {
 		logger.error("Unknown error during connection occurred.", thr);
 	}
 
+	/**
+	 * Finds out if authentication is needed and authenticates if it is. Doesn't wait for
+	 * responses, the rest happens when they come.
+	 */
 	private void authenticateIfNeeded() {
-		Response authNeededResponse = sendRequestGetResponse("GetAuthRequired", null);
+		sendRequestAsync("GetAuthRequired").thenAccept(this::processAuthRequiredResponse)
+				.exceptionally(e -> {
+					logger.error("Error occured during authentication.", e);
+					status.set(ConnectionStatus.ERROR);
+					return null;
+				});
+	}
+
+	private void processAuthRequiredResponse(Response authNeededResponse) {
 		boolean authRequired = true;
 		if (authNeededResponse.getErrorText() != null) {
 			logger.error("Can't figure out if authentication is needed, got error response: \""
@@ -177,18 +278,20 @@ public class OBSStudioClient implements TypicalClient {
 			status.set(ConnectionStatus.ERROR);
 			return;
 		}
-		authRequired = authNeededResponse.getRawData().getBoolean("authRequired");
+		authRequired = authNeededResponse.getRawData().path("authRequired").asBoolean();
 		if (!authRequired) {
 			logger.info("No authentication is needed. Ready to work.");
 			status.set(ConnectionStatus.ONLINE);
+			refreshState();
 			return;
 		}
 		logger.info("Authentication is required. Authenticating...");
 		status.set(ConnectionStatus.AUTHENTICATING);
 
-		String password = CuteConfig.getString(CuteConfig.NETWORKING, PASSCONFIGSUBKEY);
-		String challenge = authNeededResponse.getRawData().getString("challenge");
-		String salt = authNeededResponse.getRawData().getString("salt");
+		String password = (this.password != null) ? this.password
+				: CuteConfig.getString(CuteConfig.NETWORKING, PASSCONFIGSUBKEY);
+		String challenge = authNeededResponse.getRawData().path("challenge").asText();
+		String salt = authNeededResponse.getRawData().path("salt").asText();
 
 		String secretString = password + salt;
 		MessageDigest md;
@@ -205,11 +308,19 @@ public class OBSStudioClient implements TypicalClient {
 		byte[] authHash = md.digest(authString.getBytes());
 		String auth = Base64.getEncoder().encodeToString(authHash);
 
-		Response authResultResponse = sendRequestGetResponse("Authenticate",
-				factory.createObjectBuilder().add("auth", auth).build());
+		sendRequestAsync("Authenticate", "auth", auth)
+				.thenAccept(this::processAuthenticateResponse).exceptionally(e -> {
+					logger.error("Error occured during authentication.", e);
+					status.set(ConnectionStatus.ERROR);
+					return null;
+				});
+	}
+
+	private void processAuthenticateResponse(Response authResultResponse) {
 		if (authResultResponse.getErrorText() == null) {
 			logger.info("Successfully authenticated! ♥ Ready to work.");
 			status.set(ConnectionStatus.ONLINE);
+			refreshState();
 		} else {
 			logger.error("Access denied. Maybe wrong password? Got this error response: \""
 					+ authResultResponse.getErrorText() + "\".");
@@ -217,89 +328,105 @@ public class OBSStudioClient implements TypicalClient {
 		}
 	}
 
-	private synchronized boolean sendRequest(String requestType, JsonObject optionalRequestSpecificFields,
-			UUID messageID) {
-		// Create request builder with common fields.
-		JsonObjectBuilder requestBuilder = factory.createObjectBuilder()
-				.add("request-type", requestType).add("message-id", messageID.toString());
-		// Add request-specific fields to builder if they exist.
-		if (optionalRequestSpecificFields != null) {
-			optionalRequestSpecificFields.forEach((field, value) -> {
-				requestBuilder.add(field, value);
-			});
-		}
-		// Finally build request and serialize.
-		String serializedRequest = requestBuilder.build().toString();
-		// Send the request.
-		logger.info("Sending request: " + serializedRequest);
-		try {
-			session.getBasicRemote().sendText(serializedRequest);
-			logger.debug("Sent request with ID: " + messageID.toString());
-		} catch (IOException e) {
-			logger.error("Can't send the request.", e);
-			return false;
+	/**
+	 * Processes the event from OBS Studio. Updates {@link #state} on scene events, other events
+	 * are ignored.
+	 *
+	 * @param updateType
+	 *            The type of event.
+	 * @param json
+	 *            The event.
+	 */
+	private void processEvent(String updateType, JsonNode json) {
+		switch (updateType) {
+		case "SwitchScenes":
+			String sceneName = json.path("scene-name").textValue();
+			if (sceneName != null) {
+				logger.debug("OBS Studio switched scene to: '" + sceneName + "'.");
+				state.sceneSwitched(sceneName);
+			}
+			break;
+		case "ScenesChanged":
+		case "SceneCollectionChanged":
+			refreshState();
+			break;
+		default:
+			logger.debug("Received '" + updateType + "' event. Doing nothing.");
 		}
-		return true;
 	}
 
-	private Response sendRequestGetResponse(String requestType,
-			JsonObject optionalRequestSpecificFields) {
-		if (session == null || !session.isOpen()) {
-			return NetUtil.buildErrorResponseAndLog("Can't send request as there is no connection.",
-					null);
-		}
-		UUID messageID = UUID.randomUUID();
-		CountDownLatch responseReceivedLatch = new CountDownLatch(1);
-		AtomicReference<JsonObject> atomicRawResponse = new AtomicReference<>(null);
-		AtomicReference<String> atomicErrorMessage = new AtomicReference<>(null);
-		// Create callback
-		RequestCallback callback = (response, errorMessage) -> {
-			atomicRawResponse.set(response);
-			atomicErrorMessage.set(errorMessage);
-			responseReceivedLatch.countDown();
-		};
-		// Register callback with ID
-		requestCallbacks.put(messageID.toString(), callback);
-		try {
-			boolean sendingSuccess = sendRequest(requestType, optionalRequestSpecificFields,
-					messageID);
-			if (!sendingSuccess) {
-				// There is an error in fake response, that means the request wasn't even sent.
-				requestCallbacks.remove(messageID);
-				return NetUtil.buildErrorResponseAndLog("Can't send request for unknown reason.",
-						null);
-			}
-			boolean responseReceivedInTime = responseReceivedLatch.await(RESPONSETIMEOUT,
-					TimeUnit.MILLISECONDS);
-			if (!responseReceivedInTime) {
-				return NetUtil.buildErrorResponseAndLog("Timeout exceeded, no response.", null);
-			}
-			String errorMessage = atomicErrorMessage.get();
-			if ("Not Authenticated".equals(errorMessage)) {
-				status.set(ConnectionStatus.AUTHENTICATIONFAIL);
+	/**
+	 * Refreshes {@link #state} with "GetSceneList" request without waiting for the response.
+	 */
+	private void refreshState() {
+		long mark = state.startRefresh();
+		sendRequestAsync("GetSceneList").thenAccept(response -> {
+			if (response.getErrorText() != null)
+				return;
+			JsonNode raw = response.getRawData();
+			List<String> names = new ArrayList<String>();
+			for (JsonNode scene : raw.path("scenes")) {
+				String name = scene.path("name").textValue();
+				if (name != null)
+					names.add(name);
 			}
-			return new Response(errorMessage, atomicRawResponse.get());
-		} catch (InterruptedException e) {
-			requestCallbacks.remove(messageID);
-			return NetUtil.buildErrorResponseAndLog("Response waiting was interrupted.", e);
-		}
+			state.refreshed(raw.path("current-scene").textValue(), names, mark);
+			logger.info("Refreshed the state of OBS Studio. Current scene: '"
+					+ state.getCurrentSceneName() + "', scenes count: " + names.size() + ".");
+		});
 	}
 
-	private String getErrorFromRawResponse(JsonObject response) {
-		String status = response.getString("status", null);
-		if (status == null) {
-			String errorToShow = "Wrong response received, it doesn't have 'status' field.";
-			logger.error(errorToShow);
-			return errorToShow;
+	/**
+	 * Sends the request without waiting for the response.
+	 *
+	 * @param requestType
+	 *            The type of request.
+	 * @param requestSpecificFields
+	 *            The names and values of fields specific to the request type, in pairs: name,
+	 *            value, name, value...
+	 * @return The future which is completed with the response, or with the error response if
+	 *         the request can't be sent or if the response doesn't come in
+	 *         {@link #RESPONSETIMEOUT}.
+	 */
+	private CompletableFuture<Response> sendRequestAsync(String requestType,
+			String... requestSpecificFields) {
+		Session currentSession = session;
+		if (currentSession == null || !currentSession.isOpen()) {
+			return CompletableFuture.completedFuture(NetUtil.buildErrorResponseAndLog(
+					"Can't send request as there is no connection.", null));
 		}
-		boolean errorExists = status.equals("error");
-		if (errorExists) {
-			String errorText = response.getString("error");
-			logger.error("Error response received: " + errorText);
-			return errorText;
-		} else {
-			return null;
+		// IDs only need to be unique within the client, so a counter is enough.
+		long messageID = nextMessageID.incrementAndGet();
+		String serializedRequest = OBSStudioCodec.encodeRequest(requestType, messageID,
+				requestSpecificFields);
+		// Register the future before sending, so the response can't come earlier.
+		CompletableFuture<Response> future = new CompletableFuture<>();
+		pendingRequests.put(messageID, future);
+		ScheduledFuture<?> timeout = NetUtil.getScheduler().schedule(() -> {
+			if (pendingRequests.remove(messageID) != null) {
+				future.complete(NetUtil.buildErrorResponseAndLog(
+						"Timeout exceeded, no response for request with ID: " + messageID, null));
+			}
+		}, RESPONSETIMEOUT, TimeUnit.MILLISECONDS);
+		future.whenComplete((response, throwable) -> timeout.cancel(false));
+		// Send the request.
+		logger.info("Sending request: " + serializedRequest);
+		try {
+			currentSession.getAsyncRemote().sendText(serializedRequest, result -> {
+				if (result.isOK()) {
+					logger.debug("Sent request with ID: " + messageID);
+				} else if (pendingRequests.remove(messageID) != null) {
+					future.complete(NetUtil.buildErrorResponseAndLog("Can't send the request.",
+							result.getException()));
+				}
+			});
+		} catch (RuntimeException e) {
+			// For example, the session was closed just now.
+			if (pendingRequests.remove(messageID) != null) {
+				future.complete(NetUtil.buildErrorResponseAndLog("Can't send the request.", e));
+			}
 		}
+		return future;
 	}
 
 }
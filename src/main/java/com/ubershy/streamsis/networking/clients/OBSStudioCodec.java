@@ -0,0 +1,203 @@
+/** 
+ * StreamSis
+ * Copyright (C) 2016 Eva Balycheva
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.networking.clients;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * OBSStudioCodec encodes requests to OBS Studio's websocket plugin and decodes its responses and
+ * events.
+ * <p>
+ * It uses streaming JSON generator and parser of Jackson, so requests are written directly to
+ * text without building JSON objects first. When decoding, the fields which tell what the
+ * message is are read first. Events which are not interesting are skipped as soon as their
+ * "update-type" is read, without parsing the rest of them. As obs-websocket puts "update-type" at
+ * the beginning of events, usually nothing else is parsed.
+ */
+public final class OBSStudioCodec {
+
+	/** The factory of streaming generators and parsers, thread-safe. */
+	private static final JsonFactory jsonFactory = new ObjectMapper().getFactory();
+
+	/** The message which is decoded as not interesting and skipped. */
+	public static final Message IGNORED = new Message(null, -1, null, null);
+
+	private OBSStudioCodec() {
+	}
+
+	/**
+	 * Encodes the request to JSON text.
+	 *
+	 * @param requestType
+	 *            The type of request.
+	 * @param messageID
+	 *            The ID of message to match the response with the request.
+	 * @param requestSpecificFields
+	 *            The names and values of fields specific to the request type, in pairs: name,
+	 *            value, name, value...
+	 * @return The JSON text of the request.
+	 * @throws IllegalArgumentException
+	 *             If requestSpecificFields are not in pairs.
+	 */
+	public static String encodeRequest(String requestType, long messageID,
+			String... requestSpecificFields) {
+		if (requestSpecificFields.length % 2 != 0) {
+			throw new IllegalArgumentException("Request-specific fields must be in pairs.");
+		}
+		StringWriter writer = new StringWriter(64);
+		try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+			generator.writeStartObject();
+			generator.writeStringField("request-type", requestType);
+			// obs-websocket needs string IDs.
+			generator.writeStringField("message-id", Long.toString(messageID));
+			for (int i = 0; i < requestSpecificFields.length; i += 2) {
+				generator.writeStringField(requestSpecificFields[i], requestSpecificFields[i + 1]);
+			}
+			generator.writeEndObject();
+		} catch (IOException e) {
+			// StringWriter doesn't throw IOException.
+			throw new RuntimeException(e);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Decodes the message from OBS Studio.
+	 *
+	 * @param text
+	 *            The JSON text of the message.
+	 * @param interestingEvents
+	 *            The types of events to decode. Other events are skipped.
+	 * @return The decoded message, or {@link #IGNORED} if it's an event which is not interesting.
+	 * @throws IOException
+	 *             If the text is not a JSON object.
+	 */
+	public static Message decode(String text, Set<String> interestingEvents) throws IOException {
+		String updateType = null;
+		long messageID = -1;
+		String status = null;
+		String error = null;
+		ObjectNode data = JsonNodeFactory.instance.objectNode();
+		try (JsonParser parser = jsonFactory.createParser(text)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException("Message is not a JSON object.");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = parser.getCurrentName();
+				parser.nextToken();
+				switch (fieldName) {
+				case "update-type":
+					updateType = parser.getValueAsString();
+					if (updateType == null || !interestingEvents.contains(updateType))
+						return IGNORED;
+					data.put(fieldName, updateType);
+					break;
+				case "message-id":
+					messageID = parser.getValueAsLong(-1);
+					data.put(fieldName, parser.getText());
+					break;
+				case "status":
+					status = parser.getValueAsString();
+					data.put(fieldName, status);
+					break;
+				case "error":
+					error = parser.getValueAsString();
+					data.put(fieldName, error);
+					break;
+				default:
+					data.set(fieldName, parser.<JsonNode> readValueAsTree());
+				}
+			}
+		}
+		if (updateType != null) {
+			return new Message(updateType, -1, null, data);
+		}
+		String errorText;
+		if (status == null) {
+			errorText = "Wrong response received, it doesn't have 'status' field.";
+		} else if (status.equals("error")) {
+			errorText = (error == null) ? "Unknown error" : error;
+		} else {
+			errorText = null;
+		}
+		return new Message(null, messageID, errorText, data);
+	}
+
+	/**
+	 * The decoded message from OBS Studio: an event or a response.
+	 */
+	public static final class Message {
+
+		/** The type of event, null if it's a response. */
+		private final String updateType;
+
+		/** The ID of the request this response is for, -1 if it's an event or it's unknown. */
+		private final long messageID;
+
+		/** The text of error if the response is unsuccessful, otherwise null. */
+		private final String errorText;
+
+		/** All fields of the message. */
+		private final JsonNode data;
+
+		private Message(String updateType, long messageID, String errorText, JsonNode data) {
+			this.updateType = updateType;
+			this.messageID = messageID;
+			this.errorText = errorText;
+			this.data = data;
+		}
+
+		/**
+		 * Tells if the message is an event.
+		 *
+		 * @return true, if it's an event, false if it's a response.
+		 */
+		public boolean isEvent() {
+			return updateType != null;
+		}
+
+		public String getUpdateType() {
+			return updateType;
+		}
+
+		public long getMessageID() {
+			return messageID;
+		}
+
+		public String getErrorText() {
+			return errorText;
+		}
+
+		public JsonNode getData() {
+			return data;
+		}
+
+	}
+
+}
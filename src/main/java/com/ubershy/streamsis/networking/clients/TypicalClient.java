@@ -17,8 +17,11 @@
  */
 package com.ubershy.streamsis.networking.clients;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.ubershy.streamsis.networking.ConnectionMaintainer;
 import com.ubershy.streamsis.networking.ConnectionStatus;
+import com.ubershy.streamsis.networking.StreamingProgramState;
 import com.ubershy.streamsis.networking.responses.GetSceneNameResponse;
 import com.ubershy.streamsis.networking.responses.Response;
 
@@ -28,24 +31,60 @@ import javafx.beans.property.ReadOnlyObjectProperty;
  * Just a TypicalClient for connecting to web interfaces of Streaming Programs. Contains only common
  * methods shared across such programs like scene change method, for example, because most of the
  * Streaming Programs have "scenes".
+ * <p>
+ * Requests are asynchronous: the methods send the request and immediately return
+ * {@link CompletableFuture} which is completed when the response comes. So many requests can be
+ * in flight at the same time. The futures are never completed exceptionally: errors, including
+ * timeouts and lost connection, are reported in the {@link Response#getErrorText() error text}.
+ * The blocking methods just wait for the futures.
  */
 public interface TypicalClient {
 
 	/**
-	 * Gets the current scene name in the Streaming Program.
+	 * Requests the current scene name in the Streaming Program.
+	 *
+	 * @return The future of the current scene name in the Streaming Program.
+	 */
+	CompletableFuture<GetSceneNameResponse> getSceneNameAsync();
+
+	/**
+	 * Requests to set the current scene name in the Streaming Program to the one specified by
+	 * name.
+	 *
+	 * @param name
+	 *            The name of the scene to set as current in the Streaming Program.
+	 * @return The future of the response containing the information, was it successful or not.
+	 */
+	CompletableFuture<Response> setSceneNameAsync(String name);
+
+	/**
+	 * Gets the local mirror of the Streaming Program's state, which is kept up to date by the
+	 * client. Reading it doesn't need requests over the network.
+	 *
+	 * @return The {@link StreamingProgramState}.
+	 */
+	StreamingProgramState getState();
+
+	/**
+	 * Gets the current scene name in the Streaming Program. Blocks until the response comes.
 	 *
 	 * @return The current scene name in the Streaming Program.
 	 */
-	GetSceneNameResponse getSceneName();
+	default GetSceneNameResponse getSceneName() {
+		return getSceneNameAsync().join();
+	}
 
 	/**
-	 * Sets the current scene name in the Streaming Program to the one specified by name.
+	 * Sets the current scene name in the Streaming Program to the one specified by name. Blocks
+	 * until the response comes.
 	 *
 	 * @param name
 	 *            The name of the scene to set as current in the Streaming Program.
 	 * @return The response containing the information, was it successful or not.
 	 */
-	Response setSceneName(String name);
+	default Response setSceneName(String name) {
+		return setSceneNameAsync(name).join();
+	}
 	
 	/**
 	 * The read-only {@link ConnectionStatus} property. Used by {@link ConnectionMaintainer} and
@@ -17,7 +17,7 @@
  */
 package com.ubershy.streamsis.networking.responses;
 
-import javax.json.JsonObject;
+import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * The response that contains the name of the current scene of the Streaming Program.
@@ -33,7 +33,7 @@ public class GetSceneNameResponse extends Response {
 	 */
 	public String getSceneName() {return sceneName;}
 
-	public GetSceneNameResponse(String errorText, JsonObject rawData, String sceneName) {
+	public GetSceneNameResponse(String errorText, JsonNode rawData, String sceneName) {
 		super(errorText, rawData);
 		this.sceneName = sceneName;
 	}
@@ -17,7 +17,7 @@
  */
 package com.ubershy.streamsis.networking.responses;
 
-import javax.json.JsonObject;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import com.ubershy.streamsis.networking.clients.TypicalClient;
 
@@ -34,7 +34,7 @@ public class Response {
 	 * if no actual response came from the Streaming Program. In this case the {@link #errorText}
 	 * will have the error message.
 	 */
-	private final JsonObject rawData;
+	private final JsonNode rawData;
 	
 	/**
 	 * Instantiates a new response.
@@ -43,11 +43,11 @@ public class Response {
 	 *            The text describing the error. Can be null, if there's no error.
 	 * @param rawData
 	 *            The raw response in JSON format, if possible. If not, response from the client
-	 *            needs to be converted to {@link JsonObject}. Can be null.
+	 *            needs to be converted to {@link JsonNode}. Can be null.
 	 * @throws IllegalArgumentException
 	 *             If both parameters are null at the same time.
 	 */
-	public Response(String errorText, JsonObject rawData){
+	public Response(String errorText, JsonNode rawData){
 		if ((rawData == null) && (errorText == null))
 			throw new IllegalArgumentException("Both arguments can't be null.");
 		this.errorText = errorText;
@@ -69,7 +69,7 @@ public class Response {
 	 * @return The raw response in JSON format.
 	 * @see {@link #rawData} for more information.
 	 */
-	public JsonObject getRawData() {
+	public JsonNode getRawData() {
 		return rawData;
 	}
 
@@ -0,0 +1,578 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.playground;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ubershy.streamsis.networking.clients.OBSStudioClient;
+
+/**
+ * MockOBSServer is a stand-in for OBS Studio with websocket plugin, so networking of StreamSis
+ * can be tested and benchmarked without OBS Studio.
+ * <p>
+ * It's a small websocket server (RFC 6455) on plain sockets which speaks obs-websocket 4.x
+ * protocol: requests and responses matched by "message-id", authentication with challenge and
+ * salt, and "SwitchScenes" and "ScenesChanged" events. It supports only the requests
+ * {@link OBSStudioClient} uses. <br>
+ * To simulate trouble, it can delay responses, answer with errors and drop connections.
+ */
+public class MockOBSServer implements Closeable {
+
+	static final Logger logger = LoggerFactory.getLogger(MockOBSServer.class);
+
+	/** The GUID used in websocket handshake. */
+	private static final String WEBSOCKETGUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+	/** The maximum size of websocket message to accept. */
+	private static final int MAXMESSAGESIZE = 16 * 1024 * 1024;
+
+	private static final int OPCONTINUATION = 0x0;
+	private static final int OPTEXT = 0x1;
+	private static final int OPCLOSE = 0x8;
+	private static final int OPPING = 0x9;
+	private static final int OPPONG = 0xA;
+
+	private static final JsonBuilderFactory factory = Json.createBuilderFactory(null);
+
+	private final ServerSocket serverSocket;
+
+	/** The password, null if authentication is not required. */
+	private final String password;
+
+	/** The salt for authentication. */
+	private final String salt = UUID.randomUUID().toString();
+
+	/** The connected clients. */
+	private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+	/** Sends responses and events after {@link #latency}. */
+	private final ScheduledExecutorService responder = Executors
+			.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "MockOBSResponder");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/** The delay of responses in milliseconds. */
+	private volatile long latency = 0;
+
+	/** The probability of answering a request with error instead of the normal response. */
+	private volatile double errorProbability = 0;
+
+	/** The names of scenes. Guarded by this. */
+	private List<String> sceneNames;
+
+	/** The name of the current scene. Guarded by this. */
+	private String currentScene;
+
+	/** The time of the last scene switch by request, from {@link System#nanoTime()}. */
+	private volatile long lastSceneSwitchTime;
+
+	/** The number of received requests. */
+	private final AtomicLong requestsCount = new AtomicLong();
+
+	/**
+	 * Instantiates and starts a new MockOBSServer on this machine.
+	 *
+	 * @param port
+	 *            The port to listen on, or zero to choose any free port.
+	 * @param password
+	 *            The password, or null if authentication is not required.
+	 * @param sceneNames
+	 *            The names of scenes. The first one becomes current.
+	 * @throws IOException
+	 *             If the port can't be listened.
+	 */
+	public MockOBSServer(int port, String password, String... sceneNames) throws IOException {
+		if (sceneNames.length == 0) {
+			throw new IllegalArgumentException("At least one scene is needed");
+		}
+		this.password = password;
+		this.sceneNames = new ArrayList<String>(Arrays.asList(sceneNames));
+		this.currentScene = sceneNames[0];
+		serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(this::acceptConnections, "MockOBSAcceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		logger.info("Mock OBS server is listening on: " + getURI());
+	}
+
+	/**
+	 * Gets the URI for connecting to this server.
+	 *
+	 * @return The URI like "ws://127.0.0.1:4444/".
+	 */
+	public String getURI() {
+		return "ws://127.0.0.1:" + serverSocket.getLocalPort() + "/";
+	}
+
+	/**
+	 * Sets the delay of responses and events.
+	 *
+	 * @param latency
+	 *            The delay in milliseconds.
+	 */
+	public void setLatency(long latency) {
+		this.latency = latency;
+	}
+
+	/**
+	 * Sets the probability of answering a request with error instead of the normal response.
+	 *
+	 * @param errorProbability
+	 *            The probability from 0 to 1.
+	 */
+	public void setErrorProbability(double errorProbability) {
+		this.errorProbability = errorProbability;
+	}
+
+	/**
+	 * Gets the number of requests received since start.
+	 *
+	 * @return The number of requests.
+	 */
+	public long getRequestsCount() {
+		return requestsCount.get();
+	}
+
+	/**
+	 * Gets the name of the current scene.
+	 *
+	 * @return The name of the current scene.
+	 */
+	public synchronized String getCurrentScene() {
+		return currentScene;
+	}
+
+	/**
+	 * Gets the time when the current scene was switched by request the last time. Useful for
+	 * measuring the skew between several servers running in the same JVM.
+	 *
+	 * @return The time from {@link System#nanoTime()}, or zero if there were no switches.
+	 */
+	public long getLastSceneSwitchTime() {
+		return lastSceneSwitchTime;
+	}
+
+	/**
+	 * Switches the current scene like the user does it in OBS Studio, so clients get the event.
+	 *
+	 * @param sceneName
+	 *            The name of the scene.
+	 */
+	public void switchScene(String sceneName) {
+		synchronized (this) {
+			currentScene = sceneName;
+		}
+		broadcastEvent(factory.createObjectBuilder().add("update-type", "SwitchScenes")
+				.add("scene-name", sceneName).build());
+	}
+
+	/**
+	 * Replaces the scenes like the user does it in OBS Studio, so clients get the event.
+	 *
+	 * @param names
+	 *            The names of scenes. The current scene is kept if it's in the list, otherwise
+	 *            the first one becomes current.
+	 */
+	public void setSceneNames(String... names) {
+		synchronized (this) {
+			sceneNames = new ArrayList<String>(Arrays.asList(names));
+			if (!sceneNames.contains(currentScene))
+				currentScene = names[0];
+		}
+		broadcastEvent(factory.createObjectBuilder().add("update-type", "ScenesChanged").build());
+	}
+
+	/**
+	 * Drops all connections abruptly, like when OBS Studio crashes.
+	 */
+	public void dropConnections() {
+		for (Connection connection : connections) {
+			connection.closeSocket();
+		}
+	}
+
+	/**
+	 * Stops the server and drops all connections.
+	 */
+	@Override
+	public void close() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			logger.error("Can't close server socket", e);
+		}
+		dropConnections();
+		responder.shutdownNow();
+		logger.info("Mock OBS server is stopped. Requests received: " + requestsCount.get());
+	}
+
+	private void acceptConnections() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				Connection connection = new Connection(socket);
+				connections.add(connection);
+				Thread thread = new Thread(connection, "MockOBSConnection");
+				thread.setDaemon(true);
+				thread.start();
+			} catch (IOException e) {
+				if (!serverSocket.isClosed())
+					logger.error("Can't accept connection", e);
+			}
+		}
+	}
+
+	private void broadcastEvent(JsonObject event) {
+		String text = event.toString();
+		responder.schedule(() -> {
+			for (Connection connection : connections) {
+				// Like OBS Studio, let's not send events to unauthenticated clients.
+				if (connection.authenticated)
+					connection.sendText(text);
+			}
+		}, latency, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Makes the response to the request.
+	 *
+	 * @param connection
+	 *            The connection which sent the request.
+	 * @param request
+	 *            The request.
+	 * @param events
+	 *            The list where to put events caused by the request.
+	 * @return The response.
+	 */
+	private JsonObject respond(Connection connection, JsonObject request, List<JsonObject> events) {
+		String type = request.getString("request-type", "");
+		JsonObjectBuilder response = factory.createObjectBuilder().add("message-id",
+				request.getString("message-id", ""));
+		if (errorProbability > 0 && ThreadLocalRandom.current().nextDouble() < errorProbability) {
+			return error(response, "Injected error");
+		}
+		boolean authFree = type.equals("GetAuthRequired") || type.equals("Authenticate")
+				|| type.equals("GetVersion");
+		if (!connection.authenticated && !authFree) {
+			return error(response, "Not Authenticated");
+		}
+		switch (type) {
+		case "GetVersion":
+			response.add("obs-websocket-version", "4.9.1").add("version", 1.1);
+			break;
+		case "GetAuthRequired":
+			response.add("authRequired", password != null);
+			if (password != null)
+				response.add("challenge", connection.challenge).add("salt", salt);
+			break;
+		case "Authenticate":
+			if (password == null || connection.authenticated) {
+				return error(response, "Already authenticated");
+			}
+			String expected = hash(hash(password + salt) + connection.challenge);
+			if (!expected.equals(request.getString("auth", ""))) {
+				return error(response, "Authentication Failed.");
+			}
+			connection.authenticated = true;
+			break;
+		case "GetCurrentScene":
+			response.add("name", getCurrentScene()).add("sources",
+					factory.createArrayBuilder());
+			break;
+		case "SetCurrentScene":
+			String sceneName = request.getString("scene-name", "");
+			synchronized (this) {
+				if (!sceneNames.contains(sceneName)) {
+					return error(response, "requested scene does not exist");
+				}
+				currentScene = sceneName;
+			}
+			lastSceneSwitchTime = System.nanoTime();
+			events.add(factory.createObjectBuilder().add("update-type", "SwitchScenes")
+					.add("scene-name", sceneName).build());
+			break;
+		case "GetSceneList":
+			JsonArrayBuilder scenes = factory.createArrayBuilder();
+			synchronized (this) {
+				for (String name : sceneNames) {
+					scenes.add(factory.createObjectBuilder().add("name", name).add("sources",
+							factory.createArrayBuilder()));
+				}
+				response.add("current-scene", currentScene);
+			}
+			response.add("scenes", scenes);
+			break;
+		default:
+			return error(response, "invalid request type");
+		}
+		return response.add("status", "ok").build();
+	}
+
+	private static JsonObject error(JsonObjectBuilder response, String errorText) {
+		return response.add("status", "error").add("error", errorText).build();
+	}
+
+	/**
+	 * Hashes the text like obs-websocket does for authentication.
+	 *
+	 * @return The Base64 of SHA-256 of the text.
+	 */
+	private static String hash(String text) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			return Base64.getEncoder().encodeToString(md.digest(text.getBytes()));
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * The connection with a single client.
+	 */
+	private class Connection implements Runnable {
+
+		private final Socket socket;
+
+		private final OutputStream out;
+
+		/** The challenge for authentication. */
+		private final String challenge = UUID.randomUUID().toString();
+
+		/** Tells if the client is authenticated or doesn't need authentication. */
+		private volatile boolean authenticated = (password == null);
+
+		private Connection(Socket socket) throws IOException {
+			this.socket = socket;
+			this.out = new BufferedOutputStream(socket.getOutputStream());
+		}
+
+		@Override
+		public void run() {
+			try (DataInputStream in = new DataInputStream(
+					new BufferedInputStream(socket.getInputStream()))) {
+				if (!handshake(in))
+					return;
+				ByteArrayOutputStream message = new ByteArrayOutputStream();
+				while (true) {
+					int first = in.readUnsignedByte();
+					boolean fin = (first & 0x80) != 0;
+					int opcode = first & 0x0F;
+					byte[] payload = readPayload(in);
+					if (opcode == OPCLOSE) {
+						sendFrame(OPCLOSE, payload);
+						break;
+					} else if (opcode == OPPING) {
+						sendFrame(OPPONG, payload);
+					} else if (opcode == OPTEXT || opcode == OPCONTINUATION) {
+						message.write(payload);
+						if (message.size() > MAXMESSAGESIZE) {
+							throw new IOException("Message is too big");
+						}
+						if (fin) {
+							processRequest(new String(message.toByteArray(),
+									StandardCharsets.UTF_8));
+							message.reset();
+						}
+					}
+				}
+			} catch (EOFException | SocketException e) {
+				logger.debug("Client disconnected");
+			} catch (IOException | RuntimeException e) {
+				logger.error("Error in connection with client", e);
+			} finally {
+				closeSocket();
+				connections.remove(this);
+			}
+		}
+
+		/**
+		 * Reads HTTP upgrade request and answers it.
+		 *
+		 * @return true, if the connection is upgraded to websocket
+		 */
+		private boolean handshake(InputStream in) throws IOException {
+			Map<String, String> headers = new HashMap<String, String>();
+			String line = readLine(in);
+			while (!(line = readLine(in)).isEmpty()) {
+				int colon = line.indexOf(':');
+				if (colon > 0) {
+					headers.put(line.substring(0, colon).trim().toLowerCase(),
+							line.substring(colon + 1).trim());
+				}
+			}
+			String key = headers.get("sec-websocket-key");
+			if (key == null) {
+				writeAndFlush("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\n\r\n");
+				return false;
+			}
+			String accept;
+			try {
+				MessageDigest md = MessageDigest.getInstance("SHA-1");
+				accept = Base64.getEncoder().encodeToString(
+						md.digest((key + WEBSOCKETGUID).getBytes(StandardCharsets.US_ASCII)));
+			} catch (NoSuchAlgorithmException e) {
+				throw new RuntimeException(e);
+			}
+			writeAndFlush("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\n"
+					+ "Connection: Upgrade\r\nSec-WebSocket-Accept: " + accept + "\r\n\r\n");
+			return true;
+		}
+
+		private String readLine(InputStream in) throws IOException {
+			StringBuilder line = new StringBuilder();
+			int c;
+			while ((c = in.read()) != '\n') {
+				if (c == -1)
+					throw new EOFException();
+				if (c != '\r')
+					line.append((char) c);
+			}
+			return line.toString();
+		}
+
+		/**
+		 * Reads the payload of the frame, unmasking it.
+		 */
+		private byte[] readPayload(DataInputStream in) throws IOException {
+			int second = in.readUnsignedByte();
+			boolean masked = (second & 0x80) != 0;
+			long length = second & 0x7F;
+			if (length == 126) {
+				length = in.readUnsignedShort();
+			} else if (length == 127) {
+				length = in.readLong();
+			}
+			if (length < 0 || length > MAXMESSAGESIZE) {
+				throw new IOException("Frame is too big");
+			}
+			byte[] mask = new byte[4];
+			if (masked)
+				in.readFully(mask);
+			byte[] payload = new byte[(int) length];
+			in.readFully(payload);
+			if (masked) {
+				for (int i = 0; i < payload.length; i++) {
+					payload[i] ^= mask[i % 4];
+				}
+			}
+			return payload;
+		}
+
+		private void processRequest(String text) {
+			requestsCount.incrementAndGet();
+			JsonObject request = Json.createReader(new StringReader(text)).readObject();
+			List<JsonObject> events = new ArrayList<JsonObject>();
+			String response = respond(this, request, events).toString();
+			responder.schedule(() -> {
+				// Like OBS Studio, let's send events caused by the request before response.
+				for (JsonObject event : events) {
+					for (Connection connection : connections) {
+						if (connection.authenticated)
+							connection.sendText(event.toString());
+					}
+				}
+				sendText(response);
+			}, latency, TimeUnit.MILLISECONDS);
+		}
+
+		private void sendText(String text) {
+			try {
+				sendFrame(OPTEXT, text.getBytes(StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				logger.debug("Can't send message to client", e);
+			}
+		}
+
+		private void sendFrame(int opcode, byte[] payload) throws IOException {
+			synchronized (out) {
+				out.write(0x80 | opcode);
+				if (payload.length < 126) {
+					out.write(payload.length);
+				} else if (payload.length < 65536) {
+					out.write(126);
+					out.write(payload.length >>> 8);
+					out.write(payload.length);
+				} else {
+					out.write(127);
+					for (int shift = 56; shift >= 0; shift -= 8) {
+						out.write((int) ((long) payload.length >>> shift));
+					}
+				}
+				out.write(payload);
+				out.flush();
+			}
+		}
+
+		private void writeAndFlush(String text) throws IOException {
+			synchronized (out) {
+				out.write(text.getBytes(StandardCharsets.US_ASCII));
+				out.flush();
+			}
+		}
+
+		private void closeSocket() {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				logger.debug("Can't close client socket", e);
+			}
+		}
+	}
+
+}
@@ -19,13 +19,31 @@ package com.ubershy.streamsis.playground;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import javax.json.Json;
+import javax.json.JsonBuilderFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ubershy.streamsis.LowLevel;
 import com.ubershy.streamsis.Util;
 import com.ubershy.streamsis.elements.CuteElement;
@@ -45,13 +63,25 @@ import com.ubershy.streamsis.elements.actors.ActorBuilder;
 import com.ubershy.streamsis.elements.actors.UniversalActor;
 import com.ubershy.streamsis.elements.checkers.Checker;
 import com.ubershy.streamsis.elements.checkers.LogicalChecker;
+import com.ubershy.streamsis.elements.checkers.VariableChecker;
 import com.ubershy.streamsis.elements.checkers.numeric.RelationToPreviousNumberChecker;
 import com.ubershy.streamsis.elements.checkers.numeric.AbstractRelationToNumberChecker.BooleanNumberOperator;
 import com.ubershy.streamsis.elements.checkers.regional.RegionChecker;
 import com.ubershy.streamsis.elements.counters.TrueCheckerCounter;
 import com.ubershy.streamsis.elements.helpers.Coordinates;
+import com.ubershy.streamsis.networking.ConnectionMaintainer;
+import com.ubershy.streamsis.networking.ConnectionStatus;
+import com.ubershy.streamsis.networking.Endpoint;
+import com.ubershy.streamsis.networking.EndpointGroup;
+import com.ubershy.streamsis.networking.clients.OBSStudioClient;
+import com.ubershy.streamsis.networking.clients.OBSStudioCodec;
+import com.ubershy.streamsis.networking.responses.GetSceneNameResponse;
+import com.ubershy.streamsis.networking.responses.Response;
 import com.ubershy.streamsis.project.CuteProject;
+import com.ubershy.streamsis.project.ProjectFormat;
 import com.ubershy.streamsis.project.ProjectSerializator;
+import com.ubershy.streamsis.project.SerializationService;
+import com.ubershy.streamsis.project.StuffSerializator;
 
 import javafx.collections.ObservableList;
 
@@ -450,6 +480,593 @@ public final class Playground {
 		}
 	}
 	
+	/**
+	 * Generates a big Project which doesn't need any resource files. Useful for benchmarks. <br>
+	 * Each Actor has a {@link LogicalChecker} with several {@link VariableChecker VariableCheckers}
+	 * and On/Off Actions including {@link DelayedActions} and {@link SwitchSisSceneAction}. Each
+	 * SisScene contains a quarter of all Actors.
+	 *
+	 * @param actorsCount
+	 *            The number of Actors to generate.
+	 * @param sisScenesCount
+	 *            The number of SisScenes to generate.
+	 * @return the generated Project
+	 */
+	public static CuteProject generateLargeProject(int actorsCount, int sisScenesCount) {
+		CuteProject project = new CuteProject("LargeProject");
+		for (int i = 0; i < actorsCount; i++) {
+			UniversalActor actor = new UniversalActor("Actor" + i, 1000, 500, false, false);
+			Checker[] checkers = new Checker[4];
+			for (int j = 0; j < checkers.length; j++) {
+				checkers[j] = new VariableChecker("var" + (i + j), "value" + j);
+			}
+			actor.setChecker(LogicalChecker.createOr(checkers));
+			actor.addOnAction(new VariableSetterAction("var" + i, "on"));
+			ArrayList<Action> delayed = new ArrayList<Action>();
+			delayed.add(new VariableSetterAction("var" + i, "delayed"));
+			delayed.add(new SwitchSisSceneAction("SisScene" + (i % sisScenesCount)));
+			actor.addOnAction(new DelayedActions(delayed, 100));
+			actor.addOffAction(new VariableSetterAction("var" + i, "off"));
+			project.addActorToGlobalActors(actor);
+		}
+		for (int i = 0; i < sisScenesCount; i++) {
+			ArrayList<String> actorNames = new ArrayList<String>();
+			for (int j = i; j < actorsCount; j += 4) {
+				actorNames.add("Actor" + j);
+			}
+			project.addSisScene(new SisScene("SisScene" + i, actorNames));
+		}
+		project.setPrimarySisSceneName("SisScene0");
+		return project;
+	}
+
+	/**
+	 * Measures how fast a big generated Project is saved, loaded and copied. <br>
+	 * Each operation is measured twice: with a new ObjectMapper on each call (how StreamSis did
+	 * it before {@link SerializationService}) and with SerializationService.
+	 *
+	 * @param actorsCount
+	 *            The number of Actors in the generated Project.
+	 * @param iterations
+	 *            How many times to repeat each operation.
+	 */
+	public static void benchmarkProjectSerialization(int actorsCount, int iterations) {
+		CuteProject project = generateLargeProject(actorsCount, 8);
+		File file = new File(LowLevel.getAppDataPath() + "generatedTestProjects" + File.separator
+				+ "largeProjectBenchmark.streamsis");
+		String path = file.getPath();
+		Actor actorToCopy = project.getGlobalActorsUnmodifiable().get(0);
+		try {
+			ProjectSerializator.serializeToFile(project, path);
+			logger.info("Benchmarking serialization of Project with " + actorsCount
+					+ " Actors, file size: " + file.length() + " bytes");
+			measure("save, new ObjectMapper", iterations, () -> new ObjectMapper()
+					.writerWithDefaultPrettyPrinter().writeValue(file, project));
+			measure("save, SerializationService", iterations,
+					() -> SerializationService.getWriter(true).writeValue(file, project));
+			measure("load, new ObjectMapper", iterations, () -> {
+				ObjectMapper mapper = new ObjectMapper();
+				mapper.configure(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT, true);
+				mapper.configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true);
+				mapper.readValue(file, CuteProject.class);
+			});
+			measure("load, SerializationService", iterations,
+					() -> SerializationService.getProjectReader().readValue(file));
+			measure("copy Actor, new ObjectMapper", iterations * 100, () -> {
+				String serialized = new ObjectMapper().writeValueAsString(actorToCopy);
+				new ObjectMapper().readValue(serialized, actorToCopy.getClass());
+			});
+			measure("copy Actor, SerializationService", iterations * 100,
+					() -> StuffSerializator.makeACopyOfObjectUsingSerialization(actorToCopy));
+			measure("copy Actor, TokenBuffer", iterations * 100,
+					() -> StuffSerializator.makeACopyOfObjectUsingTokenBuffer(actorToCopy));
+		} catch (IOException e) {
+			logger.error("Serialization benchmark failed", e);
+		}
+	}
+
+	/**
+	 * Generates a deep tree of CuteElements: {@link LogicalChecker LogicalCheckers} nested into
+	 * each other, with {@link VariableChecker VariableCheckers} as leaves.
+	 *
+	 * @param depth
+	 *            The depth of the tree.
+	 * @param width
+	 *            The number of children of each LogicalChecker.
+	 * @return the root of the tree
+	 */
+	public static Checker generateDeepCheckerTree(int depth, int width) {
+		if (depth == 0) {
+			return new VariableChecker("var" + new Random().nextInt(100), "value");
+		}
+		Checker[] checkers = new Checker[width];
+		for (int i = 0; i < width; i++) {
+			checkers[i] = generateDeepCheckerTree(depth - 1, width);
+		}
+		return LogicalChecker.createOr(checkers);
+	}
+
+	/**
+	 * Measures how fast a deep tree of CuteElements is copied by the editor: via JSON string
+	 * (the old way) and via TokenBuffer.
+	 *
+	 * @param depth
+	 *            The depth of the tree.
+	 * @param iterations
+	 *            How many times to copy the tree.
+	 */
+	public static void benchmarkElementCopy(int depth, int iterations) {
+		Checker tree = generateDeepCheckerTree(depth, 3);
+		try {
+			logger.info("Benchmarking copy of CuteElement tree with depth " + depth + ", JSON size: "
+					+ StuffSerializator.serializeToString(tree, false).length() + " chars");
+			measure("copy tree, JSON string", iterations,
+					() -> StuffSerializator.makeACopyOfObjectUsingSerialization(tree));
+			measure("copy tree, TokenBuffer", iterations,
+					() -> StuffSerializator.makeACopyOfObjectUsingTokenBuffer(tree));
+		} catch (IOException e) {
+			logger.error("CuteElement copy benchmark failed", e);
+		}
+	}
+
+	/**
+	 * Measures how fast a big generated Project is loaded from JSON and from
+	 * {@link ProjectFormat#SMILE} files.
+	 *
+	 * @param actorsCount
+	 *            The number of Actors in the generated Project.
+	 * @param iterations
+	 *            How many times to repeat each operation.
+	 */
+	public static void benchmarkProjectFormats(int actorsCount, int iterations) {
+		CuteProject project = generateLargeProject(actorsCount, 8);
+		String directory = LowLevel.getAppDataPath() + "generatedTestProjects" + File.separator;
+		String jsonPath = directory + "largeProjectBenchmarkJson.streamsis";
+		String smilePath = directory + "largeProjectBenchmarkSmile.streamsis";
+		try {
+			ProjectSerializator.serializeToFile(project, jsonPath, ProjectFormat.JSON);
+			ProjectSerializator.convertProjectFile(jsonPath, smilePath, ProjectFormat.SMILE);
+			logger.info("Benchmarking formats of Project with " + actorsCount + " Actors, JSON: "
+					+ new File(jsonPath).length() + " bytes, Smile: "
+					+ new File(smilePath).length() + " bytes");
+			measure("load, JSON", iterations,
+					() -> ProjectSerializator.deSerializeFromFile(jsonPath));
+			measure("load, Smile", iterations,
+					() -> ProjectSerializator.deSerializeFromFile(smilePath));
+			measure("save, JSON", iterations,
+					() -> ProjectSerializator.serializeToFile(project, jsonPath, ProjectFormat.JSON));
+			measure("save, Smile", iterations, () -> ProjectSerializator.serializeToFile(project,
+					smilePath, ProjectFormat.SMILE));
+		} catch (IOException e) {
+			logger.error("Project formats benchmark failed", e);
+		}
+	}
+
+	/**
+	 * Tests networking with Streaming Program against {@link MockOBSServer}: connection,
+	 * authentication, requests, events, errors, timeouts and reconnection. Logs the result of each
+	 * check.
+	 *
+	 * @return true, if all checks passed
+	 */
+	public static boolean testNetworkingWithMockOBSServer() {
+		boolean passed = true;
+		String password = "cute";
+		try (MockOBSServer server = new MockOBSServer(0, password, "Game", "Pause", "Chat")) {
+			OBSStudioClient client = new OBSStudioClient(server.getURI(), password);
+			ConnectionMaintainer maintainer = new ConnectionMaintainer(client);
+			maintainer.maintainConnection();
+			passed &= check("connects and authenticates",
+					waitFor(() -> client.statusProperty().get() == ConnectionStatus.ONLINE, 5000));
+			passed &= check("mirrors scene list after connecting",
+					waitFor(() -> client.getState().isKnown(), 3000) && client.getState()
+							.getSceneNames().equals(Arrays.asList("Game", "Pause", "Chat")));
+			passed &= check("gets current scene",
+					"Game".equals(client.getSceneName().getSceneName()));
+			passed &= check("sets current scene", client.setSceneName("Pause").getErrorText() == null
+					&& "Pause".equals(server.getCurrentScene()));
+			server.switchScene("Chat");
+			passed &= check("mirror follows scene switched by user", waitFor(
+					() -> "Chat".equals(client.getState().getCurrentSceneName()), 3000));
+			server.setSceneNames("Game", "Ending");
+			passed &= check("mirror follows changed scene list",
+					waitFor(() -> client.getState().getSceneNames().contains("Ending"), 3000));
+			passed &= check("reports unknown scene",
+					client.setSceneName("Nonexistent").getErrorText() != null);
+			server.setErrorProbability(1);
+			passed &= check("reports error response", client.getSceneName().getErrorText() != null);
+			server.setErrorProbability(0);
+			server.setLatency(5000);
+			passed &= check("times out slow response",
+					client.getSceneName().getErrorText() != null);
+			server.setLatency(0);
+			server.dropConnections();
+			passed &= check("notices dropped connection", waitFor(
+					() -> client.statusProperty().get() != ConnectionStatus.ONLINE, 3000));
+			passed &= check("reconnects after dropped connection",
+					waitFor(() -> client.statusProperty().get() == ConnectionStatus.ONLINE, 10000));
+			passed &= check("works after reconnecting",
+					client.getSceneName().getErrorText() == null);
+			maintainer.stopMaintainingConnection();
+
+			OBSStudioClient wrongClient = new OBSStudioClient(server.getURI(), "wrong");
+			wrongClient.connect();
+			passed &= check("fails authentication with wrong password", waitFor(
+					() -> wrongClient.statusProperty().get() == ConnectionStatus.AUTHENTICATIONFAIL,
+					5000));
+			wrongClient.disconnect();
+		} catch (IOException e) {
+			logger.error("Can't start mock OBS server", e);
+			return false;
+		}
+		logger.info("Networking test " + (passed ? "passed" : "FAILED"));
+		return passed;
+	}
+
+	/**
+	 * Tests controlling several Streaming Programs together with {@link EndpointGroup} against
+	 * several {@link MockOBSServer MockOBSServers} with different passwords and latencies. Also
+	 * measures the skew of scene switches between them. Logs the result of each check.
+	 *
+	 * @param switchesCount
+	 *            The number of scene switches for measuring skew.
+	 * @return true, if all checks passed
+	 */
+	public static boolean testFanOutWithMockOBSServers(int switchesCount) {
+		boolean passed = true;
+		List<MockOBSServer> servers = new ArrayList<MockOBSServer>();
+		EndpointGroup group = null;
+		try {
+			servers.add(new MockOBSServer(0, "main", "Game", "Pause"));
+			servers.add(new MockOBSServer(0, "backup", "Game", "Pause"));
+			servers.add(new MockOBSServer(0, null, "Game", "Pause"));
+			servers.get(1).setLatency(10);
+			String[] passwords = { "main", "backup", null };
+			List<Endpoint> endpoints = new ArrayList<Endpoint>();
+			for (int i = 0; i < servers.size(); i++) {
+				String uri = servers.get(i).getURI();
+				endpoints.add(new Endpoint(uri, new OBSStudioClient(uri, passwords[i])));
+			}
+			EndpointGroup endpointGroup = new EndpointGroup(endpoints);
+			group = endpointGroup;
+			endpointGroup.maintainConnections();
+			passed &= check("connects to all endpoints", waitFor(
+					() -> endpointGroup.statusProperty().get() == ConnectionStatus.ONLINE, 5000));
+			passed &= check("mirrors know the current scene",
+					waitFor(() -> endpointGroup.isSceneCurrentEverywhere("Game"), 3000));
+			passed &= check("switches scene everywhere",
+					endpointGroup.setSceneNameAsync("Pause").join().getErrorText() == null
+							&& servers.stream()
+									.allMatch(s -> "Pause".equals(s.getCurrentScene())));
+			passed &= check("knows scene is current everywhere",
+					endpointGroup.isSceneCurrentEverywhere("Pause"));
+			servers.get(2).switchScene("Game");
+			passed &= check("notices scene switched by user in one endpoint", waitFor(
+					() -> !endpointGroup.isSceneCurrentEverywhere("Pause"), 3000));
+			passed &= check("records latency of each endpoint", endpoints.stream()
+					.allMatch(endpoint -> endpoint.getLastLatencyMillis() > 0));
+
+			long totalSkew = 0;
+			long maxSkew = 0;
+			servers.get(1).setLatency(0);
+			for (int i = 0; i < switchesCount; i++) {
+				endpointGroup.setSceneNameAsync((i % 2 == 0) ? "Game" : "Pause").join();
+				long first = Long.MAX_VALUE;
+				long last = Long.MIN_VALUE;
+				for (MockOBSServer server : servers) {
+					first = Math.min(first, server.getLastSceneSwitchTime());
+					last = Math.max(last, server.getLastSceneSwitchTime());
+				}
+				totalSkew += last - first;
+				maxSkew = Math.max(maxSkew, last - first);
+			}
+			logger.info(String.format("Skew of scene switches between %d endpoints: "
+					+ "%.3f ms average, %.3f ms max", servers.size(),
+					totalSkew / 1000000.0 / Math.max(1, switchesCount), maxSkew / 1000000.0));
+
+			servers.get(2).close();
+			passed &= check("notices lost endpoint", waitFor(
+					() -> endpointGroup.statusProperty().get() != ConnectionStatus.ONLINE, 3000));
+			Response partialResponse = endpointGroup.setSceneNameAsync("Pause").join();
+			passed &= check("reports which endpoint failed",
+					partialResponse.getErrorText() != null && partialResponse.getErrorText()
+							.startsWith(servers.get(2).getURI()));
+			passed &= check("still switches scene in other endpoints",
+					"Pause".equals(servers.get(0).getCurrentScene())
+							&& "Pause".equals(servers.get(1).getCurrentScene()));
+			logger.info("Endpoints:\n" + endpointGroup.getSummary());
+		} catch (IOException e) {
+			logger.error("Can't start mock OBS server", e);
+			return false;
+		} finally {
+			if (group != null)
+				group.stopMaintainingConnections();
+			for (MockOBSServer server : servers) {
+				server.close();
+			}
+		}
+		logger.info("Fan-out test " + (passed ? "passed" : "FAILED"));
+		return passed;
+	}
+
+	/**
+	 * Tests that an endpoint which accepts TCP connections but never answers the handshake
+	 * doesn't stop {@link ConnectionMaintainer} from reconnecting other endpoints, and that its
+	 * hanging connect attempts time out. Logs the result of each check.
+	 *
+	 * @return true, if all checks passed
+	 */
+	public static boolean testHangingEndpointWithMockOBSServer() {
+		boolean passed = true;
+		EndpointGroup group = null;
+		try (MockOBSServer server = new MockOBSServer(0, null, "Game", "Pause");
+				ServerSocket blackhole = new ServerSocket(0)) {
+			List<Socket> acceptedSockets = Collections.synchronizedList(new ArrayList<Socket>());
+			Thread acceptor = new Thread(() -> {
+				try {
+					while (true) {
+						acceptedSockets.add(blackhole.accept());
+					}
+				} catch (IOException e) {
+					// The blackhole is closed.
+				}
+			}, "Blackhole");
+			acceptor.setDaemon(true);
+			acceptor.start();
+			String blackholeURI = "ws://localhost:" + blackhole.getLocalPort();
+			Endpoint hangingEndpoint = new Endpoint(blackholeURI,
+					new OBSStudioClient(blackholeURI, null));
+			OBSStudioClient healthyClient = new OBSStudioClient(server.getURI(), null);
+			EndpointGroup endpointGroup = new EndpointGroup(Arrays.asList(hangingEndpoint,
+					new Endpoint(server.getURI(), healthyClient)));
+			group = endpointGroup;
+			endpointGroup.maintainConnections();
+			passed &= check("connects to healthy endpoint while other hangs", waitFor(
+					() -> healthyClient.statusProperty().get() == ConnectionStatus.ONLINE, 5000));
+			server.dropConnections();
+			passed &= check("reconnects healthy endpoint while other hangs", waitFor(
+					() -> healthyClient.statusProperty().get() == ConnectionStatus.ONLINE
+							&& healthyClient.getSceneName().getErrorText() == null,
+					10000));
+			passed &= check("times out hanging connect attempt and tries again", waitFor(
+					() -> hangingEndpoint.getConnectionMaintainer().getReconnectAttempts() > 0,
+					ConnectionMaintainer.CONNECTTIMEOUT + 5000));
+			synchronized (acceptedSockets) {
+				for (Socket socket : acceptedSockets) {
+					socket.close();
+				}
+			}
+		} catch (IOException e) {
+			logger.error("Can't start mock servers", e);
+			return false;
+		} finally {
+			if (group != null)
+				group.stopMaintainingConnections();
+		}
+		logger.info("Hanging endpoint test " + (passed ? "passed" : "FAILED"));
+		return passed;
+	}
+
+	/**
+	 * Benchmarks {@link OBSStudioClient} against {@link MockOBSServer}: latency of sequential
+	 * requests, throughput of pipelined requests and latency of scene switching.
+	 *
+	 * @param requestsCount
+	 *            The number of requests in each measurement.
+	 * @param latency
+	 *            The simulated network latency of the server in milliseconds.
+	 */
+	public static void benchmarkOBSStudioClient(int requestsCount, long latency) {
+		try (MockOBSServer server = new MockOBSServer(0, "cute", "Game", "Pause")) {
+			OBSStudioClient client = new OBSStudioClient(server.getURI(), "cute");
+			client.connect();
+			if (!waitFor(() -> client.statusProperty().get() == ConnectionStatus.ONLINE, 5000)) {
+				logger.error("Can't connect to mock OBS server");
+				return;
+			}
+			server.setLatency(latency);
+			// Let JIT compiler warm up.
+			for (int i = 0; i < Math.max(1, requestsCount / 10); i++) {
+				client.getSceneName();
+			}
+
+			long[] latencies = new long[requestsCount];
+			for (int i = 0; i < requestsCount; i++) {
+				long startTime = System.nanoTime();
+				client.getSceneName();
+				latencies[i] = System.nanoTime() - startTime;
+			}
+			logLatencies("sequential GetCurrentScene", latencies);
+
+			List<CompletableFuture<GetSceneNameResponse>> futures = new ArrayList<>(requestsCount);
+			long startTime = System.nanoTime();
+			for (int i = 0; i < requestsCount; i++) {
+				futures.add(client.getSceneNameAsync());
+			}
+			int errors = 0;
+			for (CompletableFuture<GetSceneNameResponse> future : futures) {
+				if (future.join().getErrorText() != null)
+					errors++;
+			}
+			double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+			logger.info(String.format("pipelined GetCurrentScene: %.0f requests/s, errors: %d",
+					requestsCount / seconds, errors));
+
+			for (int i = 0; i < requestsCount; i++) {
+				String sceneName = (i % 2 == 0) ? "Pause" : "Game";
+				long switchStartTime = System.nanoTime();
+				client.setSceneName(sceneName);
+				latencies[i] = System.nanoTime() - switchStartTime;
+			}
+			logLatencies("SetCurrentScene", latencies);
+			client.disconnect();
+		} catch (IOException e) {
+			logger.error("Can't start mock OBS server", e);
+		}
+	}
+
+	/**
+	 * Benchmarks encoding and decoding of messages to and from OBS Studio with
+	 * {@link OBSStudioCodec}. For comparison, also measures the same with javax.json trees, which
+	 * were used before.
+	 *
+	 * @param iterations
+	 *            How many times to encode or decode each message.
+	 */
+	public static void benchmarkOBSStudioCodec(int iterations) {
+		Set<String> interestingEvents = new HashSet<String>(Arrays.asList("SwitchScenes"));
+		String sources = "[{\"name\":\"Webcam\",\"type\":\"dshow_input\",\"volume\":1.0,"
+				+ "\"render\":true},{\"name\":\"Game capture\",\"type\":\"game_capture\","
+				+ "\"volume\":1.0,\"render\":true},{\"name\":\"Overlay\",\"type\":\"image_source\","
+				+ "\"volume\":1.0,\"render\":false}]";
+		String response = "{\"message-id\":\"42\",\"status\":\"ok\",\"name\":\"Game\",\"sources\":"
+				+ sources + "}";
+		String switchEvent = "{\"update-type\":\"SwitchScenes\",\"scene-name\":\"Game\","
+				+ "\"sources\":" + sources + "}";
+		String ignoredEvent = "{\"update-type\":\"StreamStatus\",\"streaming\":true,"
+				+ "\"recording\":false,\"preview-only\":false,\"bytes-per-sec\":318734,"
+				+ "\"kbits-per-sec\":2490,\"strain\":0.0,\"total-stream-time\":3600,"
+				+ "\"num-total-frames\":216000,\"num-dropped-frames\":12,\"fps\":60.0}";
+		JsonBuilderFactory factory = Json.createBuilderFactory(null);
+		AtomicLong counter = new AtomicLong();
+		try {
+			measurePerMessage("encode request, Jackson", iterations,
+					() -> OBSStudioCodec.encodeRequest("SetCurrentScene",
+							counter.incrementAndGet(), "scene-name", "Game"));
+			measurePerMessage("encode request, javax.json and UUID", iterations,
+					() -> factory.createObjectBuilder().add("request-type", "SetCurrentScene")
+							.add("message-id", UUID.randomUUID().toString())
+							.add("scene-name", "Game").build().toString());
+			measurePerMessage("decode response, Jackson", iterations,
+					() -> OBSStudioCodec.decode(response, interestingEvents));
+			measurePerMessage("decode response, javax.json", iterations,
+					() -> Json.createReader(new StringReader(response)).readObject());
+			measurePerMessage("decode interesting event, Jackson", iterations,
+					() -> OBSStudioCodec.decode(switchEvent, interestingEvents));
+			measurePerMessage("decode interesting event, javax.json", iterations,
+					() -> Json.createReader(new StringReader(switchEvent)).readObject());
+			measurePerMessage("skip ignored event, Jackson", iterations,
+					() -> OBSStudioCodec.decode(ignoredEvent, interestingEvents));
+			measurePerMessage("skip ignored event, javax.json", iterations,
+					() -> Json.createReader(new StringReader(ignoredEvent)).readObject());
+		} catch (IOException e) {
+			logger.error("OBS Studio codec benchmark failed", e);
+		}
+	}
+
+	/**
+	 * Runs the step many times and logs the average time of one run in nanoseconds. The results
+	 * of the step are kept, so JIT compiler can't throw the work away.
+	 *
+	 * @param name
+	 *            The name of the step to log.
+	 * @param iterations
+	 *            How many times to run the step.
+	 * @param step
+	 *            The step.
+	 * @throws IOException
+	 *             If the step throws it.
+	 */
+	private static void measurePerMessage(String name, int iterations, MessageStep step)
+			throws IOException {
+		Object[] results = new Object[1024];
+		// Let JIT compiler warm up.
+		for (int i = 0; i < iterations; i++) {
+			results[i & 1023] = step.run();
+		}
+		long startTime = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			results[i & 1023] = step.run();
+		}
+		double averageNs = (System.nanoTime() - startTime) / (double) iterations;
+		logger.info(String.format("%s: %.0f ns per message (%d results kept)", name, averageNs,
+				Arrays.stream(results).filter(Objects::nonNull).count()));
+	}
+
+	/** The operation on a single message to measure in benchmarks. */
+	@FunctionalInterface
+	private interface MessageStep {
+		Object run() throws IOException;
+	}
+
+	private static void logLatencies(String name, long[] latencies) {
+		long[] sorted = latencies.clone();
+		Arrays.sort(sorted);
+		double sum = 0;
+		for (long latency : sorted) {
+			sum += latency;
+		}
+		logger.info(String.format("%s: avg %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms", name,
+				sum / sorted.length / 1000000.0, sorted[sorted.length / 2] / 1000000.0,
+				sorted[(int) (sorted.length * 0.99)] / 1000000.0,
+				sorted[sorted.length - 1] / 1000000.0));
+	}
+
+	private static boolean check(String name, boolean result) {
+		if (result) {
+			logger.info("PASSED: " + name);
+		} else {
+			logger.error("FAILED: " + name);
+		}
+		return result;
+	}
+
+	/**
+	 * Waits until the condition becomes true.
+	 *
+	 * @param condition
+	 *            The condition.
+	 * @param timeout
+	 *            The maximum time to wait in milliseconds.
+	 * @return true, if the condition became true in time
+	 */
+	private static boolean waitFor(BooleanSupplier condition, long timeout) {
+		long deadline = System.currentTimeMillis() + timeout;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline)
+				return false;
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Runs the step several times and logs the average time of one run.
+	 *
+	 * @param name
+	 *            The name of the step to log.
+	 * @param iterations
+	 *            How many times to run the step.
+	 * @param step
+	 *            The step.
+	 * @throws IOException
+	 *             If the step throws it.
+	 */
+	private static void measure(String name, int iterations, BenchmarkStep step)
+			throws IOException {
+		// Let JIT compiler warm up.
+		for (int i = 0; i < Math.max(1, iterations / 10); i++) {
+			step.run();
+		}
+		long startTime = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			step.run();
+		}
+		double averageMs = (System.nanoTime() - startTime) / 1000000.0 / iterations;
+		logger.info(String.format("%s: %.3f ms", name, averageMs));
+	}
+
+	/** The operation to measure in benchmarks. */
+	@FunctionalInterface
+	private interface BenchmarkStep {
+		void run() throws IOException;
+	}
+
 	private static void setRandomNamesForCheckersActionsCountersInProject(CuteProject project) {
 		for (Actor actor : project.getGlobalActorsUnmodifiable()) {
 			setRandomNameForCuteElementRecursively(actor.getChecker());
@@ -20,9 +20,18 @@ package com.ubershy.streamsis.project;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.TreeMap;
 
 import org.slf4j.Logger;
@@ -31,10 +40,14 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ubershy.streamsis.TimingStatistics;
 import com.ubershy.streamsis.UserVars;
 import com.ubershy.streamsis.elements.CuteElement;
 import com.ubershy.streamsis.elements.SisScene;
 import com.ubershy.streamsis.elements.actors.Actor;
+import com.ubershy.streamsis.elements.actors.ActorCheckScheduler;
+import com.ubershy.streamsis.elements.actors.CheckBudgetGovernor;
+import com.ubershy.streamsis.elements.actors.CheckOverrunMonitor;
 
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanWrapper;
@@ -42,6 +55,7 @@ import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.ReadOnlyIntegerWrapper;
 import javafx.beans.property.ReadOnlyStringProperty;
 import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
@@ -201,6 +215,9 @@ public class CuteProject implements Serializable {
 	 */
 	@JsonIgnore
 	private final ReadOnlyIntegerWrapper initElementsNumber = new ReadOnlyIntegerWrapper(0);
+	/** The thread-safe counter behind {@link #initElementsNumber}. */
+	@JsonIgnore
+	private final AtomicInteger initElementsCounter = new AtomicInteger(0);
 	public ReadOnlyIntegerProperty initElementsNumberProperty() {
 		return initElementsNumber.getReadOnlyProperty();
 	}
@@ -225,6 +242,81 @@ public class CuteProject implements Serializable {
 		return initializing.getReadOnlyProperty();
 	}
 
+	/**
+	 * The index of {@link #globalActors} by their names for fast {@link #getActorByName(String)}.
+	 * <br>
+	 * It's rebuilt and replaced on each change of the list or of Actors' names, so it can be read
+	 * from any thread without locking.
+	 */
+	@JsonIgnore
+	private volatile Map<String, Actor> actorsByName = Collections.emptyMap();
+
+	/**
+	 * The index of {@link #sisScenes} by their names for fast {@link #getSisSceneByName(String)}.
+	 * <br>
+	 * It's rebuilt and replaced on each change of the list or of SisScenes' names.
+	 */
+	@JsonIgnore
+	private volatile Map<String, SisScene> sisScenesByName = Collections.emptyMap();
+
+	/**
+	 * The Actors of each SisScene resolved by their names. Filled on {@link #init()} and on
+	 * demand. Cleared when Actors, SisScenes or their names change.
+	 */
+	@JsonIgnore
+	private final IdentityHashMap<SisScene, Actor[]> resolvedSisSceneActors =
+			new IdentityHashMap<SisScene, Actor[]>();
+
+	/**
+	 * The fingerprints of Actors' subtrees at the moment of their last initialization.
+	 * 
+	 * @see {@link IncrementalInit}
+	 */
+	@JsonIgnore
+	private IdentityHashMap<Actor, String> initFingerprints = new IdentityHashMap<Actor, String>();
+
+	/** Tells if {@link #currentActors} were started and are working now. */
+	@JsonIgnore
+	private volatile boolean currentActorsRunning = false;
+
+	/** The lock which makes SisScene switches go one after another. */
+	@JsonIgnore
+	private final Object sisSceneSwitchLock = new Object();
+
+	/** Keeps assets of the current and reachable SisScenes loaded. */
+	@JsonIgnore
+	private final SisSceneAssetManager assetManager = new SisSceneAssetManager(this);
+
+	/** The latency of SisScene switches in microseconds since the Project was started. */
+	@JsonIgnore
+	private final TimingStatistics sisSceneSwitchLatency = new TimingStatistics();
+
+	/** Rebuilds {@link #actorsByName} when any Actor is renamed. */
+	@JsonIgnore
+	private final ChangeListener<String> actorNameListener = (o, oldVal, newVal) -> {
+		actorsByName = buildNameIndex(globalActors);
+		invalidateResolvedSisSceneActors();
+	};
+
+	/** Rebuilds {@link #sisScenesByName} when any SisScene is renamed. */
+	@JsonIgnore
+	private final ChangeListener<String> sisSceneNameListener = (o, oldVal, newVal) -> {
+		sisScenesByName = buildNameIndex(sisScenes);
+	};
+
+	/** Forgets the resolved Actors when Actor names inside any SisScene change. */
+	@JsonIgnore
+	private final ListChangeListener<String> sisSceneActorNamesListener = c -> {
+		invalidateResolvedSisSceneActors();
+	};
+
+	/**
+	 * The number of threads initializing Actors in parallel. <br>
+	 * Initialization mostly waits for disk, so there are more threads than processors.
+	 */
+	private static final int INITPARALLELISM = Math.max(2,
+			Runtime.getRuntime().availableProcessors() * 2);
+
 	private static final long serialVersionUID = 0x0626132d0b091a17L;
 	static final Logger logger = LoggerFactory.getLogger(CuteProject.class);
 
@@ -265,14 +357,37 @@ public class CuteProject implements Serializable {
 		this.globalActors.setAll(globalActors);
 		this.primarySisSceneName.set(primarySisSceneName);
 		this.initialUserVars.putAll(initialUserVars);
+		for (SisScene sisScene : this.sisScenes) {
+			sisScene.getElementInfo().nameProperty().addListener(sisSceneNameListener);
+			sisScene.getActorNames().addListener(sisSceneActorNamesListener);
+		}
+		for (Actor actor : this.globalActors) {
+			actor.getElementInfo().nameProperty().addListener(actorNameListener);
+		}
+		this.sisScenesByName = buildNameIndex(this.sisScenes);
+		this.actorsByName = buildNameIndex(this.globalActors);
 
 		this.sisScenes.addListener((ListChangeListener.Change<? extends SisScene> c) -> {
+			updateNameListeners(c, sisSceneNameListener);
+			while (c.next()) {
+				for (SisScene removed : c.getRemoved()) {
+					removed.getActorNames().removeListener(sisSceneActorNamesListener);
+				}
+				for (SisScene added : c.getAddedSubList()) {
+					added.getActorNames().addListener(sisSceneActorNamesListener);
+				}
+			}
+			sisScenesByName = buildNameIndex(this.sisScenes);
+			invalidateResolvedSisSceneActors();
 			// For safety lets stop project.
 			if (isStarted())
 				stopProject();
 			checkAndFixCurrentAndPrimarySisScenes();
 		});
 		this.globalActors.addListener((ListChangeListener.Change<? extends Actor> c) -> {
+			updateNameListeners(c, actorNameListener);
+			actorsByName = buildNameIndex(this.globalActors);
+			invalidateResolvedSisSceneActors();
 			// For safety lets stop project on each change
 			if (isStarted())
 				stopProject();
@@ -339,13 +454,7 @@ public class CuteProject implements Serializable {
 	public Actor getActorByName(String name) {
 		if (name == null)
 			return null;
-		Actor result = null;
-		for (Actor t : globalActors) {
-			if (t.getElementInfo().getName().equals(name)) {
-				result = t;
-			}
-		}
-		return result;
+		return actorsByName.get(name);
 	}
 
 	/**
@@ -359,13 +468,7 @@ public class CuteProject implements Serializable {
 	public SisScene getSisSceneByName(String name) {
 		if (name == null)
 			return null;
-		SisScene result = null;
-		for (SisScene t : sisScenes) {
-			if (t.getElementInfo().getName().equals(name)) {
-				result = t;
-			}
-		}
-		return result;
+		return sisScenesByName.get(name);
 	}
 
 	/**
@@ -396,9 +499,71 @@ public class CuteProject implements Serializable {
 			}
 		}
 
-		// Lets init all Actors
-		for (Actor actor : globalActors) {
-			actor.init();
+		// Lets init all Actors which changed since the last init. Unchanged healthy Actors don't
+		// need it. Actors are independent from each other and their init is mostly I/O, so
+		// they are initialized in parallel.
+		Actor[] actors = globalActors.toArray(new Actor[0]);
+		String[] fingerprints = new String[actors.length];
+		boolean[] skipped = new boolean[actors.length];
+		IdentityHashMap<Actor, String> oldInitFingerprints = initFingerprints;
+		String projectFingerprint = IncrementalInit.computeProjectFingerprint(this);
+		List<Callable<Void>> initTasks = new ArrayList<Callable<Void>>(actors.length);
+		for (int i = 0; i < actors.length; i++) {
+			final int index = i;
+			initTasks.add(() -> {
+				Actor actor = actors[index];
+				String fingerprint = IncrementalInit.computeFingerprint(actor,
+						projectFingerprint);
+				fingerprints[index] = fingerprint;
+				if (fingerprint != null && fingerprint.equals(oldInitFingerprints.get(actor))
+						&& IncrementalInit.isSubtreeHealthy(actor)) {
+					IncrementalInit.setSubtreeAsReadyAndHealthy(actor);
+					increaseInitNumberOfElements(
+							actor.countActorAndChildrenRecursivelyWithoutContainersOnTop());
+					skipped[index] = true;
+				} else {
+					actor.init();
+				}
+				return null;
+			});
+		}
+		ForkJoinPool initPool = new ForkJoinPool(INITPARALLELISM);
+		try {
+			List<Future<Void>> results = initPool.invokeAll(initTasks);
+			// Let's report errors in the order of Actors, not in the order they happened.
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					results.get(i).get();
+				} catch (ExecutionException e) {
+					throw new RuntimeException("Actor '" + actors[i].getElementInfo().getName()
+							+ "' can't be initialized", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Project initialization was interrupted", e);
+		} finally {
+			initPool.shutdown();
+		}
+		IdentityHashMap<Actor, String> newInitFingerprints = new IdentityHashMap<Actor, String>();
+		int skippedActors = 0;
+		for (int i = 0; i < actors.length; i++) {
+			newInitFingerprints.put(actors[i], fingerprints[i]);
+			if (skipped[i]) {
+				skippedActors++;
+			} else if (actors[i].getElementInfo().isBroken()) {
+				logger.info("Actor '" + actors[i].getElementInfo().getName() + "' is broken: "
+						+ actors[i].getElementInfo().getUnhealthyMessage());
+			}
+		}
+		initFingerprints = newInitFingerprints;
+		logger.info("Initialized " + (actors.length - skippedActors) + " Actors, skipped "
+				+ skippedActors + " unchanged Actors");
+
+		// Lets resolve Actors of each SisScene beforehand, so switching will be fast.
+		invalidateResolvedSisSceneActors();
+		for (SisScene scene : sisScenes) {
+			resolveSisSceneActors(scene);
 		}
 		if (getSisSceneByName(getPrimarySisSceneName()) == null) {
 			String firstSisSceneName = this.sisScenes.get(0).getElementInfo().getName();
@@ -516,6 +681,7 @@ public class CuteProject implements Serializable {
 		if (globalActors.contains(actor)) {
 			globalActors.remove(actor);
 		}
+		SisSceneAssetManager.unloadAssetsOfElementTree(actor);
 	}
 
 	/**
@@ -569,6 +735,12 @@ public class CuteProject implements Serializable {
 					// Lets initialize everything before starting
 					init();
 					UserVars.setAll(initialUserVars);
+					ActorCheckScheduler.resetStatistics();
+					CheckBudgetGovernor.loadBudgetFromConfig();
+					CheckOverrunMonitor.resetStatistics();
+					CheckOverrunMonitor.loadPolicyFromConfig();
+					assetManager.loadSettingsFromConfig();
+					sisSceneSwitchLatency.reset();
 					started.set(true);
 					logger.info("Project '" + getName() + "' started");
 					switchSisSceneTo(getPrimarySisSceneName());
@@ -599,18 +771,19 @@ public class CuteProject implements Serializable {
 	 */
 	public void stopCurrentActors() {
 		stopChosenActors(currentActors);
+		currentActorsRunning = false;
 	}
 
 	/**
-	 * Stops chosen Actors in the provided list.
+	 * Stops chosen Actors in the provided list. The Actors are stopped in parallel.
 	 */
 	public void stopChosenActors(List<Actor> list) {
 		if (!list.isEmpty()) {
 			logger.info("Stopping Actors... ");
-			for (Actor actor : list) {
+			new ArrayList<Actor>(list).parallelStream().forEach(actor -> {
 				stopActor(actor);
 				logger.info("\tActor stopped: '" + actor.getElementInfo().getName() + "'");
-			}
+			});
 		}
 	}
 
@@ -621,6 +794,16 @@ public class CuteProject implements Serializable {
 		if (isStarted()) {
 			stopCurrentActors();
 			UserVars.clear();
+			ActorCheckScheduler.logStatistics();
+			CheckOverrunMonitor.logStatistics();
+			if (sisSceneSwitchLatency.getCount() != 0) {
+				logger.info("SisScene switch latency in microseconds: " + sisSceneSwitchLatency);
+			}
+			for (Map.Entry<String, Long> entry : assetManager.getResidentAssetBytesPerSisScene()
+					.entrySet()) {
+				logger.info(String.format("SisScene '%s' resident assets: %.2f MB",
+						entry.getKey(), entry.getValue() / (1024.0 * 1024.0)));
+			}
 			started.set(false);
 			logger.info("Project '" + getName() + "' stopped");
 		}
@@ -634,7 +817,7 @@ public class CuteProject implements Serializable {
 	 *            the name of SisScene to <i>which</i> we want to <i>switch</i>
 	 */
 	public final void switchSisSceneTo(String switchToSisSceneName) {
-
+		long switchStartTime = System.nanoTime();
 		SisScene switchToSisScene = getSisSceneByName(switchToSisSceneName);
 		if (switchToSisScene == null || switchToSisSceneName.isEmpty())
 			return;
@@ -649,46 +832,152 @@ public class CuteProject implements Serializable {
 			switched = true;
 		}
 
-		synchronized (currentActors) {
-			if (switched) {
-				// We will clean current SisScene from non-existing Actors
-				// Also here we are filling the array of Actors to run. Working directly with
-				// currentActors is bad idea.
-				ArrayList<Actor> actorsThatNeedToBeRunning = new ArrayList<Actor>();
-				ArrayList<String> actorsToDeleteFromSisScene = new ArrayList<String>();
-				for (String actorName : switchToSisScene.getActorNames()) {
-					Actor actor = getActorByName(actorName);
-					if (actor == null) {
-						actorsToDeleteFromSisScene.add(actorName);
-					} else {
-						actorsThatNeedToBeRunning.add(actor);
+		synchronized (sisSceneSwitchLock) {
+			List<Actor> actorsToStop = Collections.emptyList();
+			List<Actor> actorsToStart;
+			synchronized (currentActors) {
+				if (switched) {
+					Actor[] actorsThatNeedToBeRunning = resolveSisSceneActors(switchToSisScene);
+					if (actorsThatNeedToBeRunning.length != switchToSisScene.getActorNames()
+							.size()) {
+						// We will clean current SisScene from non-existing Actors
+						cleanSisSceneFromNonExistingActors(switchToSisScene);
 					}
+					// Identity sets help to find the difference between SisScenes without
+					// comparing each Actor with each Actor.
+					Set<Actor> runningSet = Collections
+							.newSetFromMap(new IdentityHashMap<Actor, Boolean>());
+					runningSet.addAll(Arrays.asList(actorsThatNeedToBeRunning));
+					Set<Actor> alreadyRunningSet = Collections
+							.newSetFromMap(new IdentityHashMap<Actor, Boolean>());
+					if (currentActorsRunning) {
+						alreadyRunningSet.addAll(currentActors);
+						actorsToStop = new ArrayList<Actor>();
+						for (Actor actor : currentActors) {
+							if (!runningSet.contains(actor))
+								actorsToStop.add(actor);
+						}
+					}
+					actorsToStart = new ArrayList<Actor>();
+					for (Actor actor : actorsThatNeedToBeRunning) {
+						if (!alreadyRunningSet.contains(actor))
+							actorsToStart.add(actor);
+					}
+					currentActors.setAll(actorsThatNeedToBeRunning);
+				} else {
+					actorsToStart = new ArrayList<Actor>(currentActors);
 				}
-				for (String actorName : actorsToDeleteFromSisScene) {
-					switchToSisScene.getActorNames().remove(actorName);
-					logger.debug("Deleting from SisScene '" + switchToSisSceneName
-							+ "' the non-existing Actor name: '" + actorName + "'");
-				}
-
-				// Lets find all Actors that need to be stopped
-				// Firstly lets get list of currentActors
-				ArrayList<Actor> actorsThatNeedToBeStopped = new ArrayList<Actor>(currentActors);
-				// Finally subtraction will help us to find Actors to stop
-				actorsThatNeedToBeStopped.removeAll(actorsThatNeedToBeRunning);
-
-				if (isStarted())
-					stopChosenActors(actorsThatNeedToBeStopped);
-				currentActors.setAll(actorsThatNeedToBeRunning);
 			}
 
 			if (isStarted()) {
+				stopChosenActors(actorsToStop);
 				logger.info("Executing SisScene '" + switchToSisSceneName + "' ("
-						+ currentActors.size() + " Actors):");
-				for (Actor actor : currentActors) {
-					startActor(actor);
+						+ currentActors.size() + " Actors, " + actorsToStart.size()
+						+ " of them are starting):");
+				actorsToStart.parallelStream().forEach(this::startActor);
+				currentActorsRunning = true;
+				long latency = (System.nanoTime() - switchStartTime) / 1000;
+				sisSceneSwitchLatency.record(latency);
+				logger.info(String.format("SisScene '%s' switched in %.2f ms",
+						switchToSisSceneName, latency / 1000.0));
+				assetManager.sisSceneBecameCurrent(switchToSisScene);
+			}
+		}
+	}
+
+	/**
+	 * Gets the Actors of the SisScene resolved by their names. <br>
+	 * The result is cached until Actors, SisScenes or their names change. Names of Actors which
+	 * don't exist are skipped.
+	 *
+	 * @param sisScene
+	 *            the SisScene
+	 * @return the array of SisScene's Actors in the order of their names in the SisScene
+	 */
+	Actor[] resolveSisSceneActors(SisScene sisScene) {
+		synchronized (resolvedSisSceneActors) {
+			Actor[] resolved = resolvedSisSceneActors.get(sisScene);
+			if (resolved == null) {
+				ArrayList<Actor> actors = new ArrayList<Actor>();
+				for (String actorName : sisScene.getActorNames()) {
+					Actor actor = getActorByName(actorName);
+					if (actor != null) {
+						actors.add(actor);
+					}
 				}
+				resolved = actors.toArray(new Actor[0]);
+				resolvedSisSceneActors.put(sisScene, resolved);
+			}
+			return resolved;
+		}
+	}
+
+	/**
+	 * Forgets the resolved Actors of all SisScenes, so they are resolved again on the next use.
+	 */
+	private void invalidateResolvedSisSceneActors() {
+		synchronized (resolvedSisSceneActors) {
+			resolvedSisSceneActors.clear();
+		}
+	}
+
+	/**
+	 * Removes names of non-existing Actors from the SisScene.
+	 *
+	 * @param sisScene
+	 *            the SisScene to clean
+	 */
+	private void cleanSisSceneFromNonExistingActors(SisScene sisScene) {
+		ArrayList<String> actorsToDeleteFromSisScene = new ArrayList<String>();
+		for (String actorName : sisScene.getActorNames()) {
+			if (getActorByName(actorName) == null) {
+				actorsToDeleteFromSisScene.add(actorName);
 			}
 		}
+		for (String actorName : actorsToDeleteFromSisScene) {
+			sisScene.getActorNames().remove(actorName);
+			logger.debug("Deleting from SisScene '" + sisScene.getElementInfo().getName()
+					+ "' the non-existing Actor name: '" + actorName + "'");
+		}
+	}
+
+	/**
+	 * Gets the statistics of SisScene switch latency in microseconds since the Project was
+	 * started. The latency is measured from the switch request till all needed Actors are
+	 * started and all unneeded Actors are stopped.
+	 *
+	 * @return the {@link TimingStatistics} of SisScene switches
+	 */
+	@JsonIgnore
+	public TimingStatistics getSisSceneSwitchStatistics() {
+		return sisSceneSwitchLatency;
+	}
+
+	/**
+	 * Gets the {@link SisSceneAssetManager} which keeps assets of the current and reachable
+	 * SisScenes loaded. It also tells how much memory assets of each SisScene occupy.
+	 *
+	 * @return the SisSceneAssetManager
+	 */
+	@JsonIgnore
+	public SisSceneAssetManager getAssetManager() {
+		return assetManager;
+	}
+
+	/**
+	 * Gets short human-readable summary of SisScene switch latency. <br>
+	 * Suitable for showing in the status bar.
+	 *
+	 * @return the summary, like "SisScene switch p99: 0.42 ms", or empty String if there were no
+	 *         switches yet.
+	 */
+	@JsonIgnore
+	public String getSisSceneSwitchSummary() {
+		if (sisSceneSwitchLatency.getCount() == 0) {
+			return "";
+		}
+		return String.format("SisScene switch p99: %.2f ms",
+				sisSceneSwitchLatency.getPercentile(99) / 1000.0);
 	}
 
 	/**
@@ -758,8 +1047,27 @@ public class CuteProject implements Serializable {
 	 * {@link CuteProject#init()}.
 	 */
 	public void incrementInitNumberOfElements() {
+		increaseInitNumberOfElements(1);
+	}
+
+	/**
+	 * Increase the quantity of initialized {@link CuteElement}s during whole
+	 * {@link CuteProject#init()} by the specified amount. <br>
+	 * Used for CuteElements which didn't need initialization.
+	 *
+	 * @param amount
+	 *            the number of CuteElements
+	 */
+	public void increaseInitNumberOfElements(int amount) {
 		if (initializing.get()) {
-			initElementsNumber.set(initElementsNumber.get() + 1);
+			int number = initElementsCounter.addAndGet(amount);
+			// CuteElements are initialized in parallel, so let's update the property under lock
+			// and never let it go back.
+			synchronized (initElementsNumber) {
+				if (number > initElementsNumber.get()) {
+					initElementsNumber.set(number);
+				}
+			}
 		}
 	}
 
@@ -811,7 +1119,10 @@ public class CuteProject implements Serializable {
 	 */
 	private void setProjectAsInitializing() {
 		initializing.set(true);
-		initElementsNumber.set(0);
+		initElementsCounter.set(0);
+		synchronized (initElementsNumber) {
+			initElementsNumber.set(0);
+		}
 	}
 
 	/**
@@ -820,7 +1131,7 @@ public class CuteProject implements Serializable {
 	private void setProjectAsInitialized() {
 		initializing.set(false);
 		int all = allElementsNumber.get();
-		int inited = initElementsNumber.get();
+		int inited = initElementsCounter.get();
 		if (inited != all) {
 			throw new RuntimeException("The number of initialized Elements(" + inited + ") doesn't "
 					+ "match with the " + "number of all Elements(" + all + ") in the Project.");
@@ -828,6 +1139,44 @@ public class CuteProject implements Serializable {
 		logger.info("Project Initialized");
 	}
 
+	/**
+	 * Builds the index of Actors or SisScenes by their names. <br>
+	 * If several elements have the same name, the last one in the list wins.
+	 *
+	 * @param list
+	 *            the list with Actors or SisScenes
+	 * @return the unmodifiable map from name to element
+	 */
+	private static <T extends CuteElement> Map<String, T> buildNameIndex(List<T> list) {
+		HashMap<String, T> index = new HashMap<String, T>(list.size() * 2);
+		for (T element : list) {
+			index.put(element.getElementInfo().getName(), element);
+		}
+		return Collections.unmodifiableMap(index);
+	}
+
+	/**
+	 * Moves the name listener from removed Actors/SisScenes to added ones, so the name index
+	 * notices renaming of the elements in the list.
+	 *
+	 * @param c
+	 *            the change of the list with Actors or SisScenes
+	 * @param nameListener
+	 *            the listener which rebuilds the name index
+	 */
+	private static void updateNameListeners(ListChangeListener.Change<? extends CuteElement> c,
+			ChangeListener<String> nameListener) {
+		while (c.next()) {
+			for (CuteElement removed : c.getRemoved()) {
+				removed.getElementInfo().nameProperty().removeListener(nameListener);
+			}
+			for (CuteElement added : c.getAddedSubList()) {
+				added.getElementInfo().nameProperty().addListener(nameListener);
+			}
+		}
+		c.reset();
+	}
+
 	/**
 	 * Validates list with Actors/SisScenes. <br>
 	 * Throws exceptions if something is wrong telling programmer about errors he made.
@@ -0,0 +1,254 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.project;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ubershy.streamsis.elements.CuteElement;
+import com.ubershy.streamsis.elements.ElementInfo;
+import com.ubershy.streamsis.elements.SisScene;
+import com.ubershy.streamsis.elements.actors.Actor;
+
+/**
+ * IncrementalInit helps {@link CuteProject#init()} to skip initialization of {@link Actor Actors}
+ * which didn't change since their last initialization.
+ * <p>
+ * Initialization of some CuteElements is expensive, e.g. regional Checkers load and decode images
+ * and file listers scan directories. Usually the user changes only one Actor in the editor, but
+ * the whole Project is initialized again on each start. So for each Actor IncrementalInit makes a
+ * fingerprint of its subtree, which consists of:
+ * <ul>
+ * <li>The serialized form of the Actor with all its children, so any change of their settings or
+ * children changes the fingerprint.</li>
+ * <li>The size and modification time of each file or directory the subtree refers to. For
+ * directories, also the size and modification time of each file inside.</li>
+ * <li>The things outside the Actor which CuteElements check during initialization, i.e. the
+ * names of the Project's SisScenes, see {@link #computeProjectFingerprint(CuteProject)}. For
+ * example, SwitchSisSceneAction is broken if its SisScene is deleted.</li>
+ * </ul>
+ * If the fingerprint is the same as during the last initialization and all CuteElements in the
+ * subtree are healthy, the Actor doesn't need to be initialized again. Only the cheap reset of
+ * state accumulated during the previous run is needed, see {@link CuteElement#resetRuntimeState()}.
+ */
+public final class IncrementalInit {
+
+	static final Logger logger = LoggerFactory.getLogger(IncrementalInit.class);
+
+	/** The names of serialized CuteElement fields which contain paths to files or directories. */
+	private static final Set<String> FILEREFERENCEFIELDS = new HashSet<String>(
+			Arrays.asList("targetImagePath", "soundPath", "srcPath", "srcFilePath", "dstFilePath",
+					"path", "workingDir", "persistentSourceFileList"));
+
+	private IncrementalInit() {
+	}
+
+	/**
+	 * Computes the fingerprint of the things in the Project which CuteElements check during
+	 * initialization, but which don't belong to any Actor. For now it's the sorted names of
+	 * SisScenes.
+	 *
+	 * @param project
+	 *            The CuteProject.
+	 * @return the fingerprint of the Project
+	 */
+	public static String computeProjectFingerprint(CuteProject project) {
+		List<String> sisSceneNames = new ArrayList<String>();
+		for (SisScene sisScene : project.getSisScenesUnmodifiable()) {
+			sisSceneNames.add(sisScene.getElementInfo().getName());
+		}
+		Collections.sort(sisSceneNames);
+		return "SisScenes: " + String.join("|", sisSceneNames);
+	}
+
+	/**
+	 * Computes the fingerprint of the Actor's subtree.
+	 *
+	 * @param actor
+	 *            The Actor.
+	 * @param projectFingerprint
+	 *            The result of {@link #computeProjectFingerprint(CuteProject)}.
+	 * @return the fingerprint, or null if it can't be computed, so the Actor must be initialized
+	 */
+	public static String computeFingerprint(Actor actor, String projectFingerprint) {
+		JsonNode tree;
+		try {
+			tree = SerializationService.getMapper().valueToTree(actor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("Can't compute fingerprint of Actor '"
+					+ actor.getElementInfo().getName() + "'", e);
+			return null;
+		}
+		StringBuilder fingerprint = new StringBuilder(projectFingerprint);
+		fingerprint.append('\n').append(tree.toString());
+		List<String> paths = new ArrayList<String>();
+		collectFileReferences(tree, FILEREFERENCEFIELDS, paths);
+		for (String path : paths) {
+			appendFileFingerprint(fingerprint, path);
+		}
+		return fingerprint.toString();
+	}
+
+	/**
+	 * Tells if the Actor and all CuteElements inside it are healthy, i.e. neither broken nor
+	 * sick.
+	 *
+	 * @param actor
+	 *            The Actor.
+	 * @return true, if the whole subtree is healthy
+	 */
+	public static boolean isSubtreeHealthy(Actor actor) {
+		if (!isHealthy(actor.getElementInfo()))
+			return false;
+		for (CuteElement container : actor.getChildren()) {
+			for (CuteElement child : container.getChildren()) {
+				if (!isElementAndChildrenHealthy(child))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Makes the Actor and all CuteElements inside it ready to work again without initializing
+	 * them. Does the same to their state as {@link CuteElement#init()} does to healthy
+	 * CuteElements, including {@link CuteElement#resetRuntimeState()}.
+	 *
+	 * @param actor
+	 *            The Actor which subtree didn't change since the last initialization.
+	 */
+	public static void setSubtreeAsReadyAndHealthy(Actor actor) {
+		actor.getElementInfo().setAsReadyAndHealthy();
+		actor.resetRuntimeState();
+		for (CuteElement container : actor.getChildren()) {
+			for (CuteElement child : container.getChildren()) {
+				setElementAndChildrenAsReadyAndHealthy(child);
+			}
+		}
+	}
+
+	private static boolean isHealthy(ElementInfo info) {
+		return !info.isBroken() && !info.isSick();
+	}
+
+	private static boolean isElementAndChildrenHealthy(CuteElement element) {
+		if (element == null)
+			return true;
+		if (!isHealthy(element.getElementInfo()))
+			return false;
+		if (element.getChildren() != null) {
+			for (CuteElement child : element.getChildren()) {
+				if (!isElementAndChildrenHealthy(child))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	private static void setElementAndChildrenAsReadyAndHealthy(CuteElement element) {
+		if (element == null)
+			return;
+		element.getElementInfo().setAsReadyAndHealthy();
+		element.resetRuntimeState();
+		if (element.getChildren() != null) {
+			for (CuteElement child : element.getChildren()) {
+				setElementAndChildrenAsReadyAndHealthy(child);
+			}
+		}
+	}
+
+	/**
+	 * Finds paths to files and directories in the serialized CuteElement.
+	 *
+	 * @param node
+	 *            The serialized CuteElement or part of it.
+	 * @param fieldNames
+	 *            The names of fields which contain paths.
+	 * @param paths
+	 *            The list where to put found paths.
+	 */
+	static void collectFileReferences(JsonNode node, Set<String> fieldNames, List<String> paths) {
+		if (node.isArray()) {
+			for (JsonNode item : node) {
+				collectFileReferences(item, fieldNames, paths);
+			}
+		} else if (node.isObject()) {
+			Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+			while (fields.hasNext()) {
+				Map.Entry<String, JsonNode> field = fields.next();
+				JsonNode value = field.getValue();
+				if (fieldNames.contains(field.getKey())) {
+					if (value.isTextual()) {
+						paths.add(value.asText());
+					} else if (value.isArray()) {
+						for (JsonNode item : value) {
+							if (item.isTextual())
+								paths.add(item.asText());
+						}
+					}
+				} else {
+					collectFileReferences(value, fieldNames, paths);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Appends the size and modification time of the file to the fingerprint. For directories,
+	 * also appends the size and modification time of each file inside.
+	 *
+	 * @param fingerprint
+	 *            The fingerprint to append to.
+	 * @param path
+	 *            The path of the file or directory.
+	 */
+	private static void appendFileFingerprint(StringBuilder fingerprint, String path) {
+		if (path.isEmpty())
+			return;
+		File file = new File(path);
+		fingerprint.append('\n').append(path).append('|');
+		if (!file.exists()) {
+			fingerprint.append("missing");
+			return;
+		}
+		fingerprint.append(file.length()).append('|').append(file.lastModified());
+		if (file.isDirectory()) {
+			File[] files = file.listFiles();
+			if (files == null)
+				return;
+			List<File> sortedFiles = Arrays.asList(files);
+			Collections.sort(sortedFiles);
+			for (File inner : sortedFiles) {
+				fingerprint.append('\n').append(inner.getName()).append('|')
+						.append(inner.length()).append('|').append(inner.lastModified());
+			}
+		}
+	}
+
+}
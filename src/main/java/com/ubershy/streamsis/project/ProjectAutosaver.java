@@ -0,0 +1,126 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ubershy.streamsis.CuteConfig;
+import com.ubershy.streamsis.Util;
+
+/**
+ * ProjectAutosaver periodically saves the current {@link CuteProject} to its file in background.
+ * <p>
+ * It's disabled by default. The period in seconds is set by <b>ProjectAutosaveInterval</b>
+ * setting in {@link CuteConfig}, zero means disabled. <br>
+ * Autosave happens in its own thread and never blocks JavaFX Application Thread. The Project is
+ * saved only if it has a file path (was saved or loaded before) and only if its content differs
+ * from the content of the file. Like a normal save, autosave keeps the format of the file and
+ * never leaves the file half-written. {@link ProjectBundle ProjectBundles} are not autosaved,
+ * because packing all assets is too expensive to do periodically.
+ */
+public final class ProjectAutosaver {
+
+	static final Logger logger = LoggerFactory.getLogger(ProjectAutosaver.class);
+
+	/** The executor running autosaves. Null when ProjectAutosaver is not started. */
+	private static ScheduledExecutorService executor;
+
+	/** The path of the file saved the last time. */
+	private static String lastSavedPath;
+
+	/** The content of the file saved the last time. */
+	private static byte[] lastSavedContent;
+
+	/** The format of the file saved the last time. */
+	private static ProjectFormat lastSavedFormat;
+
+	private ProjectAutosaver() {
+	}
+
+	/**
+	 * Starts autosaving, if it's enabled in {@link CuteConfig}. <br>
+	 * Does nothing if ProjectAutosaver is already started.
+	 */
+	public static synchronized void start() {
+		if (executor != null)
+			return;
+		long interval = (long) CuteConfig.getDouble(CuteConfig.CUTE, "ProjectAutosaveInterval");
+		if (interval <= 0) {
+			logger.info("Project autosave is disabled");
+			return;
+		}
+		executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "ProjectAutosaver");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(ProjectAutosaver::autosave, interval, interval,
+				TimeUnit.SECONDS);
+		logger.info("Project autosave is enabled, interval: " + interval + " seconds");
+	}
+
+	/**
+	 * Stops autosaving. The autosave which is happening at the moment is allowed to finish.
+	 */
+	public static synchronized void stop() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Saves the current Project if it has a file and its content has changed.
+	 */
+	private static void autosave() {
+		// Read both at once, so the new Project is never written to the file of the old one.
+		ProjectManager.ProjectWithPath current = ProjectManager.getProjectWithPath();
+		CuteProject project = current.getProject();
+		String path = current.getPath();
+		if (project == null || path == null || path.isEmpty() || ProjectBundle.isBundlePath(path))
+			return;
+		try {
+			if (!path.equals(lastSavedPath)) {
+				// The Project was loaded or saved under another name. Let's remember what's there.
+				lastSavedPath = path;
+				lastSavedFormat = ProjectSerializator.detectFormat(path);
+				lastSavedContent = Files.exists(Paths.get(path))
+						? Files.readAllBytes(Paths.get(path)) : null;
+			}
+			byte[] content = ProjectSerializator.serializeToBytes(project, lastSavedFormat);
+			if (Arrays.equals(content, lastSavedContent))
+				return;
+			Util.writeFileAtomically(path, out -> out.write(content));
+			lastSavedContent = content;
+			logger.info("Project autosaved: " + path);
+		} catch (IOException | RuntimeException e) {
+			// The user might be editing the Project right now. Let's try again next time.
+			logger.error("Can't autosave Project: " + path, e);
+		}
+	}
+
+}
@@ -0,0 +1,517 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.project;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.ubershy.streamsis.Util;
+
+/**
+ * ProjectBundle is a single file containing the {@link CuteProject} together with all image and
+ * sound files it refers to. Such files have ".streamsisbundle" extension.
+ * <p>
+ * Usually a Project refers to many image and sound files by absolute paths. Opening and decoding
+ * each of them on startup takes time, and the Project breaks when it's moved to another machine.
+ * The bundle solves both problems:
+ * <ul>
+ * <li>Images are stored already decoded as uncompressed ARGB pixels, so they don't need to be
+ * decoded again.</li>
+ * <li>The whole bundle is memory-mapped on load, so no asset file is opened on startup.</li>
+ * <li>Assets are found by the same paths as in the Project, even if the files don't exist on this
+ * machine.</li>
+ * </ul>
+ * The bundle which was loaded the last time is the current bundle. CuteElements ask it for assets
+ * with static methods like {@link #getRasterImage(String)}. Sounds are played by JavaFX media
+ * which can't read from memory, so they are extracted to temporary files on first use.
+ * <p>
+ * Only files are packed. Directories which CuteElements scan for files are not.
+ * <p>
+ * The layout of bundle file: magic bytes, data of entries aligned to 8 bytes, index of entries,
+ * position of the index in the last 8 bytes.
+ */
+public final class ProjectBundle {
+
+	static final Logger logger = LoggerFactory.getLogger(ProjectBundle.class);
+
+	/** The extension of bundle files. */
+	public static final String EXTENSION = ".streamsisbundle";
+
+	/** The magic bytes at the start of bundle file. The last character is the version. */
+	private static final byte[] MAGIC = "STREAMSISBUNDLE1".getBytes(StandardCharsets.US_ASCII);
+
+	/** The alignment of entries' data in bytes. */
+	private static final int ALIGNMENT = 8;
+
+	/** The names of serialized CuteElement fields which contain paths to assets. */
+	private static final Set<String> ASSETFIELDS = new HashSet<String>(
+			Arrays.asList("targetImagePath", "soundPath", "persistentSourceFileList"));
+
+	/** The extensions of image files which are stored as decoded pixels. */
+	private static final String[] RASTEREXTENSIONS = new String[] { "*.png", "*.jpg", "*.bmp",
+			"*.gif" };
+
+	/** The bundle which was loaded the last time, can be null. */
+	private static volatile ProjectBundle current;
+
+	/** The path of the bundle file. */
+	private final String path;
+
+	/** The whole memory-mapped bundle file. */
+	private final MappedByteBuffer buffer;
+
+	/** The entry containing the Project itself. */
+	private Entry projectEntry;
+
+	/** The entries of assets by paths of assets as they're written in the Project. */
+	private final Map<String, Entry> assetEntries = new HashMap<String, Entry>();
+
+	/** The paths of extracted temporary files by paths of assets. */
+	private final Map<String, String> extractedFiles = new ConcurrentHashMap<String, String>();
+
+	/** The directory of extracted files, created on first extraction. Guarded by this. */
+	private Path extractionDirectory;
+
+	private ProjectBundle(String path, MappedByteBuffer buffer) throws IOException {
+		this.path = path;
+		this.buffer = buffer;
+		readIndex();
+	}
+
+	/**
+	 * Tells if the path is a path of bundle file by its extension.
+	 *
+	 * @param path
+	 *            The path.
+	 * @return true, if the path ends with ".streamsisbundle"
+	 */
+	public static boolean isBundlePath(String path) {
+		return path != null && path.toLowerCase().endsWith(EXTENSION);
+	}
+
+	/**
+	 * Loads {@link CuteProject} from the bundle file and makes the bundle current, so
+	 * CuteElements will find their assets in it.
+	 *
+	 * @param path
+	 *            The path of the bundle file.
+	 * @return the CuteProject
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static CuteProject load(String path) throws IOException {
+		ProjectBundle bundle;
+		try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Project bundle is bigger than 2 GB: " + path);
+			}
+			// The mapping stays valid after the channel is closed.
+			bundle = new ProjectBundle(path, channel.map(MapMode.READ_ONLY, 0, size));
+		}
+		CuteProject project;
+		try (InputStream in = new ByteBufferBackedInputStream(bundle.slice(bundle.projectEntry))) {
+			project = SerializationService.getProjectReader(ProjectFormat.JSON).readValue(in);
+		}
+		current = bundle;
+		logger.info("Loaded Project bundle with " + bundle.assetEntries.size() + " assets: "
+				+ path);
+		return project;
+	}
+
+	/**
+	 * Forgets the current bundle, so its assets are not used anymore. <br>
+	 * The memory is unmapped when the garbage collector finds the bundle unused.
+	 */
+	public static void forgetCurrent() {
+		current = null;
+	}
+
+	/**
+	 * Tells if the current bundle contains the asset.
+	 *
+	 * @param assetPath
+	 *            The path of the asset as it's written in the Project.
+	 * @return true, if the asset is in the current bundle
+	 */
+	public static boolean containsAsset(String assetPath) {
+		ProjectBundle bundle = current;
+		return bundle != null && bundle.assetEntries.containsKey(assetPath);
+	}
+
+	/**
+	 * Gets the image from the current bundle. <br>
+	 * The pixels are copied from the mapped memory without decoding.
+	 *
+	 * @param assetPath
+	 *            The path of the image file as it's written in the Project.
+	 * @return the image, or null if the current bundle doesn't contain it as decoded image
+	 */
+	public static BufferedImage getRasterImage(String assetPath) {
+		ProjectBundle bundle = current;
+		if (bundle == null)
+			return null;
+		Entry entry = bundle.assetEntries.get(assetPath);
+		if (entry == null || entry.kind != EntryKind.RASTER)
+			return null;
+		BufferedImage image = new BufferedImage(entry.width, entry.height,
+				BufferedImage.TYPE_INT_ARGB);
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		bundle.slice(entry).asIntBuffer().get(pixels);
+		return image;
+	}
+
+	/**
+	 * Gets the path of the file which can be read instead of the asset. <br>
+	 * If the current bundle contains the asset as a file, the file is extracted to a temporary
+	 * directory on first use.
+	 *
+	 * @param assetPath
+	 *            The path of the asset file as it's written in the Project.
+	 * @return the path of the extracted file, or the same path if the current bundle doesn't
+	 *         contain the file or the file can't be extracted
+	 */
+	public static String resolveAssetPath(String assetPath) {
+		ProjectBundle bundle = current;
+		if (bundle == null)
+			return assetPath;
+		Entry entry = bundle.assetEntries.get(assetPath);
+		if (entry == null || entry.kind != EntryKind.FILE)
+			return assetPath;
+		String extractedPath = bundle.extractedFiles.computeIfAbsent(assetPath,
+				k -> bundle.extract(entry));
+		return (extractedPath == null) ? assetPath : extractedPath;
+	}
+
+	/**
+	 * Packs {@link CuteProject} and all assets it refers to into the bundle file. <br>
+	 * Images are decoded and stored as uncompressed pixels, other files are stored as is. Assets
+	 * which don't exist on disk are taken from the current bundle, so a loaded bundle can be saved
+	 * again on another machine. The bundle file is written atomically.
+	 *
+	 * @param project
+	 *            The CuteProject to pack.
+	 * @param bundlePath
+	 *            The path of the bundle file.
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static void pack(CuteProject project, String bundlePath) throws IOException {
+		logger.info("Packing Project to bundle: " + bundlePath);
+		byte[] projectBytes = ProjectSerializator.serializeToBytes(project);
+		Set<String> assetPaths = collectAssetPaths(project);
+		ProjectBundle source = current;
+		Util.writeFileAtomically(bundlePath, out -> {
+			DataOutputStream dataOut = new DataOutputStream(out);
+			dataOut.write(MAGIC);
+			List<Entry> entries = new ArrayList<Entry>();
+			entries.add(writeEntry(dataOut, EntryKind.PROJECT, "", projectBytes, 0, 0));
+			for (String assetPath : assetPaths) {
+				Entry entry = packAsset(dataOut, assetPath, source);
+				if (entry != null)
+					entries.add(entry);
+			}
+			int indexPosition = dataOut.size();
+			dataOut.writeInt(entries.size());
+			for (Entry entry : entries) {
+				dataOut.writeUTF(entry.assetPath);
+				dataOut.writeByte(entry.kind.ordinal());
+				dataOut.writeInt(entry.offset);
+				dataOut.writeInt(entry.length);
+				dataOut.writeInt(entry.width);
+				dataOut.writeInt(entry.height);
+			}
+			dataOut.writeLong(indexPosition);
+			dataOut.flush();
+			logger.info("Packed " + (entries.size() - 1) + " assets, bundle size: "
+					+ dataOut.size() + " bytes");
+		});
+	}
+
+	/**
+	 * Finds the paths of assets the {@link CuteProject} refers to.
+	 *
+	 * @param project
+	 *            The CuteProject.
+	 * @return the paths of assets as they're written in the Project, without duplicates
+	 * @throws IOException
+	 *             if the Project can't be serialized
+	 */
+	private static Set<String> collectAssetPaths(CuteProject project) throws IOException {
+		JsonNode tree;
+		try {
+			tree = SerializationService.getMapper().valueToTree(project);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Can't find assets of the Project", e);
+		}
+		List<String> paths = new ArrayList<String>();
+		IncrementalInit.collectFileReferences(tree, ASSETFIELDS, paths);
+		// Assets are keyed by the literal paths, so lookups don't depend on the working directory
+		// or the operating system of the machine where the bundle is loaded.
+		Set<String> keys = new LinkedHashSet<String>();
+		for (String path : paths) {
+			if (!path.isEmpty())
+				keys.add(path);
+		}
+		return keys;
+	}
+
+	/**
+	 * Writes the asset to the bundle being packed.
+	 *
+	 * @param out
+	 *            The stream of the bundle file.
+	 * @param assetPath
+	 *            The path of the asset as it's written in the Project.
+	 * @param source
+	 *            The bundle where to take the asset from if its file doesn't exist, can be null.
+	 * @return the entry of the asset, or null if the asset can't be found
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static Entry packAsset(DataOutputStream out, String assetPath, ProjectBundle source)
+			throws IOException {
+		File file = new File(assetPath);
+		if (file.isFile()) {
+			if (Util.checkFileExtension(assetPath, RASTEREXTENSIONS)) {
+				BufferedImage image = ImageIO.read(file);
+				if (image != null) {
+					return writeEntry(out, EntryKind.RASTER, assetPath, toPixelBytes(image),
+							image.getWidth(), image.getHeight());
+				}
+			}
+			return writeEntry(out, EntryKind.FILE, assetPath, Files.readAllBytes(file.toPath()),
+					0, 0);
+		}
+		Entry sourceEntry = (source == null) ? null : source.assetEntries.get(assetPath);
+		if (sourceEntry != null) {
+			byte[] data = new byte[sourceEntry.length];
+			source.slice(sourceEntry).get(data);
+			return writeEntry(out, sourceEntry.kind, assetPath, data, sourceEntry.width,
+					sourceEntry.height);
+		}
+		logger.error("Can't pack asset to Project bundle, file doesn't exist: " + assetPath);
+		return null;
+	}
+
+	/**
+	 * Writes the data of entry to the bundle being packed.
+	 *
+	 * @return the entry
+	 */
+	private static Entry writeEntry(DataOutputStream out, EntryKind kind, String assetPath,
+			byte[] data, int width, int height) throws IOException {
+		while (out.size() % ALIGNMENT != 0) {
+			out.write(0);
+		}
+		if (out.size() > Integer.MAX_VALUE - data.length) {
+			throw new IOException("Project bundle can't be bigger than 2 GB");
+		}
+		int offset = out.size();
+		out.write(data);
+		return new Entry(kind, assetPath, offset, data.length, width, height);
+	}
+
+	/**
+	 * Converts the image to uncompressed ARGB pixels, 4 bytes per pixel.
+	 *
+	 * @param image
+	 *            The image.
+	 * @return the bytes of pixels
+	 */
+	private static byte[] toPixelBytes(BufferedImage image) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+		ByteBuffer bytes = ByteBuffer.allocate(pixels.length * 4);
+		bytes.asIntBuffer().put(pixels);
+		return bytes.array();
+	}
+
+	/**
+	 * Reads the index of entries from the mapped bundle file.
+	 *
+	 * @throws IOException
+	 *             if the file is not a bundle or is damaged
+	 */
+	private void readIndex() throws IOException {
+		ByteBuffer reader = buffer.duplicate();
+		byte[] magic = new byte[MAGIC.length];
+		try {
+			reader.get(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				throw new IOException("Not a Project bundle or unsupported version: " + path);
+			}
+			reader.position(reader.limit() - 8);
+			long indexPosition = reader.getLong();
+			if (indexPosition < MAGIC.length || indexPosition > reader.limit() - 8) {
+				throw new IOException("Project bundle is damaged: " + path);
+			}
+			reader.position((int) indexPosition);
+			DataInputStream index = new DataInputStream(new ByteBufferBackedInputStream(reader));
+			int count = index.readInt();
+			for (int i = 0; i < count; i++) {
+				String assetPath = index.readUTF();
+				EntryKind kind = EntryKind.values()[index.readByte()];
+				Entry entry = new Entry(kind, assetPath, index.readInt(), index.readInt(),
+						index.readInt(), index.readInt());
+				if (entry.offset < MAGIC.length || entry.length < 0
+						|| entry.offset > indexPosition - entry.length
+						|| (kind == EntryKind.RASTER
+								&& (long) entry.width * entry.height * 4 != entry.length)) {
+					throw new IOException("Project bundle is damaged: " + path);
+				}
+				if (kind == EntryKind.PROJECT) {
+					projectEntry = entry;
+				} else {
+					assetEntries.put(assetPath, entry);
+				}
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException
+				| ArrayIndexOutOfBoundsException e) {
+			throw new IOException("Project bundle is damaged: " + path, e);
+		}
+		if (projectEntry == null) {
+			throw new IOException("Project bundle doesn't contain Project: " + path);
+		}
+	}
+
+	/**
+	 * Gets the data of entry without copying.
+	 *
+	 * @param entry
+	 *            The entry.
+	 * @return the read-only buffer view of the mapped memory
+	 */
+	private ByteBuffer slice(Entry entry) {
+		ByteBuffer slice = buffer.duplicate();
+		slice.position(entry.offset);
+		slice.limit(entry.offset + entry.length);
+		return slice.slice();
+	}
+
+	/**
+	 * Extracts the asset to a temporary file which is deleted on exit.
+	 *
+	 * @param entry
+	 *            The entry of the asset.
+	 * @return the path of the extracted file, or null if it can't be extracted
+	 */
+	private String extract(Entry entry) {
+		try {
+			Path directory;
+			synchronized (this) {
+				if (extractionDirectory == null) {
+					extractionDirectory = Files.createTempDirectory("streamsisbundle");
+					extractionDirectory.toFile().deleteOnExit();
+				}
+				directory = extractionDirectory;
+			}
+			// The offset makes the name unique and the original name keeps the extension.
+			Path file = directory
+					.resolve(entry.offset + "_" + new File(entry.assetPath).getName());
+			try (SeekableByteChannel channel = Files.newByteChannel(file,
+					StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+				ByteBuffer data = slice(entry);
+				while (data.hasRemaining()) {
+					channel.write(data);
+				}
+			}
+			file.toFile().deleteOnExit();
+			logger.debug("Extracted asset from Project bundle: " + entry.assetPath);
+			return file.toString();
+		} catch (IOException e) {
+			logger.error("Can't extract asset from Project bundle: " + entry.assetPath, e);
+			return null;
+		}
+	}
+
+	/** The kinds of entries in the bundle. */
+	private enum EntryKind {
+		/** The Project serialized to JSON. */
+		PROJECT,
+		/** The decoded image as ARGB pixels, 4 bytes per pixel. */
+		RASTER,
+		/** The file stored as is. */
+		FILE
+	}
+
+	/** The entry of the bundle. */
+	private static final class Entry {
+
+		private final EntryKind kind;
+
+		/** The path of the asset as it's written in the Project, empty for the Project. */
+		private final String assetPath;
+
+		/** The position of the data in the bundle file. */
+		private final int offset;
+
+		/** The length of the data in bytes. */
+		private final int length;
+
+		/** The width of the image, zero for other entries. */
+		private final int width;
+
+		/** The height of the image, zero for other entries. */
+		private final int height;
+
+		private Entry(EntryKind kind, String assetPath, int offset, int length, int width,
+				int height) {
+			this.kind = kind;
+			this.assetPath = assetPath;
+			this.offset = offset;
+			this.length = length;
+			this.width = width;
+			this.height = height;
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.project;
+
+/**
+ * The Enum with formats in which {@link CuteProject} files can be stored. <br>
+ * All formats store the same data, so a Project file can be converted from one format to another
+ * without losses, see {@link ProjectSerializator#convertProjectFile}.
+ */
+public enum ProjectFormat {
+
+	/** Human-readable JSON. The main format, suitable for editing by hand. */
+	JSON("JSON"),
+
+	/**
+	 * Binary JSON in Smile format. Smaller and faster to load than JSON, suitable for big
+	 * Projects.
+	 */
+	SMILE("Smile (binary JSON)");
+
+	/** The user-friendly name of the format. */
+	private final String name;
+
+	/**
+	 * Instantiates a new ProjectFormat.
+	 *
+	 * @param name
+	 *            The user-friendly name of the format.
+	 */
+	private ProjectFormat(String name) {
+		this.name = name;
+	}
+
+	/*
+	 * Returns the user-friendly name of this format.
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -58,11 +58,42 @@ public final class ProjectManager {
 		return projectFilePath.getReadOnlyProperty();
 	}
 	public static String getProjectFilePath() {return projectFilePath.get();}
-	public static void setProjectFilePath(String path) {projectFilePath.set(path);}
+	public static void setProjectFilePath(String path) {
+		current = new ProjectWithPath(current.getProject(), path);
+		projectFilePath.set(path);
+	}
+
+	/**
+	 * The current CuteProject together with its file path. <br>
+	 * Replaced as a whole, so background threads never see the new CuteProject with the old path.
+	 */
+	private static volatile ProjectWithPath current = new ProjectWithPath(null, null);
+	public static CuteProject getProject() {return current.getProject();}
+
+	/**
+	 * Gets the current CuteProject together with its file path. <br>
+	 * Unlike {@link #getProjectFilePath()}, can be safely called from any thread.
+	 *
+	 * @return the current CuteProject and its file path, never null
+	 */
+	static ProjectWithPath getProjectWithPath() {return current;}
 
-	/** The current CuteProject. */
-	private static CuteProject currentProject;
-	public static CuteProject getProject() {return currentProject;}
+	/** The immutable pair of CuteProject and its file path. */
+	static final class ProjectWithPath {
+		private final CuteProject project;
+		private final String path;
+
+		ProjectWithPath(CuteProject project, String path) {
+			this.project = project;
+			this.path = path;
+		}
+
+		/** @return the CuteProject, can be null */
+		CuteProject getProject() {return project;}
+
+		/** @return the file path of CuteProject, can be null if it's not yet saved */
+		String getPath() {return path;}
+	}
 	
 	private static CountDownLatch changeProjectLatch;
 	
@@ -84,7 +115,12 @@ public final class ProjectManager {
 			}
 			changeProjectLatch = null;
 		}
-		ProjectManager.currentProject = currentProject;
+		CuteProject previousProject = getProject();
+		if (previousProject != null && previousProject != currentProject) {
+			// The previous Project is closed, its shared assets must not stay in use.
+			previousProject.getAssetManager().unloadAllAssets();
+		}
+		ProjectManager.current = new ProjectWithPath(currentProject, path);
 		ProjectManager.projectFilePath.set(path);
 		if (path != null && !path.isEmpty()) {
 			CuteConfig.setString(CuteConfig.CUTE, "LastProjectLocation", path);
@@ -94,7 +130,8 @@ public final class ProjectManager {
 	}
 
 	/**
-	 * Loads CuteProject from path, sets it as current.
+	 * Loads CuteProject from path, sets it as current. <br>
+	 * If the path is a {@link ProjectBundle}, the bundle becomes current too.
 	 *
 	 * @param path
 	 *            path from where CuteProject will be loaded
@@ -104,7 +141,12 @@ public final class ProjectManager {
 	public static CuteProject loadProjectAndSet(String path) throws IOException {
 		CuteProject project = null;
 		try {
-			project = ProjectSerializator.deSerializeFromFile(path);
+			if (ProjectBundle.isBundlePath(path)) {
+				project = ProjectBundle.load(path);
+			} else {
+				project = ProjectSerializator.deSerializeFromFile(path);
+				ProjectBundle.forgetCurrent();
+			}
 		} catch (IOException e) {
 			logger.error("Can't load project file: " + path);
 			throw e;
@@ -119,6 +161,7 @@ public final class ProjectManager {
 	 */
 	public static CuteProject createAndSetNewProject() {
 		logger.info("Creating new empty Project");
+		ProjectBundle.forgetCurrent();
 		CuteProject emptyProject = new CuteProject("New Project");
 		emptyProject.addSisScene(new SisScene("New SisScene", new ArrayList<String>()));
 		ProjectManager.setProject(emptyProject, null);
@@ -126,7 +169,7 @@ public final class ProjectManager {
 	}
 
 	public synchronized static void initProjectFromGUI() {
-		CuteProject toInit = currentProject;
+		CuteProject toInit = getProject();
 		Task<Void> task = new Task<Void>() {
 			@Override
 			protected Void call() throws Exception {
@@ -153,7 +196,7 @@ public final class ProjectManager {
 	}
 
 	public synchronized static void startProjectFromGUI() {
-		CuteProject toStart = currentProject;
+		CuteProject toStart = getProject();
 		Task<Void> task = new Task<Void>() {
 			@Override
 			protected Void call() throws Exception {
@@ -163,7 +206,7 @@ public final class ProjectManager {
 		};
 		task.setOnFailed((e) -> {
 			// Fail gently and show the error to the user. The user will be able to save project.
-			currentProject.stopProject();
+			getProject().stopProject();
 			Throwable ex = task.getException();
 			String errorText;
 			if (ex == null) {
@@ -17,9 +17,9 @@
  */
 package com.ubershy.streamsis.project;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
@@ -27,14 +27,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
 import com.ubershy.streamsis.Util;
 
 /**
  * Project Serializator is a class for saving and loading {@link CuteProject CuteProjects}. <br>
- * Files it can produce or load are in JSON format.
+ * Files it can produce or load are in JSON format or in binary {@link ProjectFormat#SMILE}
+ * format. The format of file is detected automatically on load.
  */
 public final class ProjectSerializator {
 
@@ -51,10 +53,9 @@ public final class ProjectSerializator {
 	 *             Signals that an I/O exception has occurred.
 	 */
 	public static String serializeToString(CuteProject project) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
 		String serialized = null;
 		try {
-			serialized = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(project);
+			serialized = SerializationService.getWriter(true).writeValueAsString(project);
 		} catch (JsonGenerationException e) {
 			logger.error("CuteProject serializing to string fail: JsonGeneration error");
 			e.printStackTrace();
@@ -72,7 +73,39 @@ public final class ProjectSerializator {
 	}
 
 	/**
-	 * Serialize(save) {@link CuteProject} to file.
+	 * Serialize {@link CuteProject} to bytes of the same content as the Project file.
+	 *
+	 * @param project
+	 *            the {@link CuteProject} to serialize
+	 * @return the bytes of JSON in UTF-8
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static byte[] serializeToBytes(CuteProject project) throws IOException {
+		return serializeToBytes(project, ProjectFormat.JSON);
+	}
+
+	/**
+	 * Serialize {@link CuteProject} to bytes of the same content as the Project file in the
+	 * format.
+	 *
+	 * @param project
+	 *            the {@link CuteProject} to serialize
+	 * @param format
+	 *            the format of the Project file
+	 * @return the bytes
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static byte[] serializeToBytes(CuteProject project, ProjectFormat format)
+			throws IOException {
+		return SerializationService.getProjectWriter(format).writeValueAsBytes(project);
+	}
+
+	/**
+	 * Serialize(save) {@link CuteProject} to file. <br>
+	 * If the file already exists, its format is kept. New files are saved in JSON format. If the
+	 * path has ".streamsisbundle" extension, the Project is packed to {@link ProjectBundle}.
 	 *
 	 * @param project
 	 *            the {@link CuteProject} to serialize
@@ -82,11 +115,33 @@ public final class ProjectSerializator {
 	 *             Signals that an I/O exception has occurred.
 	 */
 	public static void serializeToFile(CuteProject project, String path) throws IOException {
-		logger.info("Saving Project file: " + path);
-		ObjectMapper mapper = new ObjectMapper();
+		if (ProjectBundle.isBundlePath(path)) {
+			ProjectBundle.pack(project, path);
+			return;
+		}
+		serializeToFile(project, path, detectFormat(path));
+	}
+
+	/**
+	 * Serialize(save) {@link CuteProject} to file in the format. <br>
+	 * The Project is streamed to a temporary file which then atomically replaces the Project file,
+	 * so the Project file is never left half-written.
+	 *
+	 * @param project
+	 *            the {@link CuteProject} to serialize
+	 * @param path
+	 *            the path where file will be saved
+	 * @param format
+	 *            the format of the file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static void serializeToFile(CuteProject project, String path, ProjectFormat format)
+			throws IOException {
+		logger.info("Saving Project file in " + format + " format: " + path);
 		try {
-			Util.createFileAndDirectoriesAtPath(path);
-			mapper.writerWithDefaultPrettyPrinter().writeValue(new FileWriter(new File(path)), project);
+			Util.writeFileAtomically(path,
+					out -> SerializationService.getProjectWriter(format).writeValue(out, project));
 		} catch (JsonGenerationException e) {
 			logger.error("CuteProject saving fail: JsonGeneration error");
 			e.printStackTrace();
@@ -112,12 +167,13 @@ public final class ProjectSerializator {
 	 *             Signals that an I/O exception has occurred.
 	 */
 	public static CuteProject deSerializeFromFile(String path) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.configure(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT, true);
-		mapper.configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true);
 		CuteProject project = null;
-		try {
-			project = mapper.readValue(Files.readAllBytes(Paths.get(path)), CuteProject.class);
+		// The parser reads the file in chunks, so the whole file is never in memory.
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(path)),
+				Util.FILEBUFFERSIZE)) {
+			ProjectFormat format = detectFormat(in);
+			logger.debug("Detected Project file format: " + format);
+			project = SerializationService.getProjectReader(format).readValue(in);
 		} catch (JsonGenerationException e) {
 			logger.error("CuteProject opening fail: JsonGeneration error");
 			e.printStackTrace();
@@ -134,14 +190,97 @@ public final class ProjectSerializator {
 		return project;
 	}
 
+	/**
+	 * Detects the format of the Project file by its first bytes.
+	 *
+	 * @param path
+	 *            the path of the Project file
+	 * @return the format, or {@link ProjectFormat#JSON} if the file doesn't exist or can't be read
+	 */
+	public static ProjectFormat detectFormat(String path) {
+		if (!Files.isRegularFile(Paths.get(path)))
+			return ProjectFormat.JSON;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(path)))) {
+			return detectFormat(in);
+		} catch (IOException e) {
+			return ProjectFormat.JSON;
+		}
+	}
+
+	/**
+	 * Detects the format of the Project by the first bytes of the stream. <br>
+	 * The stream is left at the same position.
+	 *
+	 * @param in
+	 *            the stream supporting {@link InputStream#mark(int)}
+	 * @return the format
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static ProjectFormat detectFormat(InputStream in) throws IOException {
+		in.mark(3);
+		byte[] header = new byte[3];
+		int read = 0;
+		while (read < header.length) {
+			int count = in.read(header, read, header.length - read);
+			if (count == -1)
+				break;
+			read += count;
+		}
+		in.reset();
+		if (read == header.length && header[0] == SmileConstants.HEADER_BYTE_1
+				&& header[1] == SmileConstants.HEADER_BYTE_2
+				&& header[2] == SmileConstants.HEADER_BYTE_3) {
+			return ProjectFormat.SMILE;
+		}
+		return ProjectFormat.JSON;
+	}
+
+	/**
+	 * Converts the Project file to another format. <br>
+	 * The content is copied token by token, so even Project files which can't be loaded by this
+	 * version of StreamSis are converted without losses. The destination file is written
+	 * atomically.
+	 *
+	 * @param srcPath
+	 *            the path of the Project file to convert, in any format
+	 * @param dstPath
+	 *            the path of the converted file, can be the same as srcPath
+	 * @param format
+	 *            the format of the converted file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static void convertProjectFile(String srcPath, String dstPath, ProjectFormat format)
+			throws IOException {
+		ProjectFormat srcFormat = detectFormat(srcPath);
+		logger.info("Converting Project file from " + srcFormat + " to " + format + " format: "
+				+ srcPath + " -> " + dstPath);
+		// The destination is written to a temporary file first, so srcPath can be the same as
+		// dstPath.
+		Util.writeFileAtomically(dstPath, out -> {
+			try (InputStream in = Files.newInputStream(Paths.get(srcPath));
+					JsonParser parser = SerializationService.getFactory(srcFormat)
+							.createParser(in);
+					JsonGenerator generator = SerializationService.getFactory(format)
+							.createGenerator(out)) {
+				if (format == ProjectFormat.JSON)
+					generator.useDefaultPrettyPrinter();
+				while (parser.nextToken() != null) {
+					generator.copyCurrentStructure(parser);
+				}
+			}
+		});
+		logger.info("Project file conversion success");
+	}
+
 	/**
 	 * Tells if {@link CuteProject} class is written nicely by programmer and can be serialized. <br>
 	 *
 	 * @return true, if {@link CuteProject} can be serialized
 	 */
 	public static boolean canSerializeProjectClass() {
-		ObjectMapper mapper = new ObjectMapper();
-		boolean bool = mapper.writerWithDefaultPrettyPrinter().canSerialize(CuteProject.class);
+		boolean bool = SerializationService.getMapper().canSerialize(CuteProject.class);
 		return bool;
 	}
 }
@@ -0,0 +1,172 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.project;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.ubershy.streamsis.elements.CuteElement;
+
+/**
+ * SerializationService keeps the preconfigured Jackson {@link ObjectMapper} shared by all
+ * StreamSis serialization, and {@link ObjectReader ObjectReaders} and {@link ObjectWriter
+ * ObjectWriters} made from it.
+ * <p>
+ * Creating ObjectMapper is cheap, but the first serialization with it is not: Jackson has to
+ * introspect all {@link CuteElement} classes and build their (polymorphic) serializers and
+ * deserializers. A single shared ObjectMapper does it only once. ObjectReaders and ObjectWriters
+ * additionally remember the root type, so they skip looking it up on each call. <br>
+ * All of them are immutable and thread-safe after creation.
+ * <p>
+ * There's also a separate ObjectMapper for Projects in binary {@link ProjectFormat#SMILE} format.
+ */
+public final class SerializationService {
+
+	/** The shared ObjectMapper. Must not be reconfigured after creation. */
+	private static final ObjectMapper mapper = createMapper(new JsonFactory());
+
+	/** The ObjectMapper for {@link ProjectFormat#SMILE}. Must not be reconfigured either. */
+	private static final ObjectMapper smileMapper = createMapper(createSmileFactory());
+
+	/** The writer producing Smile. */
+	private static final ObjectWriter smileWriter = smileMapper.writer();
+
+	/** The reader of {@link CuteProject CuteProjects} in Smile format. */
+	private static final ObjectReader smileProjectReader = smileMapper.reader(CuteProject.class);
+
+	/** The writer producing compact JSON. */
+	private static final ObjectWriter compactWriter = mapper.writer();
+
+	/** The writer producing human-readable JSON. */
+	private static final ObjectWriter prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+
+	/** The reader of {@link CuteProject CuteProjects}. */
+	private static final ObjectReader projectReader = mapper.reader(CuteProject.class);
+
+	/** The readers of other classes, created on demand. */
+	private static final ConcurrentHashMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+	private SerializationService() {
+	}
+
+	private static ObjectMapper createMapper(JsonFactory factory) {
+		ObjectMapper newMapper = new ObjectMapper(factory);
+		newMapper.configure(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT, true);
+		newMapper.configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true);
+		// Streams are closed by the code which opened them, e.g. after syncing them to disk.
+		newMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+		return newMapper;
+	}
+
+	private static SmileFactory createSmileFactory() {
+		SmileFactory factory = new SmileFactory();
+		// Type names of CuteElements repeat a lot, let's write each of them only once.
+		factory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+		return factory;
+	}
+
+	/**
+	 * Gets the shared ObjectMapper. <br>
+	 * Don't reconfigure it, use it only for reading and writing.
+	 *
+	 * @return the shared ObjectMapper
+	 */
+	public static ObjectMapper getMapper() {
+		return mapper;
+	}
+
+	/**
+	 * Gets the ObjectWriter.
+	 *
+	 * @param pretty
+	 *            Should the output JSON be human-readable or compact.
+	 * @return the ObjectWriter
+	 */
+	public static ObjectWriter getWriter(boolean pretty) {
+		return pretty ? prettyWriter : compactWriter;
+	}
+
+	/**
+	 * Gets the ObjectReader of {@link CuteProject CuteProjects}.
+	 *
+	 * @return the ObjectReader
+	 */
+	public static ObjectReader getProjectReader() {
+		return projectReader;
+	}
+
+	/**
+	 * Gets the ObjectReader of {@link CuteProject CuteProjects} in the format.
+	 *
+	 * @param format
+	 *            The format of Project file.
+	 * @return the ObjectReader
+	 */
+	public static ObjectReader getProjectReader(ProjectFormat format) {
+		return (format == ProjectFormat.SMILE) ? smileProjectReader : projectReader;
+	}
+
+	/**
+	 * Gets the ObjectWriter of {@link CuteProject CuteProjects} in the format. <br>
+	 * JSON is written in human-readable form.
+	 *
+	 * @param format
+	 *            The format of Project file.
+	 * @return the ObjectWriter
+	 */
+	public static ObjectWriter getProjectWriter(ProjectFormat format) {
+		return (format == ProjectFormat.SMILE) ? smileWriter : prettyWriter;
+	}
+
+	/**
+	 * Gets the low-level factory of parsers and generators of the format.
+	 *
+	 * @param format
+	 *            The format.
+	 * @return the JsonFactory
+	 */
+	public static JsonFactory getFactory(ProjectFormat format) {
+		return (format == ProjectFormat.SMILE) ? smileMapper.getFactory() : mapper.getFactory();
+	}
+
+	/**
+	 * Gets the ObjectReader of the class.
+	 *
+	 * @param clazz
+	 *            The class of objects to read.
+	 * @return the ObjectReader
+	 */
+	public static ObjectReader getReader(Class<?> clazz) {
+		ObjectReader reader = readers.get(clazz);
+		if (reader == null) {
+			reader = mapper.reader(clazz);
+			ObjectReader previous = readers.putIfAbsent(clazz, reader);
+			if (previous != null)
+				reader = previous;
+		}
+		return reader;
+	}
+
+}
@@ -0,0 +1,295 @@
+/**
+ * StreamSis
+ * Copyright (C) 2017 Eva Balycheva
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ubershy.streamsis.project;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ubershy.streamsis.CuteConfig;
+import com.ubershy.streamsis.elements.AssetHolder;
+import com.ubershy.streamsis.elements.CuteElement;
+import com.ubershy.streamsis.elements.SisScene;
+import com.ubershy.streamsis.elements.actions.SwitchSisSceneAction;
+import com.ubershy.streamsis.elements.actors.Actor;
+
+/**
+ * SisSceneAssetManager decides which assets of {@link AssetHolder AssetHolders} (images, sounds)
+ * should stay in memory, depending on the current {@link SisScene}.
+ * <p>
+ * All assets are loaded during {@link CuteProject#init()}, but only Actors of the current
+ * SisScene are working. When SisScene becomes current, SisSceneAssetManager in background:
+ * <ol>
+ * <li>Finds "hot" SisScenes: the current one and the ones reachable from it through
+ * {@link SwitchSisSceneAction SwitchSisSceneActions} of its Actors.</li>
+ * <li>Loads assets of all Actors of hot SisScenes, so they are warm before the next switch
+ * happens.</li>
+ * <li>If the memory is low, unloads assets of Actors which are not in any hot SisScene.</li>
+ * </ol>
+ * The memory is considered low when used heap exceeds <b>AssetUnloadHeapPercent</b> percent of
+ * maximum heap, see {@link CuteConfig}. If unloaded assets are needed unexpectedly, AssetHolder
+ * loads them by itself.
+ */
+public final class SisSceneAssetManager {
+
+	static final Logger logger = LoggerFactory.getLogger(SisSceneAssetManager.class);
+
+	/** The thread which loads and unloads assets. */
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "SisSceneAssets");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/** The Project which assets are managed. */
+	private final CuteProject project;
+
+	/** The percentage of maximum heap, exceeding which assets of cold SisScenes are unloaded. */
+	private volatile double unloadHeapPercent = 75;
+
+	/** The hot SisScenes, see {@link SisSceneAssetManager}. */
+	private volatile Set<SisScene> hotSisScenes = Collections.emptySet();
+
+	/**
+	 * Instantiates a new SisSceneAssetManager.
+	 *
+	 * @param project
+	 *            The Project which assets to manage.
+	 */
+	SisSceneAssetManager(CuteProject project) {
+		this.project = project;
+	}
+
+	/**
+	 * Reads settings from {@link CuteConfig}. <br>
+	 * Should be called before starting the Project.
+	 */
+	public void loadSettingsFromConfig() {
+		double percent = CuteConfig.getDouble(CuteConfig.CUTE, "AssetUnloadHeapPercent");
+		if (percent <= 0 || percent > 100) {
+			logger.error("AssetUnloadHeapPercent must be from 0 to 100, using 75 instead of: "
+					+ percent);
+			percent = 75;
+		}
+		unloadHeapPercent = percent;
+	}
+
+	/**
+	 * Tells SisSceneAssetManager that the SisScene became current. <br>
+	 * Assets are prepared in background, so this method returns immediately.
+	 *
+	 * @param sisScene
+	 *            The current SisScene.
+	 */
+	public void sisSceneBecameCurrent(SisScene sisScene) {
+		executor.execute(() -> {
+			try {
+				prepareAssetsAround(sisScene);
+			} catch (RuntimeException e) {
+				// The Project might be edited at the same time. Assets will be loaded on demand.
+				logger.error("Can't prepare assets around SisScene '"
+						+ sisScene.getElementInfo().getName() + "'", e);
+			}
+		});
+	}
+
+	/**
+	 * Loads assets of hot SisScenes and unloads assets of others, if the memory is low.
+	 *
+	 * @param currentSisScene
+	 *            The current SisScene.
+	 */
+	private void prepareAssetsAround(SisScene currentSisScene) {
+		Set<SisScene> hot = findReachableSisScenes(currentSisScene);
+		hotSisScenes = hot;
+		Set<AssetHolder> hotHolders = newIdentitySet();
+		for (SisScene sisScene : hot) {
+			for (Actor actor : project.resolveSisSceneActors(sisScene)) {
+				collectElements(actor, AssetHolder.class, hotHolders);
+			}
+		}
+		for (AssetHolder holder : hotHolders) {
+			holder.loadAssets();
+		}
+		if (!isMemoryLow()) {
+			return;
+		}
+		Set<AssetHolder> allHolders = newIdentitySet();
+		for (Actor actor : project.getGlobalActorsUnmodifiable()) {
+			collectElements(actor, AssetHolder.class, allHolders);
+		}
+		long freedBytes = 0;
+		int unloadedHolders = 0;
+		for (AssetHolder holder : allHolders) {
+			long bytes = holder.getResidentAssetBytes();
+			if (bytes != 0 && !hotHolders.contains(holder)) {
+				holder.unloadAssets();
+				freedBytes += bytes - holder.getResidentAssetBytes();
+				unloadedHolders++;
+			}
+		}
+		logger.info(String.format("Memory is low, unloaded assets of %d elements (%.2f MB)",
+				unloadedHolders, freedBytes / (1024.0 * 1024.0)));
+	}
+
+	/**
+	 * Finds the SisScene itself and SisScenes to which its Actors can switch with
+	 * {@link SwitchSisSceneAction}.
+	 *
+	 * @param sisScene
+	 *            The SisScene.
+	 * @return the set of SisScenes
+	 */
+	private Set<SisScene> findReachableSisScenes(SisScene sisScene) {
+		Set<SisScene> result = newIdentitySet();
+		result.add(sisScene);
+		List<SwitchSisSceneAction> switchActions = new ArrayList<SwitchSisSceneAction>();
+		for (Actor actor : project.resolveSisSceneActors(sisScene)) {
+			collectElements(actor, SwitchSisSceneAction.class, switchActions);
+		}
+		for (SwitchSisSceneAction action : switchActions) {
+			SisScene target = project.getSisSceneByName(action.getSisSceneName());
+			if (target != null)
+				result.add(target);
+		}
+		return result;
+	}
+
+	/**
+	 * Tells if used heap exceeds {@link #unloadHeapPercent} of maximum heap.
+	 *
+	 * @return true, if the memory is low
+	 */
+	private boolean isMemoryLow() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		return used * 100.0 > runtime.maxMemory() * unloadHeapPercent;
+	}
+
+	/**
+	 * Gets the hot SisScenes, i.e. the current SisScene and SisScenes reachable from it.
+	 *
+	 * @return the unmodifiable set of hot SisScenes
+	 */
+	public Set<SisScene> getHotSisScenes() {
+		return Collections.unmodifiableSet(hotSisScenes);
+	}
+
+	/**
+	 * Gets the approximate number of bytes occupied by loaded assets of each SisScene. <br>
+	 * Assets of Actors shared by several SisScenes are counted in each of them.
+	 *
+	 * @return the map where keys are SisScene names in the order of SisScenes in the Project
+	 */
+	public Map<String, Long> getResidentAssetBytesPerSisScene() {
+		Map<String, Long> result = new LinkedHashMap<String, Long>();
+		for (SisScene sisScene : project.getSisScenesUnmodifiable()) {
+			Set<AssetHolder> holders = newIdentitySet();
+			for (Actor actor : project.resolveSisSceneActors(sisScene)) {
+				collectElements(actor, AssetHolder.class, holders);
+			}
+			result.put(sisScene.getElementInfo().getName(), sumResidentAssetBytes(holders));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the approximate number of bytes occupied by all loaded assets of the Project.
+	 *
+	 * @return the number of bytes
+	 */
+	public long getTotalResidentAssetBytes() {
+		Set<AssetHolder> holders = newIdentitySet();
+		for (Actor actor : project.getGlobalActorsUnmodifiable()) {
+			collectElements(actor, AssetHolder.class, holders);
+		}
+		return sumResidentAssetBytes(holders);
+	}
+
+	/**
+	 * Unloads assets of all {@link AssetHolder AssetHolders} of the Project. <br>
+	 * Should be called when the Project is closed.
+	 */
+	public void unloadAllAssets() {
+		for (Actor actor : project.getGlobalActorsUnmodifiable()) {
+			unloadAssetsOfElementTree(actor);
+		}
+	}
+
+	/**
+	 * Unloads assets of the CuteElement and all CuteElements inside it. <br>
+	 * Should be called when the CuteElement is thrown away. Otherwise assets shared with other
+	 * CuteElements, like SikuliX images, think they are still in use and stay in memory.
+	 *
+	 * @param element
+	 *            The CuteElement, can be null.
+	 */
+	public static void unloadAssetsOfElementTree(CuteElement element) {
+		Set<AssetHolder> holders = newIdentitySet();
+		collectElements(element, AssetHolder.class, holders);
+		for (AssetHolder holder : holders) {
+			holder.unloadAssets();
+		}
+	}
+
+	private static long sumResidentAssetBytes(Collection<AssetHolder> holders) {
+		long sum = 0;
+		for (AssetHolder holder : holders) {
+			sum += holder.getResidentAssetBytes();
+		}
+		return sum;
+	}
+
+	private static <T> Set<T> newIdentitySet() {
+		return Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+	}
+
+	/**
+	 * Collects the CuteElement and all CuteElements inside it which are instances of the type.
+	 *
+	 * @param element
+	 *            The CuteElement, can be null.
+	 * @param type
+	 *            The type of CuteElements to collect.
+	 * @param result
+	 *            Where to put found CuteElements.
+	 */
+	private static <T> void collectElements(CuteElement element, Class<T> type,
+			Collection<T> result) {
+		if (element == null)
+			return;
+		if (type.isInstance(element))
+			result.add(type.cast(element));
+		if (element.getChildren() != null) {
+			for (CuteElement child : element.getChildren()) {
+				collectElements(child, type, result);
+			}
+		}
+	}
+
+}
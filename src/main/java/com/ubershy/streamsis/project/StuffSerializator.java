@@ -23,9 +23,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.ubershy.streamsis.elements.CuteElement;
 
 /**
@@ -48,13 +48,9 @@ public final class StuffSerializator {
 	 *             Signals that an I/O exception has occurred.
 	 */
 	public static String serializeToString(Object object, boolean pretty) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
 		String serialized = null;
 		try {
-			if (pretty)
-				serialized = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(object);
-			else
-				serialized = mapper.writeValueAsString(object);
+			serialized = SerializationService.getWriter(pretty).writeValueAsString(object);
 		} catch (JsonGenerationException e) {
 			logger.error(object + "object serializing to string fail: JsonGeneration error.");
 			e.printStackTrace();
@@ -84,12 +80,9 @@ public final class StuffSerializator {
 	 */
 	public static Object deserializeFromString(String serialized, Class<?> clazz)
 			throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.configure(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT, true);
-		mapper.configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true);
 		Object object = null;
 		try {
-			object = mapper.readValue(serialized, clazz);
+			object = SerializationService.getReader(clazz).readValue(serialized);
 		} catch (JsonGenerationException e) {
 			logger.error(clazz.getSimpleName() + " deserialization fail: JsonGeneration error");
 			e.printStackTrace();
@@ -103,7 +96,7 @@ public final class StuffSerializator {
 			logger.error(clazz.getSimpleName() + " deserialization fail: IO error");
 			throw e;
 		}
-		logger.info(clazz.getSimpleName() + " deserialization success");
+		logger.debug(clazz.getSimpleName() + " deserialization success");
 		return object;
 	}
 	
@@ -113,14 +106,42 @@ public final class StuffSerializator {
 		return copy;
 	}
 
+	/**
+	 * Makes a full copy of Object with all it's children. <br>
+	 * Works like {@link #makeACopyOfObjectUsingSerialization(Object)}, but much faster: the Object
+	 * is serialized into {@link TokenBuffer}, an in-memory sequence of JSON tokens, and then
+	 * deserialized back from it. So there's no encoding to text and parsing of text. Numbers are
+	 * copied exactly, without conversion to text and back.
+	 *
+	 * @param object
+	 *            The object to copy.
+	 * @return The copy.
+	 * @throws IOException
+	 *             Signals that the Object can't be serialized or deserialized.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T makeACopyOfObjectUsingTokenBuffer(T object) throws IOException {
+		TokenBuffer buffer = new TokenBuffer(SerializationService.getMapper(), false);
+		try {
+			SerializationService.getWriter(false).writeValue(buffer, object);
+			try (JsonParser parser = buffer.asParser()) {
+				return (T) SerializationService.getReader(object.getClass()).readValue(parser);
+			}
+		} catch (JsonMappingException e) {
+			logger.error(object + " object copying fail: Mapping error.");
+			throw e;
+		} finally {
+			buffer.close();
+		}
+	}
+
 	/**
 	 * Tells if {@link CuteElement} class is written nicely by programmer and can be serialized.
 	 *
 	 * @return true, if {@link CuteElement} can be serialized
 	 */
 	public static boolean canSerializeCuteElementClass() {
-		ObjectMapper mapper = new ObjectMapper();
-		boolean bool = mapper.writerWithDefaultPrettyPrinter().canSerialize(CuteElement.class);
+		boolean bool = SerializationService.getMapper().canSerialize(CuteElement.class);
 		return bool;
 	}
 }